@@ -0,0 +1,558 @@
+/*=============================================================================#
+ # Copyright (c) 2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.rj.servi.acommons.pool.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import de.walware.rj.servi.acommons.pool.ObjectPoolItem;
+import de.walware.rj.servi.acommons.pool.PoolableObjectFactory;
+
+
+/**
+ * Tests of the borrow queue, the async borrow and the replacement of retiring items
+ * of {@link ExtGenericObjectPool}.
+ * 
+ * The tests do not depend on timing: each step waits for the expected state of the
+ * pool (e.g. the number of waiting borrowers) before the next step is done.
+ */
+public class ExtGenericObjectPoolTest {
+	
+	
+	/** Max time in millis to wait for an expected state */
+	private static final long TIMEOUT = 10000;
+	
+	
+	private static class TestFactory implements PoolableObjectFactory {
+		
+		
+		private int counter;
+		
+		private int numLive;
+		private int maxLive;
+		private int numMade;
+		
+		private final List<Object> destroyed = new ArrayList<>();
+		
+		/** The objects failing at their next activation */
+		final Set<Object> failActivation = Collections.newSetFromMap(new ConcurrentHashMap<Object, Boolean>());
+		/** The objects failing validation */
+		final Set<Object> invalid = Collections.newSetFromMap(new ConcurrentHashMap<Object, Boolean>());
+		
+		volatile boolean replaceable;
+		
+		/** If not <code>null</code>, the creation of objects blocks until the gate is opened */
+		volatile CountDownLatch creationGate;
+		/** If the creation of objects blocked by the gate fails */
+		volatile boolean failGated;
+		
+		
+		public TestFactory() {
+		}
+		
+		
+		@Override
+		public void makeObject(final ObjectPoolItem item) throws Exception {
+			final Integer obj;
+			final CountDownLatch gate;
+			synchronized (this) {
+				obj = Integer.valueOf(++this.counter);
+				gate = this.creationGate; // before the creation is visible to awaitMade
+				this.numMade++;
+				this.numLive++;
+				this.maxLive = Math.max(this.numLive, this.maxLive);
+				notifyAll();
+			}
+			if (gate != null) {
+				if (!gate.await(TIMEOUT, TimeUnit.MILLISECONDS)) {
+					throw new IllegalStateException("Timeout waiting for the creation gate");
+				}
+				if (this.failGated) {
+					synchronized (this) {
+						this.numLive--;
+					}
+					throw new Exception("creation failed");
+				}
+			}
+			item.setObject(obj);
+		}
+		
+		@Override
+		public synchronized void destroyObject(final ObjectPoolItem item) throws Exception {
+			this.numLive--;
+			this.destroyed.add(item.getObject());
+			notifyAll();
+		}
+		
+		@Override
+		public boolean validateObject(final ObjectPoolItem item) {
+			return !this.invalid.contains(item.getObject());
+		}
+		
+		@Override
+		public boolean isReplaceable(final ObjectPoolItem item) {
+			return this.replaceable;
+		}
+		
+		@Override
+		public String activateObject(final ObjectPoolItem item, final Object arg) throws Exception {
+			if (this.failActivation.remove(item.getObject())) {
+				throw new Exception("activation failed");
+			}
+			return null;
+		}
+		
+		@Override
+		public void passivateObject(final ObjectPoolItem item) throws Exception {
+		}
+		
+		@Override
+		public void detachObject(final ObjectPoolItem item) throws Exception {
+		}
+		
+		@Override
+		public void suspendObject(final ObjectPoolItem item) throws Exception {
+		}
+		
+		@Override
+		public void resumeObject(final ObjectPoolItem item) throws Exception {
+		}
+		
+		
+		synchronized int getMaxLive() {
+			return this.maxLive;
+		}
+		
+		synchronized int getNumMade() {
+			return this.numMade;
+		}
+		
+		synchronized boolean isDestroyed(final Object obj) {
+			return this.destroyed.contains(obj);
+		}
+		
+		synchronized void awaitMade(final int n) throws InterruptedException {
+			final long deadline = System.currentTimeMillis() + TIMEOUT;
+			while (this.numMade < n) {
+				final long waitTime = deadline - System.currentTimeMillis();
+				if (waitTime <= 0) {
+					fail("Timeout waiting for creation of " + n + " objects (" + this.numMade + ")");
+				}
+				wait(waitTime);
+			}
+		}
+		
+	}
+	
+	/**
+	 * A borrower in its own thread (sync) or with callback (async), recording the
+	 * result of the request.
+	 */
+	private class Borrower implements ExtGenericObjectPool.BorrowCallback {
+		
+		
+		private final int id;
+		
+		/** If the borrowed item is returned immediately */
+		private final boolean giveBack;
+		
+		/** The order of the borrowers served successfully */
+		private final BlockingQueue<Integer> order;
+		
+		private final BlockingQueue<Object> result = new LinkedBlockingQueue<>();
+		
+		
+		Borrower(final int id, final boolean giveBack, final BlockingQueue<Integer> order) {
+			this.id = id;
+			this.giveBack = giveBack;
+			this.order = order;
+		}
+		
+		
+		void startSync() {
+			final Thread thread = new Thread("Borrower-" + this.id) {
+				@Override
+				public void run() {
+					try {
+						borrowed(ExtGenericObjectPoolTest.this.pool.borrowObject(null));
+					}
+					catch (final Exception e) {
+						failed(e);
+					}
+				}
+			};
+			thread.setDaemon(true);
+			thread.start();
+		}
+		
+		void startAsync() {
+			ExtGenericObjectPoolTest.this.pool.borrowObject(null, this);
+		}
+		
+		@Override
+		public void borrowed(final ObjectPoolItem item) {
+			if (this.order != null) {
+				this.order.add(Integer.valueOf(this.id));
+			}
+			if (this.giveBack) {
+				try {
+					ExtGenericObjectPoolTest.this.pool.returnObject(item);
+				}
+				catch (final Exception e) {
+					this.result.add(e);
+					return;
+				}
+			}
+			this.result.add(item);
+		}
+		
+		@Override
+		public void failed(final Exception e) {
+			this.result.add(e);
+		}
+		
+		/**
+		 * Waits for the result of the request.
+		 * 
+		 * @return the borrowed item or the exception
+		 */
+		Object awaitResult() throws InterruptedException {
+			final Object result = this.result.poll(TIMEOUT, TimeUnit.MILLISECONDS);
+			if (result == null) {
+				fail("Timeout waiting for borrower " + this.id);
+			}
+			return result;
+		}
+		
+		ObjectPoolItem awaitItem() throws InterruptedException {
+			final Object result = awaitResult();
+			if (!(result instanceof ObjectPoolItem)) {
+				throw new AssertionError("Borrower " + this.id + " failed: " + result);
+			}
+			return (ObjectPoolItem) result;
+		}
+		
+		boolean hasResult() {
+			return !this.result.isEmpty();
+		}
+		
+	}
+	
+	
+	private final TestFactory factory = new TestFactory();
+	
+	private ExtGenericObjectPool pool;
+	private boolean closed;
+	
+	
+	public ExtGenericObjectPoolTest() {
+	}
+	
+	
+	private static ExtGenericObjectPool.Config createConfig(final int maxActive) {
+		final ExtGenericObjectPool.Config config = new ExtGenericObjectPool.Config();
+		config.maxActive = maxActive;
+		config.maxIdle = maxActive;
+		config.minIdle = 0;
+		config.whenExhaustedAction = ExtGenericObjectPool.WHEN_EXHAUSTED_BLOCK;
+		config.maxWait = -1;
+		// no evictor, all changes are done by the test
+		config.timeBetweenEvictionRunsMillis = -1;
+		return config;
+	}
+	
+	private void createPool(final ExtGenericObjectPool.Config config) {
+		this.pool = new ExtGenericObjectPool(this.factory, config);
+	}
+	
+	private void awaitWaiting(final int n) throws InterruptedException {
+		final long deadline = System.currentTimeMillis() + TIMEOUT;
+		while (this.pool.getNumWaiting() != n) {
+			if (System.currentTimeMillis() - deadline > 0) {
+				fail("Timeout waiting for " + n + " waiting borrowers (" + this.pool.getNumWaiting() + ")");
+			}
+			Thread.sleep(5);
+		}
+	}
+	
+	@After
+	public void disposePool() throws Exception {
+		if (this.pool != null && !this.closed) {
+			this.pool.close(0);
+			this.pool.waitForClosed(TIMEOUT);
+		}
+	}
+	
+	
+	@Test
+	public void borrowInFifoOrder() throws Exception {
+		createPool(createConfig(1));
+		final ObjectPoolItem item = this.pool.borrowObject(null);
+		
+		final BlockingQueue<Integer> order = new LinkedBlockingQueue<>();
+		final Borrower[] borrowers = new Borrower[6];
+		for (int i = 0; i < borrowers.length; i++) {
+			borrowers[i] = new Borrower(i, true, order);
+			if (i % 2 == 0) {
+				borrowers[i].startSync();
+			}
+			else {
+				borrowers[i].startAsync();
+			}
+			awaitWaiting(i + 1);
+		}
+		
+		this.pool.returnObject(item);
+		for (int i = 0; i < borrowers.length; i++) {
+			assertSame(item, borrowers[i].awaitItem());
+			assertEquals(Integer.valueOf(i), order.poll());
+		}
+		assertEquals(0, this.pool.getNumWaiting());
+		assertEquals(0, this.pool.getNumActive());
+		assertEquals(1, this.factory.getNumMade());
+	}
+	
+	@Test
+	public void keepPlaceIfItemFails() throws Exception {
+		createPool(createConfig(1));
+		final ObjectPoolItem item1 = this.pool.borrowObject(null);
+		final Object obj1 = item1.getObject();
+		
+		final BlockingQueue<Integer> order = new LinkedBlockingQueue<>();
+		final Borrower borrower1 = new Borrower(1, false, order);
+		borrower1.startSync();
+		awaitWaiting(1);
+		final Borrower borrower2 = new Borrower(2, false, order);
+		borrower2.startAsync();
+		awaitWaiting(2);
+		
+		// the first waiter gets the returned item, but the activation fails
+		this.factory.failActivation.add(obj1);
+		this.pool.returnObject(item1);
+		
+		final ObjectPoolItem item2 = borrower1.awaitItem();
+		assertNotSame(obj1, item2.getObject());
+		this.pool.evict(); // destroys the items prepared for destruction
+		assertTrue(this.factory.isDestroyed(obj1));
+		assertEquals(1, this.pool.getNumWaiting());
+		assertTrue(!borrower2.hasResult());
+		
+		this.pool.returnObject(item2);
+		assertSame(item2, borrower2.awaitItem());
+		assertEquals(Integer.valueOf(1), order.poll());
+		assertEquals(Integer.valueOf(2), order.poll());
+		
+		this.pool.returnObject(item2);
+	}
+	
+	@Test
+	public void keepPlaceIfActivationOfFirstWaiterFails() throws Exception {
+		createPool(createConfig(1));
+		final ObjectPoolItem item1 = this.pool.borrowObject(null);
+		final Object obj1 = item1.getObject();
+		
+		final Borrower borrower1 = new Borrower(1, false, null);
+		borrower1.startAsync();
+		awaitWaiting(1);
+		final Borrower borrower2 = new Borrower(2, false, null);
+		borrower2.startSync();
+		awaitWaiting(2);
+		
+		// invalid item: the first waiter creates a new one instead, the second keeps waiting
+		this.factory.failActivation.add(obj1);
+		this.pool.returnObject(item1);
+		
+		final ObjectPoolItem item2 = borrower1.awaitItem();
+		assertNotSame(obj1, item2.getObject());
+		assertEquals(1, this.pool.getNumWaiting());
+		assertEquals(1, this.pool.getNumActive());
+		
+		this.pool.returnObject(item2);
+		assertSame(item2, borrower2.awaitItem());
+		this.pool.returnObject(item2);
+	}
+	
+	@Test
+	public void failWaitersAtTimeout() throws Exception {
+		final ExtGenericObjectPool.Config config = createConfig(1);
+		config.maxWait = 100;
+		createPool(config);
+		final ObjectPoolItem item = this.pool.borrowObject(null);
+		
+		final Borrower asyncBorrower = new Borrower(1, false, null);
+		asyncBorrower.startAsync();
+		try {
+			this.pool.borrowObject(null);
+			fail("NoSuchElementException expected");
+		}
+		catch (final NoSuchElementException e) {
+		}
+		assertTrue(asyncBorrower.awaitResult() instanceof NoSuchElementException);
+		assertEquals(0, this.pool.getNumWaiting());
+		assertEquals(1, this.pool.getNumActive());
+		
+		// no permission is left over by the failed waiters
+		this.pool.returnObject(item);
+		assertEquals(0, this.pool.getNumActive());
+		assertSame(item, this.pool.borrowObject(null));
+		this.pool.returnObject(item);
+		assertEquals(1, this.factory.getNumMade());
+	}
+	
+	@Test
+	public void failWaitersAtClose() throws Exception {
+		createPool(createConfig(1));
+		final ObjectPoolItem item = this.pool.borrowObject(null);
+		
+		final Borrower syncBorrower = new Borrower(1, false, null);
+		syncBorrower.startSync();
+		awaitWaiting(1);
+		final Borrower asyncBorrower = new Borrower(2, false, null);
+		asyncBorrower.startAsync();
+		awaitWaiting(2);
+		
+		this.closed = true;
+		this.pool.close(0);
+		assertTrue(syncBorrower.awaitResult() instanceof IllegalStateException);
+		assertTrue(asyncBorrower.awaitResult() instanceof IllegalStateException);
+		assertEquals(0, this.pool.getNumWaiting());
+		
+		this.pool.returnObject(item);
+		assertTrue(this.pool.waitForClosed(TIMEOUT));
+		assertTrue(this.factory.isDestroyed(item.getObject()));
+		
+		// new requests fail immediately
+		final Borrower lateBorrower = new Borrower(3, false, null);
+		lateBorrower.startAsync();
+		assertTrue(lateBorrower.awaitResult() instanceof IllegalStateException);
+	}
+	
+	@Test
+	public void keepMaxTotalDuringReplacement() throws Exception {
+		final ExtGenericObjectPool.Config config = createConfig(2);
+		config.testOnReturn = true;
+		config.replaceRetiring = true;
+		createPool(config);
+		this.factory.replaceable = true;
+		final ObjectPoolItem item1 = this.pool.borrowObject(null);
+		final Object obj1 = item1.getObject();
+		
+		// the invalid item is kept until its successor is created
+		final CountDownLatch gate = new CountDownLatch(1);
+		this.factory.creationGate = gate;
+		this.factory.invalid.add(obj1);
+		this.pool.returnObject(item1);
+		this.factory.awaitMade(2);
+		assertEquals(1, this.pool.getNumIdle());
+		
+		assertSame(item1, this.pool.borrowObject(null));
+		
+		// the successor in creation counts against maxActive
+		final Borrower borrower = new Borrower(1, false, null);
+		borrower.startSync();
+		awaitWaiting(1);
+		assertEquals(2, this.factory.getNumMade());
+		
+		gate.countDown();
+		final ObjectPoolItem item2 = borrower.awaitItem();
+		assertNotSame(obj1, item2.getObject());
+		assertEquals(2, this.factory.getMaxLive());
+		
+		// the replaced item is destroyed when it is returned
+		this.pool.returnObject(item1);
+		this.pool.evict(); // destroys the items prepared for destruction
+		assertTrue(this.factory.isDestroyed(obj1));
+		assertEquals(0, this.pool.getNumIdle());
+		assertEquals(1, this.pool.getNumActive());
+		
+		this.pool.returnObject(item2);
+		assertEquals(2, this.factory.getMaxLive());
+	}
+	
+	@Test
+	public void destroyRetiringWithoutCapacity() throws Exception {
+		final ExtGenericObjectPool.Config config = createConfig(2);
+		config.testOnReturn = true;
+		config.replaceRetiring = true;
+		createPool(config);
+		this.factory.replaceable = true;
+		final ObjectPoolItem item1 = this.pool.borrowObject(null);
+		final ObjectPoolItem item2 = this.pool.borrowObject(null);
+		
+		// no capacity for a successor: the invalid item is destroyed at once
+		this.factory.invalid.add(item1.getObject());
+		this.pool.returnObject(item1);
+		this.pool.evict(); // destroys the items prepared for destruction
+		assertTrue(this.factory.isDestroyed(item1.getObject()));
+		assertEquals(2, this.factory.getNumMade());
+		assertEquals(0, this.pool.getNumIdle());
+		assertEquals(1, this.pool.getNumActive());
+		
+		this.pool.returnObject(item2);
+		assertEquals(2, this.factory.getMaxLive());
+	}
+	
+	@Test
+	public void serveWaitersIfReplacementFails() throws Exception {
+		final ExtGenericObjectPool.Config config = createConfig(2);
+		config.testOnReturn = true;
+		config.replaceRetiring = true;
+		createPool(config);
+		this.factory.replaceable = true;
+		final ObjectPoolItem item1 = this.pool.borrowObject(null);
+		final Object obj1 = item1.getObject();
+		
+		final CountDownLatch gate = new CountDownLatch(1);
+		this.factory.creationGate = gate;
+		this.factory.invalid.add(obj1);
+		this.pool.returnObject(item1);
+		this.factory.awaitMade(2);
+		assertSame(item1, this.pool.borrowObject(null));
+		
+		final Borrower borrower = new Borrower(1, false, null);
+		borrower.startAsync();
+		awaitWaiting(1);
+		
+		// the creation of the successor fails: the waiter creates an item itself
+		this.factory.creationGate = null;
+		this.factory.failGated = true;
+		gate.countDown();
+		final ObjectPoolItem item2 = borrower.awaitItem();
+		assertNotSame(obj1, item2.getObject());
+		assertEquals(0, this.pool.getNumWaiting());
+		assertEquals(3, this.factory.getNumMade());
+		assertEquals(2, this.factory.getMaxLive());
+		
+		this.pool.returnObject(item1);
+		this.pool.evict(); // destroys the items prepared for destruction
+		assertTrue(this.factory.isDestroyed(obj1));
+		this.pool.returnObject(item2);
+	}
+	
+}
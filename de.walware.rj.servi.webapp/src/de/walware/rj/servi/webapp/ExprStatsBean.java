@@ -0,0 +1,70 @@
+/*=============================================================================#
+ # Copyright (c) 2009-2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.rj.servi.webapp;
+
+import javax.annotation.PostConstruct;
+
+import de.walware.rj.servi.pool.RServiPoolManager;
+
+
+public class ExprStatsBean {
+	
+	
+	private static final int MAX_EXPRS = 100;
+	
+	
+	private RServiPoolManager.ExprStat[] exprStats;
+	
+	
+	public ExprStatsBean() {
+	}
+	
+	
+	@PostConstruct
+	public void init() {
+		load();
+	}
+	
+	private void load() {
+		final RServiPoolManager poolManager = FacesUtils.getPoolServer().getManager();
+		if (poolManager == null) {
+			FacesUtils.addErrorMessage(null, "The pool is currently not available.");
+			this.exprStats = new RServiPoolManager.ExprStat[0];
+			return;
+		}
+		this.exprStats = poolManager.getExprStats(MAX_EXPRS);
+	}
+	
+	
+	public RServiPoolManager.ExprStat[] getExprStats() {
+		return this.exprStats;
+	}
+	
+	public int getMaxExprs() {
+		return MAX_EXPRS;
+	}
+	
+	
+	public String actionRefresh() {
+		return null;
+	}
+	
+	public String actionReset() {
+		final RServiPoolManager poolManager = FacesUtils.getPoolServer().getManager();
+		if (poolManager != null) {
+			poolManager.resetExprStats();
+		}
+		load();
+		return null;
+	}
+	
+}
@@ -0,0 +1,89 @@
+/*=============================================================================#
+ # Copyright (c) 2009-2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.rj.servi.webapp;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import de.walware.rj.servi.pool.PoolMetrics;
+import de.walware.rj.servi.pool.PoolServer;
+
+
+/**
+ * Serves the pool status in the OpenMetrics text format (e.g. for Prometheus).
+ * 
+ * The metrics are refreshed in the background, requests only return the last snapshot.
+ * The interval of the refresh (ms) can be specified by the init parameter
+ * <code>interval</code>.
+ */
+public class MetricsServlet extends HttpServlet {
+	
+	
+	private PoolMetrics metrics;
+	
+	
+	public MetricsServlet() {
+	}
+	
+	
+	@Override
+	public void init(final ServletConfig config) throws ServletException {
+		super.init(config);
+		final PoolServer server = (PoolServer) getServletContext().getAttribute(RJWeb.RJ_POOLSERVER_KEY);
+		if (server == null) {
+			throw new ServletException("RServi Server is not available.");
+		}
+		long interval = PoolMetrics.DEFAULT_INTERVAL;
+		final String s = config.getInitParameter("interval");
+		if (s != null) {
+			try {
+				interval = Long.parseLong(s);
+			}
+			catch (final NumberFormatException e) {
+				throw new ServletException("Invalid init parameter 'interval'.", e);
+			}
+		}
+		this.metrics = new PoolMetrics(server, interval);
+	}
+	
+	@Override
+	public void destroy() {
+		if (this.metrics != null) {
+			this.metrics.dispose();
+			this.metrics = null;
+		}
+	}
+	
+	@Override
+	protected void doGet(final HttpServletRequest request, final HttpServletResponse response) throws ServletException, IOException {
+		final PoolMetrics metrics = this.metrics;
+		if (metrics == null) {
+			response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+			return;
+		}
+		final byte[] content = metrics.getText().getBytes("UTF-8");
+		response.setStatus(HttpServletResponse.SC_OK);
+		response.setContentType(PoolMetrics.CONTENT_TYPE);
+		response.setContentLength(content.length);
+		response.setHeader("Cache-Control", "no-cache");
+		try (final OutputStream out = response.getOutputStream()) {
+			out.write(content);
+		}
+	}
+	
+}
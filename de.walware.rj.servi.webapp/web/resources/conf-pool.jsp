@@ -60,6 +60,14 @@
 	<h:inputText id="min_idle_millis" label="Min node idle time (4)" value="#{poolConfig.minIdleTime}" required="true" />
 	<h:outputText>... or idle count greater than (2) count and idle time greater than (4).</h:outputText>
 	
+	<h:outputText/>
+	<h:outputText/>
+	<h:outputText>Hibernate idling nodes if...</h:outputText>
+	
+	<h:outputLabel for="max_awake_idle_count" value="(19) Max awake idle nodes (count):" />
+	<h:inputText id="max_awake_idle_count" label="Max awake idle nodes (19)" value="#{poolConfig.maxAwakeIdleCount}" required="true" />
+	<h:outputText>... idle count greater than (19); the process of a surplus node is stopped until the node is needed (Linux only, -1 = disable).</h:outputText>
+	
 	<h:outputText/>
 	<h:outputText/>
 	<h:outputText>When node is requested and max count nodes (1) is in use ...</h:outputText>
@@ -76,6 +84,42 @@
 	<h:inputText id="max_usage_count" label="Max node reuse (6)" value="#{poolConfig.maxUsageCount}" required="true" />
 	<h:outputText>... recycle a node maximal (6) times.</h:outputText>
 	
+	<h:outputLabel for="max_age_millis" value="(12) Max node age (millisec):" />
+	<h:inputText id="max_age_millis" label="Max node age (12)" value="#{poolConfig.maxAge}" required="true" />
+	<h:outputText>... recycle a node older than (12), reduced randomly by up to 10% (-1 = disable).</h:outputText>
+	
+	<h:outputLabel for="max_r_heap" value="(13) Max R heap size (MB):" />
+	<h:inputText id="max_r_heap" label="Max R heap size (13)" value="#{poolConfig.maxRHeap}" required="true" />
+	<h:outputText>... recycle a node if the R heap after the last reset with garbage collection exceeds (13) (-1 = disable).</h:outputText>
+	
+	<h:outputLabel for="max_process_memory" value="(14) Max node process memory (MB):" />
+	<h:inputText id="max_process_memory" label="Max node process memory (14)" value="#{poolConfig.maxProcessMemory}" required="true" />
+	<h:outputText>... recycle a node if its resident memory exceeds (14) (Linux only, -1 = disable).</h:outputText>
+	
+	<h:outputLabel for="replace_retiring_enabled" value="(15) Replace nodes before recycling:" />
+	<h:selectBooleanCheckbox id="replace_retiring_enabled" label="Replace nodes before recycling (15)" value="#{poolConfig.replaceRetiringEnabled}" required="true" />
+	<h:outputText>... start the successor of a node reaching (6), (12), (13) or (14) immediately and keep the node in use until the successor is ready.</h:outputText>
+	
+	<h:outputText/>
+	<h:outputText/>
+	<h:outputText>When the R node configuration is changed:</h:outputText>
+	
+	<h:outputLabel for="rolling_update_rate" value="(16) Rolling update rate (nodes per minute):" />
+	<h:inputText id="rolling_update_rate" label="Rolling update rate (16)" value="#{poolConfig.rollingUpdateRate}" required="true" />
+	<h:outputText>... replace (16) idle nodes per minute and nodes in use when returned, keeping old nodes until their successors are ready (0 = on return only, -1 = disable).</h:outputText>
+	
+	<h:outputText/>
+	<h:outputText/>
+	<h:outputText>CPU budget of the nodes:</h:outputText>
+	
+	<h:outputLabel for="node_threads_count" value="(17) BLAS/OpenMP threads per node:" />
+	<h:inputText id="node_threads_count" label="Threads per node (17)" value="#{poolConfig.nodeThreads}" required="true" />
+	<h:outputText>... set OMP_NUM_THREADS, OPENBLAS_NUM_THREADS etc. for new nodes (0 = available CPUs / (1), -1 = disable).</h:outputText>
+	
+	<h:outputLabel for="node_cpu_pinning_enabled" value="(18) Pin nodes to CPUs:" />
+	<h:selectBooleanCheckbox id="node_cpu_pinning_enabled" label="Pin nodes to CPUs (18)" value="#{poolConfig.nodeCpuPinningEnabled}" required="true" />
+	<h:outputText>... pin each new node to its own set of (17) CPUs while free CPUs are available (Linux only).</h:outputText>
+	
 	<h:outputText/>
 	<h:outputText/>
 	<h:outputText>When stopping the pool or single nodes:</h:outputText>
@@ -83,6 +127,34 @@
 	<h:outputLabel for="eviction_timeout_millis" value="(7) Timeout when evicting node in use (millisec):" accesskey="7" />
 	<h:inputText id="eviction_timeout_millis" label="Timeout when evicting node (7)" value="#{poolConfig.evictionTimeout}" required="true" />
 	<h:outputText></h:outputText>
+	
+	<h:outputText/>
+	<h:outputText/>
+	<h:outputText>When starting new nodes:</h:outputText>
+	
+	<h:outputLabel for="max_starting_count" value="(8) Max nodes starting concurrently (count):" accesskey="8" />
+	<h:inputText id="max_starting_count" label="Max nodes starting concurrently (8)" value="#{poolConfig.maxStartingCount}" required="true" />
+	<h:outputText>... start at most (8) nodes at the same time.</h:outputText>
+	
+	<h:outputLabel for="min_idle_adaptive_max_count" value="(9) Adaptive min idle nodes, upper bound (count):" accesskey="9" />
+	<h:inputText id="min_idle_adaptive_max_count" label="Adaptive min idle nodes (9)" value="#{poolConfig.minIdleAdaptiveMaxCount}" required="true" />
+	<h:outputText>... if (9) is greater than (2), adapt the min idle count between (2) and (9) to the request rate (-1 = disable).</h:outputText>
+	
+	<h:outputText/>
+	<h:outputText/>
+	<h:outputText>When serving requests:</h:outputText>
+	
+	<h:outputLabel for="affinity_enabled" value="(10) Enable client affinity:" />
+	<h:selectBooleanCheckbox id="affinity_enabled" label="Enable client affinity (10)" value="#{poolConfig.affinityEnabled}" required="true" />
+	<h:outputText>... prefer the idle node last used by a client with the same name from the same host.</h:outputText>
+	
+	<h:outputLabel for="affinity_keep_workspace" value="(11) Keep workspace for the same client:" />
+	<h:selectBooleanCheckbox id="affinity_keep_workspace" label="Keep workspace for the same client (11)" value="#{poolConfig.affinityKeepWorkspace}" required="true" />
+	<h:outputText>... if (10) is enabled, reset the workspace of a returned node not until it is requested by another client. The client name is not authenticated, clients from the same host using the same name share the workspace; enable only for trusted clients.</h:outputText>
+	
+	<h:outputLabel for="reset_background_enabled" value="(20) Reset returned nodes in background:" />
+	<h:selectBooleanCheckbox id="reset_background_enabled" label="Reset returned nodes in background (20)" value="#{poolConfig.resetBackgroundEnabled}" required="true" />
+	<h:outputText>... return to the client immediately and reset the workspace of the node in the background; otherwise the client waits for the reset.</h:outputText>
 </h:panelGrid>
 	
 	<h:commandButton id="loadDefaults" value="Load Defaults" action="#{poolConfig.actionLoadDefaults}" type="button" immediate="true" accesskey="L" />
@@ -72,6 +72,61 @@
 	<h:selectBooleanCheckbox id="verbose_console_enabled" label="Enable verbose logging (9)" value="#{rConfig.enableVerbose}" required="true" />
 	<h:outputText>Enables verbose logging and prevents deletion of the node directory</h:outputText>
 	
+</h:panelGrid>
+
+<h:panelGrid columns="3" styleClass="grid" columnClasses="label,value,info">
+	<f:facet name="header"><h:outputText value="Reset of the workspace after use" /></f:facet>
+	
+	<h:outputLabel for="r_reset_snippet" value="(10) R reset snippet:" />
+	<h:inputTextarea id="r_reset_snippet" label="R reset snippet (10)" value="#{rConfig.RResetSnippet}" required="false" cols="76" rows="4" />
+	<h:outputText>(run before the workspace is cleared)</h:outputText>
+	
+	<h:outputLabel for="r_reset_gc_interval_count" value="(11) Full garbage collection every n uses:" />
+	<h:inputText id="r_reset_gc_interval_count" label="Garbage collection interval (11)" value="#{rConfig.RResetGcInterval}" required="true" size="10" />
+	<h:outputText>(1 &#x21d2; after each use; 0 &#x21d2; disabled)</h:outputText>
+	
+	<h:outputLabel for="r_reset_gc_threshold_mb" value="(12) Full garbage collection if workspace larger than (MB):" />
+	<h:inputText id="r_reset_gc_threshold_mb" label="Garbage collection threshold (12)" value="#{rConfig.RResetGcThreshold}" required="true" size="10" />
+	<h:outputText>(-1 &#x21d2; disabled)</h:outputText>
+	
+</h:panelGrid>
+
+<h:panelGrid columns="3" styleClass="grid" columnClasses="label,value,info">
+	<f:facet name="header"><h:outputText value="Start of nodes" /></f:facet>
+	
+	<h:outputLabel for="node_prestart_count" value="(13) Prestarted nodes:" />
+	<h:inputText id="node_prestart_count" label="Prestarted nodes (13)" value="#{rConfig.prestartCount}" required="true" size="10" />
+	<h:outputText>Keeps completely started nodes in reserve (counted to the max total of the pool), so a new node is available without waiting for the start of R (0 &#x21d2; disabled)</h:outputText>
+	
+	<h:outputLabel for="java_cds_enabled" value="(14) Class data sharing:" />
+	<h:selectBooleanCheckbox id="java_cds_enabled" label="Class data sharing (14)" value="#{rConfig.enableJavaCds}" required="true" />
+	<h:outputText>Creates and uses an archive of the classes of the node Java VM (Java 13 or later)</h:outputText>
+	
+	<h:outputLabel for="r_preload_snippet" value="(15) R preload snippet (complete R command per line):" />
+	<h:inputTextarea id="r_preload_snippet" label="R preload snippet (15)" value="#{rConfig.RPreloadSnippet}" required="false" cols="76" rows="4" />
+	<h:outputText>(objects assigned are kept when the workspace is reset)</h:outputText>
+	
+</h:panelGrid>
+
+<h:panelGrid columns="3" styleClass="grid" columnClasses="label,value,info">
+	<f:facet name="header"><h:outputText value="Resource limits (Linux cgroup v2)" /></f:facet>
+	
+	<h:outputLabel for="cgroup_path" value="(16) Parent cgroup (path):" />
+	<h:inputText id="cgroup_path" label="Parent cgroup (16)" value="#{rConfig.cgroupPath}" required="false" size="80" />
+	<h:outputText>(empty &#x21d2; disabled; delegated group with controllers cpu and memory)</h:outputText>
+	
+	<h:outputLabel for="cgroup_cpu_weight" value="(17) CPU weight per node:" />
+	<h:inputText id="cgroup_cpu_weight" label="CPU weight (17)" value="#{rConfig.cgroupCpuWeight}" required="true" size="10" />
+	<h:outputText>(1-10000; -1 &#x21d2; default)</h:outputText>
+	
+	<h:outputLabel for="cgroup_cpu_max_percent" value="(18) CPU quota per node (% of one CPU):" />
+	<h:inputText id="cgroup_cpu_max_percent" label="CPU quota (18)" value="#{rConfig.cgroupCpuMax}" required="true" size="10" />
+	<h:outputText>(-1 &#x21d2; unlimited)</h:outputText>
+	
+	<h:outputLabel for="cgroup_memory_max_mb" value="(19) Memory limit per node (MB):" />
+	<h:inputText id="cgroup_memory_max_mb" label="Memory limit (19)" value="#{rConfig.cgroupMemoryMax}" required="true" size="10" />
+	<h:outputText>(-1 &#x21d2; unlimited)</h:outputText>
+	
 </h:panelGrid>
 	
 	<h:commandButton id="loadDefaults" value="Load Defaults" action="#{rConfig.actionLoadDefaults}" type="button" immediate="true" accesskey="L" />
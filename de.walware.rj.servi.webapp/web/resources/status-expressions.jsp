@@ -0,0 +1,106 @@
+<?xml version="1.0" encoding="ISO-8859-1" ?>
+<%@page language="java" contentType="text/html; charset=ISO-8859-1" pageEncoding="ISO-8859-1" %>
+<%@taglib uri="http://java.sun.com/jsp/jstl/core" prefix="c" %>
+<%@taglib uri="http://java.sun.com/jsf/html" prefix="h" %>
+<%@taglib uri="http://java.sun.com/jsf/core" prefix="f" %>
+<!DOCTYPE html PUBLIC "-//W3C//DTD XHTML 1.0 Transitional//EN" "http://www.w3.org/TR/xhtml1/DTD/xhtml1-transitional.dtd">
+<%--
+ #=============================================================================#
+ # Copyright (c) 2009-2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================#
+--%>
+<f:view>
+<html xmlns="http://www.w3.org/1999/xhtml">
+<head>
+<meta http-equiv="Content-Type" content="text/html; charset=ISO-8859-1" />
+<meta http-equiv="Content-Style-Type" content="text/css" />
+<link rel="stylesheet" type="text/css" href="css/style.css" />
+
+<title>(RJ) Status: R Expressions</title>
+</head>
+
+<body>
+
+<%@include file="body-header.jspf" %>
+
+<h2>Status: R Expressions</h2>
+
+<p>Expressions and function calls evaluated by the clients, summarized over all nodes.
+The expressions are normalized: literals are replaced by <code>?</code>.
+The statistics are added when a node is returned to the pool.</p>
+
+<h:form id="expressions">
+	<h:messages errorClass="error" />
+	
+<h:commandButton id="refresh" value="Refresh" action="#{exprStats.actionRefresh}" />
+<h:commandButton id="reset" value="Reset Statistics" action="#{exprStats.actionReset}" />
+
+<br/>
+
+<h:dataTable value="#{exprStats.exprStats}" var="dataItem" styleClass="table1" columnClasses=",,alignright,alignright,alignright,alignright,alignright">
+	<f:facet name="header"><h:outputText value="Top #{exprStats.maxExprs} by Total Time" /></f:facet>
+	
+	<h:column>
+		<f:facet name="header">
+			<h:outputText value="Kind" />
+		</f:facet>
+		<h:outputText value="#{dataItem.kind}" />
+	</h:column>
+	
+	<h:column>
+		<f:facet name="header">
+			<h:outputText value="Expression" />
+		</f:facet>
+		<code><h:outputText value="#{dataItem.expression}" /></code>
+	</h:column>
+	
+	<h:column>
+		<f:facet name="header">
+			<h:outputText value="Calls" />
+		</f:facet>
+		<h:outputText value="#{dataItem.count}" />
+	</h:column>
+	
+	<h:column>
+		<f:facet name="header">
+			<h:outputText value="Total (ms)" />
+		</f:facet>
+		<h:outputText value="#{dataItem.totalTime}"><f:convertNumber maxFractionDigits="1" /></h:outputText>
+	</h:column>
+	
+	<h:column>
+		<f:facet name="header">
+			<h:outputText value="Avg (ms)" />
+		</f:facet>
+		<h:outputText value="#{dataItem.meanTime}"><f:convertNumber maxFractionDigits="2" /></h:outputText>
+	</h:column>
+	
+	<h:column>
+		<f:facet name="header">
+			<h:outputText value="Max (ms)" />
+		</f:facet>
+		<h:outputText value="#{dataItem.maxTime}"><f:convertNumber maxFractionDigits="2" /></h:outputText>
+	</h:column>
+	
+	<h:column>
+		<f:facet name="header">
+			<h:outputText value="Bytes Sent" />
+		</f:facet>
+		<h:outputText value="#{dataItem.bytesOut}" rendered="#{dataItem.bytesOut >= 0}" />
+	</h:column>
+	
+</h:dataTable>
+	
+</h:form>
+
+<%@include file="body-footer.jspf" %>
+</body>
+</html>
+</f:view>
@@ -62,14 +62,134 @@
 	<h:outputText value="#{poolStatus.numIdling}" />
 	<h:outputText value="#{poolStatus.maxIdling}" />
 	
+	<h:outputText value="Hibernated:" />
+	<h:outputText value="#{poolStatus.numHibernated}" />
+	<h:outputText />
+	
 	<h:outputText value="In use:" />
 	<h:outputText value="#{poolStatus.numInUse}" />
 	<h:outputText value="#{poolStatus.maxInUse}" />
 	
+	<h:outputText value="Resetting:" />
+	<h:outputText value="#{poolStatus.numResetting}" />
+	<h:outputText />
+	
 	<h:outputText value="Total:" />
 	<h:outputText value="#{poolStatus.numTotal}" />
 	<h:outputText value="#{poolStatus.maxTotal}" />
+	
+	<h:outputText value="Waiting:" />
+	<h:outputText value="#{poolStatus.numWaiting}" />
+	<h:outputText value="#{poolStatus.maxWaiting}" />
+	
+	<h:outputText value="Wait time (avg/max, ms):" />
+	<h:outputText value="#{poolStatus.avgWaitTime}" />
+	<h:outputText value="#{poolStatus.maxWaitTime}" />
+	
+	<h:outputText value="Reset time (avg/max, ms):" />
+	<h:outputText value="#{poolStatus.avgResetDuration}" />
+	<h:outputText value="#{poolStatus.maxResetDuration}" />
+</h:panelGrid>
+
+<h:panelGrid columns="2" styleClass="table1" columnClasses=",alignright">
+	<f:facet name="header"><h:outputText value="Pool Sizing" /></f:facet>
+	
+	<h:outputText value="Min idle target:" />
+	<h:outputText value="#{poolStatus.minIdlingTarget}" />
+	
+	<h:outputText value="Requests (avg per minute):" />
+	<h:outputText value="#{poolStatus.requestRate}"><f:convertNumber maxFractionDigits="2" /></h:outputText>
+	
+	<h:outputText value="Usage duration (avg, ms):" />
+	<h:outputText value="#{poolStatus.avgUsageDuration}" />
+	
+	<h:outputText value="Busy while in use:" />
+	<h:outputText value="#{poolStatus.busyRatio}" rendered="#{poolStatus.busyRatio >= 0}"><f:convertNumber type="percent" /></h:outputText>
+	
+	<h:outputText value="Startup duration (avg, ms):" />
+	<h:outputText value="#{poolStatus.avgStartupDuration}" />
+	
+	<h:outputText value="Client affinity (hits/misses):" />
+	<h:outputText value="#{poolStatus.affinityHits} / #{poolStatus.affinityMisses}" />
+	
+	<h:outputText value="Node config generation:" />
+	<h:outputText value="#{poolStatus.nodeGeneration}" />
+	
+	<h:outputText value="Outdated nodes (rolling update):" />
+	<h:outputText value="#{poolStatus.numOutdated}" />
+	
+	<h:outputText value="BLAS/OpenMP threads (per node/total):" />
+	<h:outputText value="#{poolStatus.nodeThreads} / #{poolStatus.numThreads}" />
+	
+	<h:outputText value="Nodes pinned to CPUs:" />
+	<h:outputText value="#{poolStatus.numPinned}" />
 </h:panelGrid>
+
+<h:panelGrid columns="7" styleClass="table1" columnClasses=",alignright,alignright,alignright,alignright,alignright,alignright">
+	<f:facet name="header"><h:outputText value="Durations (ms)" /></f:facet>
+	
+	<h:outputText />
+	<h:outputText value="Count" />
+	<h:outputText value="Avg" />
+	<h:outputText value="50%" />
+	<h:outputText value="90%" />
+	<h:outputText value="99%" />
+	<h:outputText value="Max" />
+	
+	<h:outputText value="Wait for node:" />
+	<h:outputText value="#{poolStatus.borrowWaitTimes.count}" />
+	<h:outputText value="#{poolStatus.borrowWaitTimes.avg}" />
+	<h:outputText value="#{poolStatus.borrowWaitTimes.p50}" />
+	<h:outputText value="#{poolStatus.borrowWaitTimes.p90}" />
+	<h:outputText value="#{poolStatus.borrowWaitTimes.p99}" />
+	<h:outputText value="#{poolStatus.borrowWaitTimes.max}" />
+	
+	<h:outputText value="Node in use:" />
+	<h:outputText value="#{poolStatus.usageDurations.count}" />
+	<h:outputText value="#{poolStatus.usageDurations.avg}" />
+	<h:outputText value="#{poolStatus.usageDurations.p50}" />
+	<h:outputText value="#{poolStatus.usageDurations.p90}" />
+	<h:outputText value="#{poolStatus.usageDurations.p99}" />
+	<h:outputText value="#{poolStatus.usageDurations.max}" />
+	
+	<h:outputText value="Node startup:" />
+	<h:outputText value="#{poolStatus.startupDurations.count}" />
+	<h:outputText value="#{poolStatus.startupDurations.avg}" />
+	<h:outputText value="#{poolStatus.startupDurations.p50}" />
+	<h:outputText value="#{poolStatus.startupDurations.p90}" />
+	<h:outputText value="#{poolStatus.startupDurations.p99}" />
+	<h:outputText value="#{poolStatus.startupDurations.max}" />
+	
+	<h:outputText value="Node reset:" />
+	<h:outputText value="#{poolStatus.resetDurations.count}" />
+	<h:outputText value="#{poolStatus.resetDurations.avg}" />
+	<h:outputText value="#{poolStatus.resetDurations.p50}" />
+	<h:outputText value="#{poolStatus.resetDurations.p90}" />
+	<h:outputText value="#{poolStatus.resetDurations.p99}" />
+	<h:outputText value="#{poolStatus.resetDurations.max}" />
+	
+	<h:outputText value="Node shutdown:" />
+	<h:outputText value="#{poolStatus.shutdownDurations.count}" />
+	<h:outputText value="#{poolStatus.shutdownDurations.avg}" />
+	<h:outputText value="#{poolStatus.shutdownDurations.p50}" />
+	<h:outputText value="#{poolStatus.shutdownDurations.p90}" />
+	<h:outputText value="#{poolStatus.shutdownDurations.p99}" />
+	<h:outputText value="#{poolStatus.shutdownDurations.max}" />
+</h:panelGrid>
+
+<table class="table1">
+<tr><th colspan="2" scope="colgroup">Failed Requests</th></tr>
+<c:forEach items="${poolStatus.failureCounts}" var="entry">
+<tr><td><c:out value="${entry.key}" />:</td><td class="alignright"><c:out value="${entry.value}" /></td></tr>
+</c:forEach>
+</table>
+
+<table class="table1">
+<tr><th colspan="2" scope="colgroup">Recycled Nodes</th></tr>
+<c:forEach items="${poolStatus.recycleCounts}" var="entry">
+<tr><td><c:out value="${entry.key}" />:</td><td class="alignright"><c:out value="${entry.value}" /></td></tr>
+</c:forEach>
+</table>
 	
 <br/>
 	
@@ -88,6 +208,7 @@
 			<h:outputText value="State" />
 		</f:facet>
 		<h:outputText value="#{dataItem.state}" />
+		<h:outputText value=" (hibernated)" rendered="#{dataItem.hibernated}" />
 	</h:column>
 	
 	<h:column headerClass="spanleft">
@@ -113,6 +234,27 @@
 		<h:outputText value="#{dataItem.usageCount}" />
 	</h:column>
 	
+	<h:column>
+		<f:facet name="header">
+			<h:outputText value="Busy" />
+		</f:facet>
+		<h:outputText value="#{dataItem.busyRatio}" rendered="#{dataItem.busyRatio >= 0}"><f:convertNumber type="percent" /></h:outputText>
+	</h:column>
+	
+	<h:column>
+		<f:facet name="header">
+			<h:outputText value="CPU (ms)" />
+		</f:facet>
+		<h:outputText value="#{dataItem.cpuTime}" rendered="#{dataItem.cpuTime >= 0}" />
+	</h:column>
+	
+	<h:column>
+		<f:facet name="header">
+			<h:outputText value="Memory (kB)" />
+		</f:facet>
+		<h:outputText value="#{dataItem.cgroupMemory}" rendered="#{dataItem.cgroupMemory >= 0}" />
+	</h:column>
+	
 	<h:column>
 		<f:facet name="header">
 			<h:outputText value="Debug Console" />
@@ -124,6 +266,13 @@
 		<h:commandLink value="Off" action="#{dataItem.actionDisableConsole}" rendered="#{dataItem.consoleEnabled}" />
 	</h:column>
 	
+	<h:column>
+		<f:facet name="header">
+			<h:outputText value="Process Output" />
+		</f:facet>
+		<h:inputTextarea value="#{dataItem.processOutput}" readonly="true" cols="60" rows="3" />
+	</h:column>
+	
 	<h:column>
 		<f:facet name="header">
 			<h:outputText value="Evict" />
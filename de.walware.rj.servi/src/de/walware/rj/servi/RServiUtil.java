@@ -18,8 +18,10 @@ import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
 import java.util.NoSuchElementException;
+import java.util.concurrent.Future;
 
 import javax.rmi.ssl.SslRMIClientSocketFactory;
+import javax.rmi.ssl.SslRMIServerSocketFactory;
 import javax.security.auth.login.LoginException;
 
 import org.eclipse.core.runtime.CoreException;
@@ -30,8 +32,11 @@ import de.walware.ecommons.net.RMIAddress;
 
 import de.walware.rj.RjException;
 import de.walware.rj.server.RjsComConfig;
+import de.walware.rj.servi.internal.CallbackClientSocketFactory;
+import de.walware.rj.servi.internal.RServiRequest;
 import de.walware.rj.servi.pool.EmbeddedRServiManager;
 import de.walware.rj.servi.pool.RServiPool;
+import de.walware.rj.servi.pool.RServiPoolAsync;
 
 
 /**
@@ -70,33 +75,7 @@ public class RServiUtil {
 	public static RServi getRServi(final String address, final String name) throws CoreException, NoSuchElementException, LoginException {
 		try {
 			RjsComConfig.setRMIClientSocketFactory(null);
-			RServiPool pool;
-			try {
-				final RMIAddress rmiAddress = new RMIAddress(address);
-				final Registry registry = LocateRegistry.getRegistry(rmiAddress.getHost(), rmiAddress.getPortNum(),
-						(rmiAddress.isSSL()) ? new SslRMIClientSocketFactory() : null );
-				pool = (RServiPool) registry.lookup(rmiAddress.getName());
-			}
-			catch (final MalformedURLException e) {
-				throw new CoreException(new Status(IStatus.ERROR, RJ_SERVI_ID, 0,
-						"Invalid address for the RServi pool.", e));
-			}
-			catch (final UnknownHostException e) {
-				throw new CoreException(new Status(IStatus.ERROR, RJ_SERVI_ID, 0,
-						"Invalid address for the RServi pool.", e));
-			}
-			catch (final NotBoundException e) {
-				throw new CoreException(new Status(IStatus.ERROR, RJ_SERVI_ID, 0,
-						"The address does not point to a valid RServi pool.", e));
-			}
-			catch (final ClassCastException e) {
-				throw new CoreException(new Status(IStatus.ERROR, RJ_SERVI_ID, 0,
-						"The address does not point to a valid/compatible RServi pool.", e));
-			}
-			catch (final RemoteException e) {
-				throw new CoreException(new Status(IStatus.ERROR, RJ_SERVI_ID, 0,
-						"Failed looking for RServi pool in the RMI registry.", e));
-			}
+			final RServiPool pool = lookupPool(new RMIAddress[1], address);
 			try {
 				return pool.getRServi(name, null);
 			}
@@ -114,6 +93,95 @@ public class RServiUtil {
 		}
 	}
 	
+	/**
+	 * Requests a {@link RServi} instance from a pool asynchronously. The pool must be
+	 * accessible via RMI under the given address and support asynchronous requests
+	 * ({@link RServiPoolAsync}).
+	 * <p>
+	 * The method does not block while the pool is exhausted; the returned future
+	 * is completed as soon as an RServi instance is available or the request failed.
+	 * If the request failed, {@link Future#get()} throws an <code>ExecutionException</code>
+	 * with a {@link NoSuchElementException} (no free RServi instance available within the
+	 * max wait time of the pool) or a {@link RjException} as cause. The consumer must
+	 * either fetch the result or {@link Future#cancel(boolean) cancel} the request.
+	 * <p>
+	 * The R services returned by the future are available for exclusive usage
+	 * by the caller (consumer). The consumer is responsible to return it to the pool
+	 * by {@link RServi#close() closing} the RServi.
+	 * 
+	 * @param address the RMI address of the pool
+	 * @param name a name which can be used to identify the client
+	 * @return the future of the RServi instance
+	 * @throws CoreException if the operation was failed; the status
+	 *     of the exception contains detail about the cause
+	 * @throws LoginException if the RServi request requires authentication
+	 * @since 2.1
+	 */
+	public static Future<RServi> getRServiAsync(final String address, final String name) throws CoreException, LoginException {
+		final RMIAddress[] rmiAddress = new RMIAddress[1];
+		final RServiPool pool;
+		try {
+			RjsComConfig.setRMIClientSocketFactory(null);
+			pool = lookupPool(rmiAddress, address);
+		}
+		finally {
+			RjsComConfig.clearRMIClientSocketFactory();
+		}
+		if (!(pool instanceof RServiPoolAsync)) {
+			throw new CoreException(new Status(IStatus.ERROR, RJ_SERVI_ID, 0,
+					"The RServi pool does not support asynchronous requests.", null));
+		}
+		final RServiRequest request = new RServiRequest();
+		try {
+			final RServiPoolAsync.Callback callback = (rmiAddress[0].isSSL()) ?
+					request.export(new CallbackClientSocketFactory(true, RServiRequest.CALLBACK_TIMEOUT),
+							new SslRMIServerSocketFactory() ) :
+					request.export(new CallbackClientSocketFactory(false, RServiRequest.CALLBACK_TIMEOUT),
+							null );
+			((RServiPoolAsync) pool).requestRServi(name, null, callback);
+			return request;
+		}
+		catch (final RjException e) {
+			request.failedLocal(e);
+			throw new CoreException(new Status(IStatus.ERROR, RJ_SERVI_ID, 0,
+					"Failed requesting an RServi instance from the RServi pool.", e));
+		}
+		catch (final RemoteException e) {
+			request.failedLocal(e);
+			throw new CoreException(new Status(IStatus.ERROR, RJ_SERVI_ID, 0,
+					"Failed requesting an RServi instance from the RServi pool.", e));
+		}
+	}
+	
+	private static RServiPool lookupPool(final RMIAddress[] rmiAddress, final String address) throws CoreException {
+		try {
+			rmiAddress[0] = new RMIAddress(address);
+			final Registry registry = LocateRegistry.getRegistry(rmiAddress[0].getHost(), rmiAddress[0].getPortNum(),
+					(rmiAddress[0].isSSL()) ? new SslRMIClientSocketFactory() : null );
+			return (RServiPool) registry.lookup(rmiAddress[0].getName());
+		}
+		catch (final MalformedURLException e) {
+			throw new CoreException(new Status(IStatus.ERROR, RJ_SERVI_ID, 0,
+					"Invalid address for the RServi pool.", e));
+		}
+		catch (final UnknownHostException e) {
+			throw new CoreException(new Status(IStatus.ERROR, RJ_SERVI_ID, 0,
+					"Invalid address for the RServi pool.", e));
+		}
+		catch (final NotBoundException e) {
+			throw new CoreException(new Status(IStatus.ERROR, RJ_SERVI_ID, 0,
+					"The address does not point to a valid RServi pool.", e));
+		}
+		catch (final ClassCastException e) {
+			throw new CoreException(new Status(IStatus.ERROR, RJ_SERVI_ID, 0,
+					"The address does not point to a valid/compatible RServi pool.", e));
+		}
+		catch (final RemoteException e) {
+			throw new CoreException(new Status(IStatus.ERROR, RJ_SERVI_ID, 0,
+					"Failed looking for RServi pool in the RMI registry.", e));
+		}
+	}
+	
 	/**
 	 * Requests a {@link RServi} instance from the given manager. The manager must be
 	 * configured and started.
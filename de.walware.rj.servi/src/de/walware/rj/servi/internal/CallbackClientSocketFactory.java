@@ -0,0 +1,85 @@
+/*=============================================================================#
+ # Copyright (c) 2009-2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.rj.servi.internal;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.Socket;
+import java.rmi.server.RMIClientSocketFactory;
+import java.rmi.server.RMISocketFactory;
+
+import javax.rmi.ssl.SslRMIClientSocketFactory;
+
+
+/**
+ * Client socket factory of the callbacks of asynchronous RServi requests.
+ * 
+ * The sockets have a read timeout, so the pool calling a hung client is not blocked
+ * infinitely.
+ */
+public class CallbackClientSocketFactory implements RMIClientSocketFactory, Serializable {
+	
+	
+	private static final long serialVersionUID = 1L;
+	
+	
+	private final boolean ssl;
+	private final int readTimeout;
+	
+	private transient SslRMIClientSocketFactory sslFactory;
+	
+	
+	public CallbackClientSocketFactory(final boolean ssl, final int readTimeout) {
+		this.ssl = ssl;
+		this.readTimeout = readTimeout;
+	}
+	
+	
+	@Override
+	public Socket createSocket(final String host, final int port) throws IOException {
+		final Socket socket;
+		if (this.ssl) {
+			synchronized (this) {
+				if (this.sslFactory == null) {
+					this.sslFactory = new SslRMIClientSocketFactory();
+				}
+			}
+			socket = this.sslFactory.createSocket(host, port);
+		}
+		else {
+			final RMISocketFactory factory = RMISocketFactory.getSocketFactory();
+			socket = ((factory != null) ? factory : RMISocketFactory.getDefaultSocketFactory())
+					.createSocket(host, port);
+		}
+		socket.setSoTimeout(this.readTimeout);
+		return socket;
+	}
+	
+	
+	@Override
+	public int hashCode() {
+		return (this.ssl) ? (this.readTimeout + 1) : this.readTimeout;
+	}
+	
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj instanceof CallbackClientSocketFactory) {
+			final CallbackClientSocketFactory other = (CallbackClientSocketFactory) obj;
+			return (this.ssl == other.ssl && this.readTimeout == other.readTimeout);
+		}
+		return false;
+	}
+	
+}
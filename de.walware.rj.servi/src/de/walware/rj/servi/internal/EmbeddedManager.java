@@ -108,8 +108,10 @@ public class EmbeddedManager implements EmbeddedRServiManager, IDisposable {
 				return;
 			}
 		}
-		this.factory.stopNode(this.handler);
+		this.factory.stopNode(this.handler, null);
 		this.handler = null;
+		this.factory.stopPrestartedNodes();
+		this.factory.waitForStoppedNodes();
 	}
 	
 	@Override
@@ -0,0 +1,302 @@
+/*=============================================================================#
+ # Copyright (c) 2009-2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.rj.servi.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.walware.rj.servi.pool.RServiPoolManager;
+
+
+/**
+ * Bounded table of statistics of R expressions and function calls.
+ * 
+ * The node records the calls of its current client, the pool aggregates the tables
+ * of all nodes.  If the table is full, the entries with the lowest call count are removed.
+ * The count used for the removal decays with each removal, ties are removed oldest first,
+ * and entries added since the last removal are only removed if no other entries are left.
+ */
+final class ExprStatsTable {
+	
+	
+	static final String EVAL_VOID = "evalVoid";
+	static final String EVAL_DATA = "evalData";
+	static final String CALL_VOID = "callVoid";
+	static final String CALL_DATA = "callData";
+	
+	private static final int MAX_EXPR_LENGTH = 256;
+	
+	/** factor applied to the score of the entries kept at each removal */
+	private static final double SCORE_DECAY = 0.5;
+	
+	
+	private static final class Entry {
+		
+		final String kind;
+		final String expression;
+		/** sequence number of the entry, the lower the older */
+		final long seq;
+		/** removal round the entry was added in */
+		final int round;
+		long count;
+		long totalNanos;
+		long maxNanos;
+		long bytesOut;
+		/** decayed count, for the removal */
+		double score;
+		
+		Entry(final String kind, final String expression, final long seq, final int round) {
+			this.kind = kind;
+			this.expression = expression;
+			this.seq = seq;
+			this.round = round;
+		}
+		
+		void addBytes(final long bytes) {
+			if (this.bytesOut >= 0) {
+				this.bytesOut = (bytes >= 0) ? (this.bytesOut + bytes) : -1;
+			}
+		}
+		
+	}
+	
+	private static final Comparator<Entry> SCORE_COMPARATOR = new Comparator<Entry>() {
+		@Override
+		public int compare(final Entry e1, final Entry e2) {
+			if (e1.score != e2.score) {
+				return (e1.score < e2.score) ? -1 : 1;
+			}
+			return (e1.seq < e2.seq) ? -1 : ((e1.seq == e2.seq) ? 0 : 1);
+		}
+	};
+	
+	private static final Comparator<Entry> TIME_COMPARATOR = new Comparator<Entry>() {
+		@Override
+		public int compare(final Entry e1, final Entry e2) {
+			return (e1.totalNanos > e2.totalNanos) ? -1 : ((e1.totalNanos == e2.totalNanos) ? 0 : 1);
+		}
+	};
+	
+	
+	/**
+	 * Normalizes the R expression: literals (strings and numbers) are replaced by
+	 * <code>?</code>, comments are removed and whitespace is collapsed.
+	 * 
+	 * @param expr the expression
+	 * @return the normalized expression
+	 */
+	static String normalize(final String expr) {
+		final StringBuilder sb = new StringBuilder(Math.min(expr.length(), MAX_EXPR_LENGTH + 3));
+		final int n = expr.length();
+		int i = 0;
+		while (i < n && sb.length() < MAX_EXPR_LENGTH) {
+			final char c = expr.charAt(i);
+			if (c == '\'' || c == '\"') {
+				i++;
+				while (i < n && expr.charAt(i) != c) {
+					i += (expr.charAt(i) == '\\') ? 2 : 1;
+				}
+				i++;
+				sb.append('?');
+			}
+			else if (c == '#') {
+				while (i < n && expr.charAt(i) != '\n') {
+					i++;
+				}
+			}
+			else if (Character.isWhitespace(c)) {
+				while (i < n && Character.isWhitespace(expr.charAt(i))) {
+					i++;
+				}
+				if (sb.length() > 0 && sb.charAt(sb.length() - 1) != ' ') {
+					sb.append(' ');
+				}
+			}
+			else if ((c >= '0' && c <= '9') && !isNamePart(sb)) {
+				// the exponent is 'e' for decimal, 'p' for hexadecimal numbers
+				final char exp = (c == '0' && i + 1 < n
+						&& (expr.charAt(i + 1) == 'x' || expr.charAt(i + 1) == 'X') ) ? 'p' : 'e';
+				i++;
+				while (i < n) {
+					final char d = expr.charAt(i);
+					if (Character.isLetterOrDigit(d) || d == '.') {
+						i++;
+					}
+					else if ((d == '-' || d == '+')
+							&& Character.toLowerCase(expr.charAt(i - 1)) == exp ) {
+						i++;
+					}
+					else {
+						break;
+					}
+				}
+				sb.append('?');
+			}
+			else {
+				sb.append(c);
+				i++;
+			}
+		}
+		int length = sb.length();
+		while (length > 0 && sb.charAt(length - 1) == ' ') {
+			length--;
+		}
+		sb.setLength(length);
+		if (i < n) {
+			sb.append("...");
+		}
+		return sb.toString();
+	}
+	
+	private static boolean isNamePart(final StringBuilder sb) {
+		if (sb.length() == 0) {
+			return false;
+		}
+		final char c = sb.charAt(sb.length() - 1);
+		return (Character.isLetterOrDigit(c) || c == '.' || c == '_');
+	}
+	
+	
+	private final int maxSize;
+	
+	private final Map<String, Entry> entries = new HashMap<>();
+	
+	private long entrySeq;
+	private int round;
+	
+	
+	public ExprStatsTable(final int maxSize) {
+		this.maxSize = maxSize;
+	}
+	
+	
+	private Entry getEntry(final String kind, final String expression) {
+		final String key = kind + ':' + expression;
+		Entry entry = this.entries.get(key);
+		if (entry == null) {
+			if (this.entries.size() >= this.maxSize) {
+				removeLeastCalled();
+			}
+			entry = new Entry(kind, expression, this.entrySeq++, this.round);
+			this.entries.put(key, entry);
+		}
+		return entry;
+	}
+	
+	private void removeLeastCalled() {
+		final List<Entry> list = new ArrayList<>(this.entries.size());
+		final List<Entry> recent = new ArrayList<>();
+		for (final Entry entry : this.entries.values()) {
+			((entry.round < this.round) ? list : recent).add(entry);
+		}
+		Collections.sort(list, SCORE_COMPARATOR);
+		Collections.sort(recent, SCORE_COMPARATOR);
+		list.addAll(recent);
+		final int n = Math.max(1, list.size() / 10);
+		for (int i = 0; i < n; i++) {
+			final Entry entry = list.get(i);
+			this.entries.remove(entry.kind + ':' + entry.expression);
+		}
+		for (final Entry entry : this.entries.values()) {
+			entry.score *= SCORE_DECAY;
+		}
+		this.round++;
+	}
+	
+	/**
+	 * Records a call.
+	 * 
+	 * @param kind the kind of the call
+	 * @param expression the normalized expression
+	 * @param nanos the duration of the call
+	 */
+	public synchronized void record(final String kind, final String expression, final long nanos) {
+		final Entry entry = getEntry(kind, expression);
+		entry.count++;
+		entry.score++;
+		entry.totalNanos += nanos;
+		entry.maxNanos = Math.max(entry.maxNanos, nanos);
+	}
+	
+	/**
+	 * Adds the bytes sent as answer of a call.
+	 * 
+	 * @param kind the kind of the call
+	 * @param expression the normalized expression
+	 * @param bytes the number of bytes or <code>-1</code> if not available
+	 */
+	public synchronized void addBytes(final String kind, final String expression, final long bytes) {
+		final Entry entry = this.entries.get(kind + ':' + expression);
+		if (entry != null) {
+			entry.addBytes(bytes);
+		}
+	}
+	
+	/**
+	 * Adds the statistics of another table (e.g. of a node).
+	 * 
+	 * @param stats the statistics to add
+	 */
+	public synchronized void add(final RServiPoolManager.ExprStat[] stats) {
+		for (final RServiPoolManager.ExprStat stat : stats) {
+			final Entry entry = getEntry(stat.getKind(), stat.getExpression());
+			entry.count += stat.getCount();
+			entry.score += stat.getCount();
+			entry.totalNanos += stat.getTotalNanos();
+			entry.maxNanos = Math.max(entry.maxNanos, stat.getMaxNanos());
+			entry.addBytes(stat.getBytesOut());
+		}
+	}
+	
+	/**
+	 * Returns the statistics with the highest total time.
+	 * 
+	 * @param max the max number of entries, <code>-1</code> for all
+	 * @return the statistics, ordered by total time
+	 */
+	public synchronized RServiPoolManager.ExprStat[] getTop(final int max) {
+		final List<Entry> list = new ArrayList<>(this.entries.values());
+		Collections.sort(list, TIME_COMPARATOR);
+		final int n = (max >= 0) ? Math.min(max, list.size()) : list.size();
+		final RServiPoolManager.ExprStat[] stats = new RServiPoolManager.ExprStat[n];
+		for (int i = 0; i < n; i++) {
+			final Entry entry = list.get(i);
+			stats[i] = new RServiPoolManager.ExprStat(entry.kind, entry.expression, entry.count,
+					entry.totalNanos, entry.maxNanos, entry.bytesOut );
+		}
+		return stats;
+	}
+	
+	/**
+	 * Returns all statistics and clears the table.
+	 * 
+	 * @return the statistics or <code>null</code> if the table is empty
+	 */
+	public synchronized RServiPoolManager.ExprStat[] drain() {
+		if (this.entries.isEmpty()) {
+			return null;
+		}
+		final RServiPoolManager.ExprStat[] stats = getTop(-1);
+		reset();
+		return stats;
+	}
+	
+	public synchronized void reset() {
+		this.entries.clear();
+		this.round = 0;
+	}
+	
+}
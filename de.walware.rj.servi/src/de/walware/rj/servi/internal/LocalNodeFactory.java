@@ -15,13 +15,26 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.rmi.NotBoundException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import de.walware.ecommons.net.RMIAddress;
@@ -76,6 +89,332 @@ public class LocalNodeFactory implements NodeFactory {
 		String baseWd;
 		String authConfig;
 		String rStartupSnippet;
+		String rPreloadSnippet;
+		String rResetSnippet;
+		int rResetGcInterval;
+		long rResetGcThreshold;
+		int prestartCount;
+		String cdsArchive;
+		File cgroupParent;
+		int cgroupCpuWeight;
+		int cgroupCpuMax;
+		long cgroupMemoryMax;
+		int nodeThreads;
+		boolean cpuPinning;
+	}
+	
+	/**
+	 * Environment variables specifying the number of threads of BLAS/OpenMP libraries
+	 */
+	private static final String[] THREAD_VARIABLES = new String[] {
+			"OMP_NUM_THREADS", "OPENBLAS_NUM_THREADS", "MKL_NUM_THREADS", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			"VECLIB_MAXIMUM_THREADS", "BLIS_NUM_THREADS", //$NON-NLS-1$ //$NON-NLS-2$
+	};
+	
+	/**
+	 * Shared executor stopping the nodes (shutdown, wait for exit of the process, delete
+	 * the working directory). The tasks reschedule themselves instead of sleeping, so a few
+	 * threads serve all nodes of all factories.
+	 */
+	private static final ScheduledThreadPoolExecutor REAPER;
+	
+	/**
+	 * Shared executor starting the nodes in reserve (see {@link RServiNodeConfig#setPrestartCount(int)})
+	 * and the nodes creating the class data sharing archive.  The start of a node blocks,
+	 * so the tasks do not run in the {@link #REAPER}.
+	 */
+	private static final ThreadPoolExecutor PRESTARTER;
+	
+	/**
+	 * Shared executor calling the shutdown of the nodes.  RMI calls have no response timeout,
+	 * so the calls do not run in the {@link #REAPER}; a hung call must not prevent that the
+	 * process of the node is killed.  The threads are not bounded.
+	 */
+	private static final ThreadPoolExecutor SHUTDOWNER;
+	
+	static {
+		REAPER = new ScheduledThreadPoolExecutor(4, new ThreadFactory() {
+			private int num;
+			@Override
+			public Thread newThread(final Runnable r) {
+				final Thread thread;
+				synchronized (this) {
+					thread = new Thread(r, "RServi-NodeReaper-" + (++this.num));
+				}
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		REAPER.setKeepAliveTime(60, TimeUnit.SECONDS);
+		REAPER.allowCoreThreadTimeOut(true);
+		
+		PRESTARTER = new ThreadPoolExecutor(4, 4, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+			private int num;
+			@Override
+			public Thread newThread(final Runnable r) {
+				final Thread thread;
+				synchronized (this) {
+					thread = new Thread(r, "RServi-NodePrestart-" + (++this.num));
+				}
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		PRESTARTER.allowCoreThreadTimeOut(true);
+		
+		SHUTDOWNER = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+				new SynchronousQueue<Runnable>(), new ThreadFactory() {
+			private int num;
+			@Override
+			public Thread newThread(final Runnable r) {
+				final Thread thread;
+				synchronized (this) {
+					thread = new Thread(r, "RServi-NodeShutdown-" + (++this.num));
+				}
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+	
+	private static final long REAPER_INTERVAL = 250;
+	
+	/** Number of reaper intervals to wait for the exit of a killed node, before its cgroup is killed */
+	private static final int KILL_CGROUP_COUNT = 20;
+	/** Number of reaper intervals to wait for the exit of a killed node, before it is given up */
+	private static final int KILL_WAIT_COUNT = 40;
+	
+	private static final String CDS_DUMP_SUFFIX = ".dump";
+	
+	private static class PrestartedNode extends NodeHandler {
+		
+		final ProcessConfig config;
+		final RMIRegistry registry;
+		
+		public PrestartedNode(final ProcessConfig config, final RMIRegistry registry) {
+			this.config = config;
+			this.registry = registry;
+		}
+		
+	}
+	
+	/**
+	 * Node writing the class data sharing archive, stopped directly after its start.
+	 */
+	private static class CdsDumpNode extends NodeHandler {
+		
+		public CdsDumpNode() {
+		}
+		
+	}
+	
+	private class PrestartTask implements Runnable {
+		
+		
+		private final PrestartedNode node;
+		private final long timeout;
+		private final int stamp;
+		
+		
+		PrestartTask(final PrestartedNode node, final long timeout, final int stamp) {
+			this.node = node;
+			this.timeout = timeout;
+			this.stamp = stamp;
+		}
+		
+		
+		@Override
+		public void run() {
+			boolean started = false;
+			try {
+				startNode(this.node, this.node.config, this.node.registry, this.timeout);
+				started = true;
+			}
+			catch (final RjException e) {
+				Utils.logWarning("Prestart of R node failed.", e);
+			}
+			finally {
+				synchronized (LocalNodeFactory.this) {
+					LocalNodeFactory.this.prestartingCount--;
+					// nodes created meanwhile without reserve can use up the capacity
+					if (started && this.stamp == LocalNodeFactory.this.prestartStamp
+							&& getFreeCapacity() > 0 ) {
+						LocalNodeFactory.this.prestartedNodes.addLast(this.node);
+						started = false;
+					}
+				}
+			}
+			if (started) { // outdated or surplus
+				stopNode(this.node, null);
+			}
+		}
+		
+	}
+	
+	
+	private class StopTask implements Runnable {
+		
+		
+		private static final byte SHUTDOWN = 0;
+		private static final byte WAIT_FOR_EXIT = 1;
+		private static final byte DELETE_DIR = 2;
+		
+		
+		private final NodeHandler poolObj;
+		private final Process process;
+		
+		private final long timeout;
+		private final boolean keepDir;
+		
+		private final Runnable exitCallback;
+		
+		private long startStamp;
+		private byte state;
+		private int count;
+		private boolean killed;
+		
+		
+		StopTask(final NodeHandler poolObj, final long timeout, final boolean keepDir,
+				final Runnable exitCallback) {
+			this.poolObj = poolObj;
+			this.process = poolObj.process;
+			this.timeout = timeout;
+			this.keepDir = keepDir;
+			this.exitCallback = exitCallback;
+		}
+		
+		
+		@Override
+		public void run() {
+			switch (this.state) {
+			case SHUTDOWN:
+				this.startStamp = System.nanoTime();
+				if (this.process != null) {
+					// the process is killed after the timeout, even if the shutdown call hangs
+					SHUTDOWNER.execute(new Runnable() {
+						@Override
+						public void run() {
+							shutdown();
+						}
+					});
+					this.state = WAIT_FOR_EXIT;
+					REAPER.schedule(this, REAPER_INTERVAL, TimeUnit.MILLISECONDS);
+					return;
+				}
+				SHUTDOWNER.execute(new Runnable() {
+					@Override
+					public void run() {
+						shutdown();
+						exited();
+					}
+				});
+				return;
+			case WAIT_FOR_EXIT:
+				try {
+					this.process.exitValue();
+				}
+				catch (final IllegalThreadStateException e) {
+					++this.count;
+					if (!this.killed) {
+						final long diff = System.nanoTime() - this.startStamp;
+						if (this.count >= 10 && this.timeout >= 0 && diff > this.timeout) {
+							this.process.destroy();
+							this.killed = true;
+							this.count = 0;
+							Utils.logWarning("Killed RServi node '" + this.poolObj.getAddress().getName() + "'.");
+						}
+					}
+					else if (this.count == KILL_CGROUP_COUNT && this.poolObj.cgroup != null) {
+						this.poolObj.cgroup.kill();
+					}
+					else if (this.count >= KILL_WAIT_COUNT) {
+						Utils.logWarning("RServi node '" + this.poolObj.getAddress().getName() + "' did not exit after it was killed.");
+						exited();
+						return;
+					}
+					// continue to wait, the resources are released after the exit of the process
+					REAPER.schedule(this, REAPER_INTERVAL, TimeUnit.MILLISECONDS);
+					return;
+				}
+				exited();
+				return;
+			case DELETE_DIR:
+				final File dir = this.poolObj.dir;
+				if (!dir.exists() || ServerUtil.delDir(dir)) {
+					stopped();
+					return;
+				}
+				if (++this.count >= 20) {
+					Utils.logWarning("Failed to delete the RServi node working directory '" + dir.toString() + "'.");
+					stopped();
+					return;
+				}
+				REAPER.schedule(this, REAPER_INTERVAL, TimeUnit.MILLISECONDS);
+				return;
+			default:
+				return;
+			}
+		}
+		
+		private void shutdown() {
+			try {
+				this.poolObj.shutdown();
+			}
+			catch (final Throwable e) {
+				if (this.process == null || isRunning()) {
+					Utils.logWarning(Messages.ShutdownNode_error_message, e);
+				}
+			}
+		}
+		
+		private boolean isRunning() {
+			try {
+				this.process.exitValue();
+				return false;
+			}
+			catch (final IllegalThreadStateException e) {
+				return true;
+			}
+		}
+		
+		private void exited() {
+			if (this.exitCallback != null) {
+				try {
+					this.exitCallback.run();
+				}
+				catch (final Throwable e) {
+					Utils.logError("An error occurred when notifying about the stopped RServi node.", e);
+				}
+			}
+			if (this.poolObj.output != null) {
+				this.poolObj.output.close();
+			}
+			if (this.poolObj instanceof CdsDumpNode) {
+				releaseCdsDump(true);
+			}
+			releaseCpuSlot(this.poolObj);
+			if (this.poolObj.cgroup != null && !this.poolObj.cgroup.delete()) {
+				Utils.logWarning("Failed to delete the cgroup '" + this.poolObj.cgroup.getDirectory() + "' of the RServi node.");
+			}
+			
+			if (!this.keepDir && this.poolObj.dir != null
+					&& this.poolObj.dir.exists() && this.poolObj.dir.isDirectory() ) {
+				this.state = DELETE_DIR;
+				this.count = 0;
+				REAPER.schedule(this, REAPER_INTERVAL, TimeUnit.MILLISECONDS);
+				return;
+			}
+			stopped();
+		}
+		
+		private void stopped() {
+			synchronized (LocalNodeFactory.this) {
+				LocalNodeFactory.this.stoppingCount--;
+				LocalNodeFactory.this.notifyAll();
+			}
+		}
+		
 	}
 	
 	
@@ -96,6 +435,29 @@ public class LocalNodeFactory implements NodeFactory {
 	
 	private final List<String> sslPropertyArgs;
 	
+	private NodeReadyListener readyListener;
+	private boolean readyListenerFailed;
+	
+	private final ArrayDeque<PrestartedNode> prestartedNodes = new ArrayDeque<>();
+	private int prestartingCount;
+	private int prestartStamp;
+	
+	private int maxTotalNodes = -1;
+	/** Nodes created by {@link #createNode(NodeHandler)} and not yet stopped */
+	private final Set<NodeHandler> nodes = new HashSet<>();
+	private int creatingCount;
+	
+	private int stoppingCount;
+	
+	/** Class data sharing archive currently dumped by a {@link CdsDumpNode} (to a temporary file) */
+	private String cdsDumpFile;
+	/** Class data sharing archive the dump failed for */
+	private String cdsDumpFailedFile;
+	
+	private int nodeThreads = -1;
+	private boolean cpuPinning;
+	private final BitSet cpuSlots = new BitSet();
+	
 	
 	public LocalNodeFactory(final String poolId,
 			final RJContext context, final String[] libIds) {
@@ -115,7 +477,10 @@ public class LocalNodeFactory implements NodeFactory {
 	
 	@Override
 	public void setRegistry(final RMIRegistry registry) {
-		this.nodeRegistry = registry;
+		synchronized (this) {
+			this.nodeRegistry = registry;
+		}
+		stopPrestartedNodes();
 	}
 	
 	@Override
@@ -131,6 +496,7 @@ public class LocalNodeFactory implements NodeFactory {
 		
 		p.command.add(javaHome + File.separatorChar + "bin" + File.separatorChar + "java");
 		
+		final String classpath;
 		{	p.command.add("-classpath");
 			final String[] libs;
 			try {
@@ -148,6 +514,7 @@ public class LocalNodeFactory implements NodeFactory {
 				cp = ServerUtil.concatPathVar(libs);
 			}
 			p.command.add(cp);
+			classpath = cp;
 		}
 		
 		String javaArgs = config.getJavaArgs();
@@ -315,9 +682,49 @@ public class LocalNodeFactory implements NodeFactory {
 			}
 		}
 		
+		synchronized (this) {
+			p.nodeThreads = this.nodeThreads;
+			p.cpuPinning = this.cpuPinning;
+		}
+		if (p.nodeThreads > 0) {
+			final String value = Integer.toString(p.nodeThreads);
+			for (final String name : THREAD_VARIABLES) {
+				if (!p.addEnv.containsKey(name)) {
+					p.addEnv.put(name, value);
+				}
+			}
+		}
+		else {
+			p.cpuPinning = false;
+		}
+		
 		p.authConfig = config.getEnableConsole() ? "none" : null;
 		
 		p.rStartupSnippet = config.getRStartupSnippet();
+		p.rPreloadSnippet = config.getRPreloadSnippet();
+		p.rResetSnippet = config.getRResetSnippet();
+		p.rResetGcInterval = config.getRResetGcInterval();
+		p.rResetGcThreshold = config.getRResetGcThreshold();
+		p.prestartCount = config.getPrestartCount();
+		
+		if (config.getCgroupPath() != null) {
+			p.cgroupParent = new File(config.getCgroupPath());
+			if (Utils.IS_WINDOWS || Utils.IS_MAC || !NodeCgroup.initParent(p.cgroupParent)) {
+				this.errorMessage = "Invalid cgroup path (cgroup v2 group, writable, required).";
+				throw new RjInvalidConfigurationException(this.errorMessage);
+			}
+			p.cgroupCpuWeight = config.getCgroupCpuWeight();
+			p.cgroupCpuMax = config.getCgroupCpuMax();
+			p.cgroupMemoryMax = config.getCgroupMemoryMax();
+		}
+		
+		if (config.getEnableJavaCds() && !javaArgs.contains("-Xshare:")
+				&& !javaArgs.contains("SharedArchiveFile") && !javaArgs.contains("ArchiveClassesAtExit") ) {
+			final int javaVersion = Utils.getJavaVersion(javaHome);
+			if (javaVersion >= 13) { // dynamic archive
+				p.cdsArchive = getCdsArchivePath(p.baseWd, javaHome + ':' + javaVersion + ':' + javaArgs, classpath);
+			}
+		}
 		
 		long timeout = config.getStartStopTimeout();
 		if (timeout > 0) {
@@ -329,6 +736,58 @@ public class LocalNodeFactory implements NodeFactory {
 			this.processConfig = p;
 			this.timeoutNanos = timeout;
 		}
+		stopPrestartedNodes();
+	}
+	
+	/**
+	 * Returns the path of the class data sharing archive for the given configuration
+	 * and deletes archives of previous configurations.
+	 * 
+	 * The name of the archive contains a digest (SHA-1) of the Java configuration and of
+	 * the path, size and modification time of the classpath entries, so the archive is
+	 * created again if the libraries change.
+	 * 
+	 * @return the path or <code>null</code> if not available
+	 */
+	private String getCdsArchivePath(final String baseWd, final String java, final String classpath) {
+		final StringBuilder sb = new StringBuilder(java);
+		for (final String entry : classpath.split(File.pathSeparator)) {
+			final File file = new File(entry);
+			sb.append(File.pathSeparatorChar);
+			sb.append(file.getAbsolutePath());
+			sb.append(':');
+			sb.append(file.length());
+			sb.append(':');
+			sb.append(file.lastModified());
+		}
+		final String prefix = this.poolId + "-cds-";
+		final byte[] digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1").digest(
+					sb.toString().getBytes(StandardCharsets.UTF_8) );
+		}
+		catch (final NoSuchAlgorithmException e) {
+			Utils.logWarning("Failed to compute the name of the class data sharing archive for R nodes.", e);
+			return null;
+		}
+		sb.setLength(0);
+		sb.append(prefix);
+		for (final byte b : digest) {
+			sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+			sb.append(Character.forDigit(b & 0xf, 16));
+		}
+		sb.append(".jsa");
+		final String name = sb.toString();
+		final File[] files = new File(baseWd).listFiles();
+		if (files != null) {
+			for (final File file : files) {
+				if (file.getName().startsWith(prefix) && file.getName().endsWith(".jsa")
+						&& !file.getName().equals(name)) {
+					file.delete();
+				}
+			}
+		}
+		return baseWd + File.separatorChar + name;
 	}
 	
 	private boolean testBaseDir(final String path) {
@@ -348,14 +807,101 @@ public class LocalNodeFactory implements NodeFactory {
 		return this.baseConfig;
 	}
 	
+	@Override
+	public void setCpuBudget(final int nodeThreads, final boolean pinning) {
+		final RServiNodeConfig config;
+		synchronized (this) {
+			final boolean pin = (pinning && !Utils.IS_WINDOWS && !Utils.IS_MAC);
+			if (this.nodeThreads == nodeThreads && this.cpuPinning == pin) {
+				return;
+			}
+			this.nodeThreads = nodeThreads;
+			this.cpuPinning = pin;
+			config = this.baseConfig;
+		}
+		if (config != null) {
+			try {
+				setConfig(config);
+			}
+			catch (final RjInvalidConfigurationException e) {
+				// already reported when the configuration was set
+			}
+		}
+	}
+	
+	@Override
+	public synchronized int getNumPinnedNodes() {
+		return this.cpuSlots.cardinality();
+	}
+	
+	/**
+	 * Pins the node process to a free set of CPUs ({@link ProcessConfig#nodeThreads}
+	 * CPUs per node).  If all CPUs are assigned, the node is not pinned.
+	 */
+	private void pinProcess(final NodeHandler poolObj, final int threads, final Process process) {
+		final int numSlots = Runtime.getRuntime().availableProcessors() / threads;
+		final int slot;
+		synchronized (this) {
+			slot = this.cpuSlots.nextClearBit(0);
+			if (slot >= numSlots) {
+				return;
+			}
+			this.cpuSlots.set(slot);
+			poolObj.cpuSlot = slot;
+		}
+		final String cpus = (threads == 1) ? Integer.toString(slot) :
+				Integer.toString(slot * threads) + '-' + Integer.toString(slot * threads + threads - 1);
+		try {
+			final long pid = Utils.getProcessId(process);
+			if (pid < 0) {
+				throw new IOException("Process id not available.");
+			}
+			final Process taskset = new ProcessBuilder("taskset", "-a", "-p", "-c", cpus, Long.toString(pid))
+					.redirectErrorStream(true).start();
+			try (final InputStream in = taskset.getInputStream()) {
+				final byte[] buffer = new byte[4096];
+				while (in.read(buffer) >= 0) {
+				}
+			}
+			final int exitValue = taskset.waitFor();
+			if (exitValue != 0) {
+				throw new IOException("taskset failed (exit code = " + exitValue + ").");
+			}
+		}
+		catch (final IOException | InterruptedException e) {
+			releaseCpuSlot(poolObj);
+			Utils.logWarning("Failed to pin the RServi node to the CPUs " + cpus + ".", e);
+		}
+	}
+	
+	private synchronized void releaseCpuSlot(final NodeHandler poolObj) {
+		if (poolObj.cpuSlot >= 0) {
+			this.cpuSlots.clear(poolObj.cpuSlot);
+			poolObj.cpuSlot = -1;
+		}
+	}
+	
+	
+	private synchronized NodeReadyListener getReadyListener() {
+		if (this.readyListener == null && !this.readyListenerFailed) {
+			try {
+				this.readyListener = new NodeReadyListener();
+			}
+			catch (final IOException e) {
+				this.readyListenerFailed = true;
+				Utils.logWarning("Failed to create listener for R node start, falling back to polling the registry.", e);
+			}
+		}
+		return this.readyListener;
+	}
 	
 	@Override
 	public void createNode(final NodeHandler poolObj) throws RjException {
-		final long t = System.nanoTime();
 		final long timeout;
 		
 		final ProcessConfig p;
 		final RMIRegistry registry;
+		final PrestartedNode prestarted;
 		synchronized (this) {
 			p = this.processConfig;
 			if (p == null) {
@@ -368,22 +914,144 @@ public class LocalNodeFactory implements NodeFactory {
 				throw new RjInvalidConfigurationException("Missing registry configuration.");
 			}
 			timeout = this.timeoutNanos;
+			prestarted = this.prestartedNodes.pollFirst();
+			if (prestarted == null) {
+				this.creatingCount++;
+			}
+		}
+		if (prestarted != null) {
+			poolObj.takeOver(prestarted);
+			Utils.logInfo("New R node taken from prestarted node.");
+		}
+		else {
+			try {
+				startNode(poolObj, p, registry, timeout);
+			}
+			finally {
+				synchronized (this) {
+					this.creatingCount--;
+				}
+			}
+		}
+		synchronized (this) {
+			this.nodes.add(poolObj);
+		}
+		if (p.prestartCount > 0) {
+			prestartNodes();
+		}
+	}
+	
+	private static NodeCgroup createCgroup(final ProcessConfig p, final String id,
+			final Process process) {
+		NodeCgroup cgroup = null;
+		try {
+			cgroup = NodeCgroup.create(p.cgroupParent, id);
+			if (p.cgroupCpuWeight > 0) {
+				cgroup.setCpuWeight(p.cgroupCpuWeight);
+			}
+			if (p.cgroupCpuMax > 0) {
+				cgroup.setCpuMax(p.cgroupCpuMax);
+			}
+			if (p.cgroupMemoryMax > 0) {
+				cgroup.setMemoryMax(p.cgroupMemoryMax);
+			}
+			final long pid = Utils.getProcessId(process);
+			if (pid < 0) {
+				throw new IOException("Process id not available.");
+			}
+			cgroup.addProcess(pid);
+			return cgroup;
+		}
+		catch (final IOException e) {
+			Utils.logWarning("Failed to place the RServi node '" + id + "' in a cgroup, it runs without limits.", e);
+			if (cgroup != null) {
+				cgroup.delete();
+			}
+			return null;
+		}
+	}
+	
+	/**
+	 * Returns the number of nodes which can be started without exceeding the max
+	 * total number of nodes.
+	 */
+	private int getFreeCapacity() {
+		if (this.maxTotalNodes < 0) {
+			return Integer.MAX_VALUE;
+		}
+		return this.maxTotalNodes - this.nodes.size() - this.creatingCount
+				- this.prestartedNodes.size() - this.prestartingCount
+				- ((this.cdsDumpFile != null) ? 1 : 0);
+	}
+	
+	/**
+	 * Starts nodes in the background until the reserve is complete or the max total
+	 * number of nodes is reached.
+	 */
+	private void prestartNodes() {
+		final List<PrestartTask> tasks = new ArrayList<>();
+		synchronized (this) {
+			final ProcessConfig p = this.processConfig;
+			if (p == null || p.prestartCount <= 0 || this.nodeRegistry == null) {
+				return;
+			}
+			int n = Math.min(p.prestartCount - this.prestartedNodes.size() - this.prestartingCount,
+					getFreeCapacity() );
+			for (; n > 0; n--) {
+				tasks.add(new PrestartTask(new PrestartedNode(p, this.nodeRegistry),
+						this.timeoutNanos, this.prestartStamp ));
+				this.prestartingCount++;
+			}
+		}
+		for (final PrestartTask task : tasks) {
+			PRESTARTER.execute(task);
 		}
+	}
+	
+	@Override
+	public void stopPrestartedNodes() {
+		final PrestartedNode[] toStop;
+		synchronized (this) {
+			this.prestartStamp++;
+			toStop = this.prestartedNodes.toArray(new PrestartedNode[this.prestartedNodes.size()]);
+			this.prestartedNodes.clear();
+		}
+		for (final PrestartedNode node : toStop) {
+			stopNode(node, null);
+		}
+	}
+	
+	@Override
+	public synchronized void setMaxTotalNodes(final int count) {
+		this.maxTotalNodes = count;
+	}
+	
+	private void startNode(final NodeHandler poolObj, final ProcessConfig p,
+			final RMIRegistry registry, final long timeout) throws RjException {
+		final long t = System.nanoTime();
+		final NodeReadyListener readyListener = getReadyListener();
 		ProcessBuilder pBuilder;
-		String id;
+		String id = null;
+		String cdsMode = "off";
+		boolean cdsDump = false;
 		List<String> command = null;
 		try {
-			synchronized (this) {
-				for (int i = 0; ; i++) {
+			for (int i = 0; ; i++) {
+				synchronized (this) {
 					id = this.poolId + '-' + System.currentTimeMillis();
 					poolObj.dir = new File(p.baseWd + File.separatorChar + id);
 					if (!poolObj.dir.exists() && poolObj.dir.mkdirs()) {
 						break;
 					}
-					if (i >= 20) {
-						throw new RjException("Failed to create working directory (parent="+p.baseWd+").");
-					}
 				}
+				if (i >= 20) {
+					throw new RjException("Failed to create working directory (parent="+p.baseWd+").");
+				}
+				// nodes can be created concurrently
+				try {
+					Thread.sleep(1);
+				}
+				catch (final InterruptedException e) {}
 			}
 			command = new ArrayList<>(p.command.size() + 2);
 			command.addAll(p.command);
@@ -392,9 +1060,27 @@ public class LocalNodeFactory implements NodeFactory {
 			if (this.verbose) {
 				command.add("-verbose");
 			}
+			if (readyListener != null) {
+				command.add(p.nameCommandIdx + 1,
+						'-' + NodeReadyListener.PORT_ARG + '=' + readyListener.getPort() );
+			}
 			if (registry.getAddress().isSSL()) {
 				command.addAll(p.nameCommandIdx - 1, this.sslPropertyArgs);
 			}
+			if (poolObj instanceof CdsDumpNode) {
+				// the archive is written at exit, renamed when the node is stopped
+				command.add(1, "-XX:ArchiveClassesAtExit=" + p.cdsArchive + CDS_DUMP_SUFFIX);
+				cdsMode = "dump";
+			}
+			else if (p.cdsArchive != null) {
+				if (new File(p.cdsArchive).exists()) {
+					command.add(1, "-XX:SharedArchiveFile=" + p.cdsArchive);
+					cdsMode = "on";
+				}
+				else {
+					cdsDump = true;
+				}
+			}
 			pBuilder = new ProcessBuilder(command);
 			pBuilder.environment().remove("Path");
 			pBuilder.environment().putAll(p.addEnv);
@@ -404,28 +1090,53 @@ public class LocalNodeFactory implements NodeFactory {
 		catch (final Exception e) {
 			throw new RjException("Error preparing R node.", e);
 		}
+		if (cdsDump) {
+			startCdsDump(p, registry, timeout);
+		}
 		Process process = null;
+		NodeOutput output = null;
+		NodeReadyListener.Waiter ready = null;
 		try {
+			if (readyListener != null) {
+				ready = readyListener.register(poolObj.address.toString());
+			}
 			process = pBuilder.start();
+			output = new NodeOutput(process.getInputStream(),
+					(this.verbose) ? new File(poolObj.dir, NodeOutput.LOG_FILE_NAME) : null );
+			if (p.cgroupParent != null) {
+				poolObj.cgroup = createCgroup(p, id, process);
+			}
+			if (p.cpuPinning) {
+				pinProcess(poolObj, p.nodeThreads, process);
+			}
+			final long tProcess = System.nanoTime();
+			
+			if (ready != null) {
+				ready.watch(process);
+				switch (ready.await((timeout >= 0) ? Math.max(timeout - (tProcess - t), 0) : -1)) {
+				case NodeReadyListener.READY:
+					break;
+				case NodeReadyListener.EXITED:
+					throw new RjException("R node process stopped (exit code = "+ready.getExitValue()+").");
+				default:
+					// not notified, check the registry
+					break;
+				}
+				ready.dispose();
+				ready = null;
+			}
+			final long tReady = System.nanoTime();
 			
 			for (int i = 1; i < Integer.MAX_VALUE; i++) {
 				try {
 					final Server server = (Server) registry.getRegistry().lookup(id);
 					final ServerLogin login = server.createLogin(Server.C_RSERVI_NODECONTROL);
 					final RServiNode node = (RServiNode) server.execute(Server.C_RSERVI_NODECONTROL, null, login);
+					final long tConnect = System.nanoTime();
 					
-					Utils.logInfo("New R node started (t="+((System.nanoTime()-t)/1000000)+"ms).");
-					
-					String line = null;
 					try {
 						if (p.rStartupSnippet != null && p.rStartupSnippet.length() > 0) {
-							final String[] lines = p.rStartupSnippet.split("\\p{Blank}*\\r[\\n]?|\\n\\p{Blank}*"); //$NON-NLS-1$
-							for (int j = 0; j < lines.length; j++) {
-								line = lines[j];
-								if (line.length() > 0) {
-									node.runSnippet(line);
-								}
-							}
+							node.runSnippet(p.rStartupSnippet.split("\\p{Blank}*\\r[\\n]?|\\n\\p{Blank}*")); //$NON-NLS-1$
 						}
 					}
 					catch (final RjException e) {
@@ -433,8 +1144,22 @@ public class LocalNodeFactory implements NodeFactory {
 							node.shutdown();
 						}
 						catch (final Exception ignore) {}
-						throw new RjException("Running the R startup snippet failed in line '" + line + "'.", e);
+						throw new RjException("Running the R startup snippet failed in " + e.getMessage() + ".", e);
 					}
+					try {
+						if (p.rPreloadSnippet != null && p.rPreloadSnippet.length() > 0) {
+							poolObj.preloadSize = node.preload(p.rPreloadSnippet.split("\\p{Blank}*\\r[\\n]?|\\n\\p{Blank}*")); //$NON-NLS-1$
+						}
+					}
+					catch (final RjException e) {
+						try {
+							node.shutdown();
+						}
+						catch (final Exception ignore) {}
+						throw new RjException("Running the R preload snippet failed in " + e.getMessage() + ".", e);
+					}
+					final long tSnippet = System.nanoTime();
+					node.setResetPolicy(p.rResetGcInterval, p.rResetGcThreshold, p.rResetSnippet);
 					try {
 						poolObj.isConsoleEnabled = node.setConsole(p.authConfig);
 					}
@@ -445,9 +1170,27 @@ public class LocalNodeFactory implements NodeFactory {
 						catch (final Exception ignore) {}
 						throw e;
 					}
+					final long tInit = System.nanoTime();
+					
+					poolObj.startupTime = (tInit-t)/1000000L;
+					poolObj.startupSnippetTime = (tSnippet-tConnect)/1000000L;
+					poolObj.startupPhases = "process="+((tProcess-t)/1000000L)+"ms "
+							+ "ready="+((tReady-tProcess)/1000000L)+"ms "
+							+ "connect="+((tConnect-tReady)/1000000L)+"ms "
+							+ "snippet="+((tSnippet-tConnect)/1000000L)+"ms "
+							+ "init="+((tInit-tSnippet)/1000000L)+"ms "
+							+ "cds="+cdsMode;
+					Utils.logInfo("New R node started (t="+((tInit-t)/1000000L)+"ms: "
+							+ "process="+((tProcess-t)/1000000L)+"ms, "
+							+ "ready="+((tReady-tProcess)/1000000L)+"ms, "
+							+ "connect="+((tConnect-tReady)/1000000L)+"ms, "
+							+ "snippet="+((tSnippet-tConnect)/1000000L)+"ms, "
+							+ "init="+((tInit-tSnippet)/1000000L)+"ms; "
+							+ "class data sharing="+cdsMode+").");
 					
 					poolObj.node = node;
 					poolObj.process = process;
+					poolObj.output = output;
 					return;
 				}
 				catch (final NotBoundException e) {
@@ -467,6 +1210,10 @@ public class LocalNodeFactory implements NodeFactory {
 			}
 		}
 		catch (final Exception e) {
+			if (ready != null) {
+				ready.dispose();
+			}
+			releaseCpuSlot(poolObj);
 			final StringBuilder sb = new StringBuilder("Error starting R node:");
 			if (pBuilder != null) {
 				sb.append("\n<COMMAND>");
@@ -475,36 +1222,21 @@ public class LocalNodeFactory implements NodeFactory {
 			}
 			if (process != null) {
 				final char[] buffer = new char[4096];
-				final InputStream stdout = process.getInputStream();
-				{
+				process.destroy();
+				if (output != null) {
+					output.close();
 					sb.append("\n<STDOUT>\n");
-					final InputStreamReader reader = new InputStreamReader(stdout);
-					try { // read non-blocking
-						int n;
-						while (reader.ready() && (n = reader.read(buffer, 0, buffer.length)) >= 0) {
-							sb.append(buffer, 0, n);
-						}
-					}
-					catch (final IOException ignore) {
-					}
-					process.destroy();
-					try {
-						int n;
-						while ((n = reader.read(buffer, 0, buffer.length)) >= 0) {
-							sb.append(buffer, 0, n);
-						}
+					sb.append(output.getText());
+					sb.append("</STDOUT>");
+				}
+				if (poolObj.cgroup != null) {
+					if (!waitForExit(process, poolObj.cgroup)) {
+						Utils.logWarning("R node process did not exit after it was killed.");
 					}
-					catch (final IOException ignore) {
+					if (!poolObj.cgroup.delete()) {
+						Utils.logWarning("Failed to delete the cgroup '" + poolObj.cgroup.getDirectory() + "' of the RServi node.");
 					}
-					finally {
-						if (reader != null) {
-							try {
-								reader.close();
-							}
-							catch (final IOException ignore) {}
-						}
-					}
-					sb.append("</STDOUT>");
+					poolObj.cgroup = null;
 				}
 				final File logfile = new File(poolObj.dir, "out.log");
 				if (logfile.exists()) {
@@ -543,57 +1275,127 @@ public class LocalNodeFactory implements NodeFactory {
 		}
 	}
 	
-	@Override
-	public void stopNode(final NodeHandler poolObj) {
-		final long t = System.nanoTime();
-		final long timeout = this.timeoutNanos;
-		
-		try {
-			poolObj.shutdown();
+	/**
+	 * Waits for the exit of a killed process, like the {@link StopTask}: the cgroup is
+	 * killed if the process does not exit, the wait is given up after a deadline.
+	 * 
+	 * @return <code>true</code> if the process exited, otherwise <code>false</code>
+	 */
+	private static boolean waitForExit(final Process process, final NodeCgroup cgroup) {
+		Thread.interrupted();
+		for (int count = 0; count < KILL_WAIT_COUNT; count++) {
+			try {
+				process.exitValue();
+				return true;
+			}
+			catch (final IllegalThreadStateException e) {}
+			if (count == KILL_CGROUP_COUNT && cgroup != null) {
+				cgroup.kill();
+			}
+			try {
+				Thread.sleep(REAPER_INTERVAL);
+			}
+			catch (final InterruptedException e) {}
 		}
-		catch (final Throwable e) {
-			Utils.logWarning(Messages.ShutdownNode_error_message, e);
+		return false;
+	}
+	
+	/**
+	 * Starts a node writing the class data sharing archive in the background.  The node
+	 * is stopped directly after its start, so the archive is available for the nodes
+	 * started afterwards.
+	 * 
+	 * The node counts against the max total number of nodes until it exited; if there is
+	 * no free capacity, the archive is created at a later start of a node.
+	 */
+	private void startCdsDump(final ProcessConfig p, final RMIRegistry registry, final long timeout) {
+		synchronized (this) {
+			if (this.cdsDumpFile != null || p.cdsArchive.equals(this.cdsDumpFailedFile)
+					|| getFreeCapacity() <= 0 ) {
+				return;
+			}
+			this.cdsDumpFile = p.cdsArchive;
 		}
-		
-		final Process process = poolObj.process;
-		poolObj.process = null;
-		if (process != null) {
-			for (int i = 0; i < Integer.MAX_VALUE; i++) {
-				try {
-					Thread.sleep(250);
-				}
-				catch (final InterruptedException e) {
-				}
+		PRESTARTER.execute(new Runnable() {
+			@Override
+			public void run() {
+				final CdsDumpNode node = new CdsDumpNode();
 				try {
-					process.exitValue();
-					break;
+					startNode(node, p, registry, timeout);
 				}
-				catch (final IllegalThreadStateException e) {
-					final long diff = System.nanoTime() - t;
-					if (i >= 10 && timeout >= 0 && diff > timeout) {
-						process.destroy();
-						Utils.logWarning("Killed RServi node '" + poolObj.getAddress().getName() + "'.");
-						break;
-					}
-					continue;
+				catch (final RjException e) {
+					Utils.logWarning("Failed to start the R node creating the class data sharing archive.", e);
+					releaseCdsDump(false);
+					return;
 				}
+				stopNode(node, null);
+			}
+		});
+	}
+	
+	private void releaseCdsDump(final boolean stopped) {
+		final String file;
+		synchronized (this) {
+			file = this.cdsDumpFile;
+			if (file == null) {
+				return;
 			}
+			this.cdsDumpFile = null;
 		}
-		
-		if (!this.verbose && poolObj.dir != null
-				&& poolObj.dir.exists() && poolObj.dir.isDirectory() ) {
-			for (int i = 0; i < 20; i++) {
+		final File dumpFile = new File(file + CDS_DUMP_SUFFIX);
+		if (stopped && dumpFile.exists()) {
+			try {
+				Files.move(dumpFile.toPath(), new File(file).toPath(), StandardCopyOption.ATOMIC_MOVE);
+				Utils.logInfo("Created class data sharing archive for R nodes '" + file + "'.");
+				return;
+			}
+			catch (final IOException e) {
+				Utils.logWarning("Failed to create class data sharing archive for R nodes '" + file + "'.", e);
+			}
+		}
+		else if (stopped) {
+			Utils.logWarning("Failed to create class data sharing archive for R nodes '" + file + "' (not written at exit).");
+		}
+		dumpFile.delete();
+		synchronized (this) {
+			this.cdsDumpFailedFile = file;
+		}
+	}
+	
+	@Override
+	public void stopNode(final NodeHandler poolObj, final Runnable exitCallback) {
+		final StopTask task;
+		synchronized (this) {
+			task = new StopTask(poolObj, this.timeoutNanos, this.verbose, exitCallback);
+			this.stoppingCount++;
+			this.nodes.remove(poolObj);
+		}
+		poolObj.process = null;
+		REAPER.execute(task);
+	}
+	
+	@Override
+	public void waitForStoppedNodes() {
+		synchronized (this) {
+			// exit of the process + deletion of the directory
+			final long processTimeout = (this.timeoutNanos >= 0) ?
+					Math.max(this.timeoutNanos, TimeUnit.MILLISECONDS.toNanos(10 * REAPER_INTERVAL)) :
+					TimeUnit.SECONDS.toNanos(60);
+			final long deadline = System.nanoTime() + processTimeout
+					+ TimeUnit.MILLISECONDS.toNanos((KILL_WAIT_COUNT + 20) * REAPER_INTERVAL);
+			while (this.stoppingCount > 0) {
+				final long remaining = deadline - System.nanoTime();
+				if (remaining <= 0) {
+					return;
+				}
 				try {
-					Thread.sleep(250);
+					TimeUnit.NANOSECONDS.timedWait(this, remaining);
 				}
 				catch (final InterruptedException e) {
-				}
-				
-				if (!poolObj.dir.exists() || ServerUtil.delDir(poolObj.dir)) {
+					Thread.currentThread().interrupt();
 					return;
 				}
 			}
-			Utils.logWarning("Failed to delete the RServi node working directory '" + poolObj.dir.toString() + "'.");
 		}
 	}
 	
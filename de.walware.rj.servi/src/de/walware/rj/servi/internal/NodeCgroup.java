@@ -0,0 +1,202 @@
+/*=============================================================================#
+ # Copyright (c) 2009-2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.rj.servi.internal;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+
+
+/**
+ * Control group (Linux cgroup v2) of a node process.
+ * 
+ * The groups of the nodes are created as children of a parent group, which must be
+ * delegated to the user running the pool (writable, controllers <code>cpu</code> and
+ * <code>memory</code> available).
+ */
+class NodeCgroup {
+	
+	
+	private static final Charset CHARSET = Charset.forName("US-ASCII");
+	
+	/** Period for the CPU quota in microseconds */
+	private static final long CPU_PERIOD = 100000;
+	
+	
+	/**
+	 * Checks if the directory is a group in a cgroup v2 hierarchy and enables the
+	 * controllers for its children.
+	 * 
+	 * @param parent the directory of the parent group
+	 * @return <code>true</code> if the group can be used, otherwise <code>false</code>
+	 */
+	static boolean initParent(final File parent) {
+		try {
+			final String controllers = " " + read(new File(parent, "cgroup.controllers")) + " ";
+			final StringBuilder sb = new StringBuilder();
+			if (controllers.contains(" cpu ")) {
+				sb.append("+cpu ");
+			}
+			if (controllers.contains(" memory ")) {
+				sb.append("+memory ");
+			}
+			if (sb.length() > 0) {
+				write(new File(parent, "cgroup.subtree_control"), sb.toString().trim());
+			}
+			return true;
+		}
+		catch (final IOException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Creates a new group for a node.
+	 * 
+	 * @param parent the directory of the parent group
+	 * @param name the name of the group
+	 * @return the group
+	 * @throws IOException if the group could not be created
+	 */
+	static NodeCgroup create(final File parent, final String name) throws IOException {
+		final File dir = new File(parent, name);
+		if (!dir.mkdir()) {
+			throw new IOException("Failed to create cgroup '" + dir + "'.");
+		}
+		return new NodeCgroup(dir);
+	}
+	
+	private static String read(final File file) throws IOException {
+		try (final BufferedReader reader = new BufferedReader(new InputStreamReader(
+				new FileInputStream(file), CHARSET ))) {
+			final String line = reader.readLine();
+			return (line != null) ? line.trim() : "";
+		}
+	}
+	
+	private static void write(final File file, final String value) throws IOException {
+		try (final FileOutputStream out = new FileOutputStream(file)) {
+			out.write(value.getBytes(CHARSET));
+		}
+	}
+	
+	
+	private final File dir;
+	
+	
+	private NodeCgroup(final File dir) {
+		this.dir = dir;
+	}
+	
+	
+	public File getDirectory() {
+		return this.dir;
+	}
+	
+	/**
+	 * Sets the relative CPU weight (<code>cpu.weight</code>).
+	 * 
+	 * @param weight the weight (1-10000)
+	 */
+	public void setCpuWeight(final int weight) throws IOException {
+		write(new File(this.dir, "cpu.weight"), Integer.toString(weight));
+	}
+	
+	/**
+	 * Sets the CPU quota (<code>cpu.max</code>).
+	 * 
+	 * @param percent the quota in percent of one CPU
+	 */
+	public void setCpuMax(final int percent) throws IOException {
+		write(new File(this.dir, "cpu.max"), Long.toString(percent * CPU_PERIOD / 100) + ' ' + CPU_PERIOD);
+	}
+	
+	/**
+	 * Sets the memory limit (<code>memory.max</code>).
+	 * 
+	 * @param mb the limit in MB
+	 */
+	public void setMemoryMax(final long mb) throws IOException {
+		write(new File(this.dir, "memory.max"), Long.toString(mb * 1048576L));
+	}
+	
+	/**
+	 * Moves the process (with all threads) into the group.
+	 * 
+	 * @param pid the id of the process
+	 */
+	public void addProcess(final long pid) throws IOException {
+		write(new File(this.dir, "cgroup.procs"), Long.toString(pid));
+	}
+	
+	/**
+	 * Returns the CPU time used by the processes of the group.
+	 * 
+	 * @return the time in milliseconds or <code>-1</code> if not available
+	 */
+	public long getCpuUsage() {
+		try (final BufferedReader reader = new BufferedReader(new InputStreamReader(
+				new FileInputStream(new File(this.dir, "cpu.stat")), CHARSET ))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith("usage_usec ")) {
+					return Long.parseLong(line.substring(11).trim()) / 1000L;
+				}
+			}
+		}
+		catch (final IOException | NumberFormatException e) {}
+		return -1;
+	}
+	
+	/**
+	 * Returns the memory used by the processes of the group (<code>memory.current</code>).
+	 * 
+	 * @return the size in kB or <code>-1</code> if not available
+	 */
+	public long getMemoryUsage() {
+		try {
+			return Long.parseLong(read(new File(this.dir, "memory.current"))) / 1024L;
+		}
+		catch (final IOException | NumberFormatException e) {
+			return -1;
+		}
+	}
+	
+	/**
+	 * Kills all processes of the group (<code>cgroup.kill</code>, Linux 5.14 or later).
+	 * 
+	 * @return <code>true</code> if the processes were killed, otherwise <code>false</code>
+	 */
+	public boolean kill() {
+		try {
+			write(new File(this.dir, "cgroup.kill"), "1");
+			return true;
+		}
+		catch (final IOException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Removes the group. The group must not contain processes anymore.
+	 * 
+	 * @return <code>true</code> if the group was removed, otherwise <code>false</code>
+	 */
+	public boolean delete() {
+		return (!this.dir.exists() || this.dir.delete());
+	}
+	
+}
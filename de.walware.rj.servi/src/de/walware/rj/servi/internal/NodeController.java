@@ -75,6 +75,19 @@ public class NodeController extends AbstractServerControl {
 		}
 		LOGGER.log(Level.FINE, "{0} Initializing R node: Publishing in registry...", this.logPrefix);
 		publishServer(server);
+		
+		final String readyPort = this.args.get(NodeReadyListener.PORT_ARG);
+		if (readyPort != null) {
+			try {
+				NodeReadyListener.notifyReady(Integer.parseInt(readyPort), this.name);
+			}
+			catch (final Exception e) {
+				final LogRecord record = new LogRecord(Level.WARNING, "{0} Notifying the pool about the started R node failed.");
+				record.setParameters(new Object[] { this.logPrefix });
+				record.setThrown(e);
+				LOGGER.log(record);
+			}
+		}
 	}
 	
 }
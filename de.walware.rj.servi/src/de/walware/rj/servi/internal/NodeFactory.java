@@ -19,6 +19,48 @@ public interface NodeFactory extends RServiNodeFactory {
 	
 	
 	void createNode(NodeHandler poolObj) throws RjException;
-	void stopNode(NodeHandler poolObj);
+	/**
+	 * Stops the node.  The method does not wait until the node is stopped; the process is
+	 * terminated and the working directory is deleted in the background.
+	 * 
+	 * @param poolObj the node
+	 * @param exitCallback optional callback, run when the node process exited
+	 */
+	void stopNode(NodeHandler poolObj, Runnable exitCallback);
+	
+	/**
+	 * Waits until the nodes stopped by {@link #stopNode(NodeHandler, Runnable)} are terminated,
+	 * at most for the stop timeout of the configuration.
+	 */
+	void waitForStoppedNodes();
+	
+	/**
+	 * Stops the nodes started in advance, if any (see {@link de.walware.rj.servi.pool.RServiNodeConfig#setPrestartCount(int)}).
+	 */
+	void stopPrestartedNodes();
+	
+	/**
+	 * Sets the max total number of nodes of the pool.  The nodes started in advance
+	 * are counted to this limit.
+	 * 
+	 * @param count the number of nodes, or <code>-1</code> for no limit
+	 */
+	void setMaxTotalNodes(int count);
+	
+	/**
+	 * Sets the CPU budget of the nodes started afterwards.
+	 * 
+	 * @param nodeThreads the number of threads of BLAS/OpenMP libraries per node,
+	 *     or <code>-1</code> to keep the defaults of the libraries
+	 * @param pinning if the nodes are pinned to separate sets of CPUs (Linux only)
+	 */
+	void setCpuBudget(int nodeThreads, boolean pinning);
+	
+	/**
+	 * Returns the number of nodes currently pinned to a set of CPUs.
+	 * 
+	 * @return the number of nodes
+	 */
+	int getNumPinnedNodes();
 	
 }
@@ -12,6 +12,7 @@
 package de.walware.rj.servi.internal;
 
 import java.io.File;
+import java.io.IOException;
 import java.rmi.RemoteException;
 
 import de.walware.ecommons.net.RMIAddress;
@@ -28,21 +29,84 @@ public abstract class NodeHandler {
 	RMIAddress address;
 	File dir;
 	Process process;
+	NodeOutput output;
+	NodeCgroup cgroup;
+	int cpuSlot = -1;
 	
 	RServiBackend clientHandler;
 	
 	boolean isConsoleEnabled;
 	
+	long startupTime = -1;
+	long startupSnippetTime = -1;
+	/** durations of the phases of the node start (<code>phase=time</code> pairs) */
+	String startupPhases;
+	long preloadSize = -1;
+	
+	private long processId = -2;
+	
+	private volatile boolean hibernated;
+	
+	private volatile long rHeapSize = -1;
+	
+	private long busyTime;
+	private long numCommands;
+	private long bytesIn;
+	private long bytesOut;
+	
 	
 	public NodeHandler() {
 	}
 	
 	
+	/**
+	 * Takes over the started node of the other handler (e.g. a prestarted node), including
+	 * its process and resources.  The other handler is cleared and must not be used anymore.
+	 * 
+	 * The method must be updated if fields of the started node are added to the handler.
+	 * 
+	 * @param other the handler of the started node
+	 */
+	void takeOver(final NodeHandler other) {
+		this.node = other.node;
+		this.address = other.address;
+		this.dir = other.dir;
+		this.process = other.process;
+		this.output = other.output;
+		this.cgroup = other.cgroup;
+		this.cpuSlot = other.cpuSlot;
+		this.clientHandler = other.clientHandler;
+		this.isConsoleEnabled = other.isConsoleEnabled;
+		this.startupTime = other.startupTime;
+		this.startupSnippetTime = other.startupSnippetTime;
+		this.startupPhases = other.startupPhases;
+		this.preloadSize = other.preloadSize;
+		this.processId = other.processId;
+		this.rHeapSize = other.rHeapSize;
+		
+		other.node = null;
+		other.address = null;
+		other.dir = null;
+		other.process = null;
+		other.output = null;
+		other.cgroup = null;
+		other.cpuSlot = -1;
+		other.clientHandler = null;
+		other.processId = -2;
+	}
+	
 	public boolean isConsoleEnabled() {
 		return this.isConsoleEnabled;
 	}
 	
-	public void enableConsole(final String authConfig) throws RjException {
+	/**
+	 * Configures the debug console.  The configuration is refused while the node is
+	 * hibernated.
+	 */
+	public synchronized void enableConsole(final String authConfig) throws RjException {
+		if (this.hibernated) {
+			throw new RjException("The node is hibernated; the debug console cannot be configured.");
+		}
 		try {
 			this.isConsoleEnabled = this.node.setConsole(authConfig);
 		}
@@ -60,6 +124,196 @@ public abstract class NodeHandler {
 		return this.address;
 	}
 	
+	/**
+	 * Returns the duration of the start of the node, from the preparation of
+	 * the process until the node was ready to use.
+	 * 
+	 * @return the duration in milliseconds or <code>-1</code> if not available
+	 */
+	public long getStartupTime() {
+		return this.startupTime;
+	}
+	
+	/**
+	 * Returns the duration of running the R startup snippet at the start of the node.
+	 * 
+	 * @return the duration in milliseconds or <code>-1</code> if not available
+	 */
+	public long getStartupSnippetTime() {
+		return this.startupSnippetTime;
+	}
+	
+	/**
+	 * Returns the durations of the phases of the node start.
+	 * 
+	 * @return the durations as <code>phase=time</code> pairs or <code>null</code> if not available
+	 */
+	public String getStartupPhases() {
+		return this.startupPhases;
+	}
+	
+	/**
+	 * Returns the size of the objects preloaded at the start of the node.
+	 * 
+	 * @return the size in kB or <code>-1</code> if not available
+	 */
+	public long getPreloadSize() {
+		return this.preloadSize;
+	}
+	
+	/**
+	 * Returns the recent output (stdout and stderr) of the node process.
+	 * 
+	 * @return the text or <code>null</code> if not available
+	 */
+	public String getProcessOutput() {
+		final NodeOutput output = this.output;
+		return (output != null) ? output.getText() : null;
+	}
+	
+	/**
+	 * Returns the resident memory of the node process.
+	 * 
+	 * @return the size in kB or <code>-1</code> if not available
+	 */
+	public long getProcessMemory() {
+		final Process process = this.process;
+		if (process == null) {
+			return -1;
+		}
+		return Utils.readProcessStatus(getProcessId(process), "VmRSS");
+	}
+	
+	private long getProcessId(final Process process) {
+		if (this.processId == -2) {
+			this.processId = Utils.getProcessId(process);
+		}
+		return this.processId;
+	}
+	
+	/**
+	 * Returns if the node process is hibernated (stopped by SIGSTOP).
+	 * 
+	 * @return <code>true</code> if hibernated, otherwise <code>false</code>
+	 */
+	public boolean isHibernated() {
+		return this.hibernated;
+	}
+	
+	/**
+	 * Stops the node process by SIGSTOP.  The node must be idle; it must be
+	 * {@link #resume() resumed} before it is used again.
+	 * 
+	 * @throws RjException if the process could not be stopped
+	 */
+	synchronized void hibernate() throws RjException {
+		if (this.hibernated) {
+			return;
+		}
+		final Process process = this.process;
+		try {
+			if (process == null || !Utils.signalProcess(getProcessId(process), "STOP")) {
+				throw new RjException("Hibernation is not supported for the node.");
+			}
+		}
+		catch (final IOException e) {
+			throw new RjException("Failed to hibernate the node.", e);
+		}
+		this.hibernated = true;
+	}
+	
+	/**
+	 * Continues the hibernated node process by SIGCONT.
+	 * 
+	 * @throws RjException if the process could not be continued
+	 */
+	synchronized void resume() throws RjException {
+		if (!this.hibernated) {
+			return;
+		}
+		final Process process = this.process;
+		try {
+			if (process != null) {
+				Utils.signalProcess(getProcessId(process), "CONT");
+			}
+		}
+		catch (final IOException e) {
+			throw new RjException("Failed to resume the hibernated node.", e);
+		}
+		this.hibernated = false;
+	}
+	
+	/**
+	 * Returns the time the node was busy running calls of its clients (main loop and
+	 * async calls), summed up over all completed uses.
+	 * 
+	 * @return the time in milliseconds
+	 */
+	public synchronized long getBusyTime() {
+		return this.busyTime;
+	}
+	
+	/**
+	 * Returns the number of commands sent by the clients of the node, summed up over all
+	 * completed uses.
+	 * 
+	 * @return the number of commands
+	 */
+	public synchronized long getNumCommands() {
+		return this.numCommands;
+	}
+	
+	/**
+	 * Returns the number of bytes received from the clients of the node, summed up over
+	 * all completed uses.
+	 * 
+	 * @return the number of bytes or <code>-1</code> if not available (e.g. with SSL)
+	 */
+	public synchronized long getBytesIn() {
+		return this.bytesIn;
+	}
+	
+	/**
+	 * Returns the number of bytes sent to the clients of the node, summed up over
+	 * all completed uses.
+	 * 
+	 * @return the number of bytes or <code>-1</code> if not available (e.g. with SSL)
+	 */
+	public synchronized long getBytesOut() {
+		return this.bytesOut;
+	}
+	
+	/**
+	 * Returns the CPU time used by the node process, read from its cgroup.
+	 * 
+	 * @return the time in milliseconds or <code>-1</code> if not available
+	 */
+	public long getCpuTime() {
+		final NodeCgroup cgroup = this.cgroup;
+		return (cgroup != null) ? cgroup.getCpuUsage() : -1;
+	}
+	
+	/**
+	 * Returns the memory used by the node process, read from its cgroup.
+	 * 
+	 * @return the size in kB or <code>-1</code> if not available
+	 */
+	public long getCgroupMemory() {
+		final NodeCgroup cgroup = this.cgroup;
+		return (cgroup != null) ? cgroup.getMemoryUsage() : -1;
+	}
+	
+	/**
+	 * Returns the size of the R heap measured at the last reset of the workspace.
+	 * The size is reported by the node when a client is unbound, so no call to the node
+	 * is required.
+	 * 
+	 * @return the size in MB or <code>-1</code> if not available
+	 */
+	public long getRHeapSize() {
+		return this.rHeapSize;
+	}
+	
 	String bindClient(final String name, final String host) throws RemoteException {
 		final StringBuilder sb = new StringBuilder(80);
 		if (name != null) {
@@ -72,9 +326,31 @@ public abstract class NodeHandler {
 		return client;
 	}
 	
-	void unbindClient() throws RemoteException {
+	NodeUsage unbindClient() throws RemoteException {
+		this.clientHandler = null;
+		return addUsage(this.node.unbindClient());
+	}
+	
+	NodeUsage detachClient() throws RemoteException {
 		this.clientHandler = null;
-		this.node.unbindClient();
+		return addUsage(this.node.detachClient());
+	}
+	
+	private synchronized NodeUsage addUsage(final NodeUsage usage) {
+		if (usage != null) {
+			if (usage.getRHeapSize() >= 0) {
+				this.rHeapSize = usage.getRHeapSize();
+			}
+			this.busyTime += usage.getBusyTime();
+			this.numCommands += usage.getNumCommands();
+			if (this.bytesIn >= 0) {
+				this.bytesIn = (usage.getBytesIn() >= 0) ? (this.bytesIn + usage.getBytesIn()) : -1;
+			}
+			if (this.bytesOut >= 0) {
+				this.bytesOut = (usage.getBytesOut() >= 0) ? (this.bytesOut + usage.getBytesOut()) : -1;
+			}
+		}
+		return usage;
 	}
 	
 	void shutdown() throws RemoteException {
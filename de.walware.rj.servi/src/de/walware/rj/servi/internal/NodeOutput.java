@@ -0,0 +1,274 @@
+/*=============================================================================#
+ # Copyright (c) 2009-2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.rj.servi.internal;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Output (stdout and stderr) of a node process.
+ * 
+ * The output of all nodes is drained continuously by a single shared thread, so a node
+ * never blocks writing to a full pipe.  The last {@value #BUFFER_SIZE} bytes are kept
+ * in a ring buffer.  Optionally the output is written to a log file, which is rotated
+ * when it exceeds {@value #LOG_FILE_MAX_SIZE} bytes.
+ */
+public class NodeOutput {
+	
+	
+	static final int BUFFER_SIZE = 0x10000;
+	
+	static final String LOG_FILE_NAME = "process.log";
+	static final long LOG_FILE_MAX_SIZE = 0x100000;
+	
+	private static final long PUMP_INTERVAL = 100;
+	
+	/** Max time in millis to read the remaining output when closing */
+	private static final long CLOSE_TIMEOUT = 2000;
+	
+	private static final List<NodeOutput> PUMP_LIST = new ArrayList<>();
+	private static Thread pumpThread;
+	
+	private static void pump() throws InterruptedException {
+		final List<NodeOutput> outputs = new ArrayList<>();
+		while (true) {
+			synchronized (PUMP_LIST) {
+				while (PUMP_LIST.isEmpty()) {
+					PUMP_LIST.wait();
+				}
+				outputs.clear();
+				outputs.addAll(PUMP_LIST);
+			}
+			boolean read = false;
+			for (int i = 0; i < outputs.size(); i++) {
+				final NodeOutput output = outputs.get(i);
+				final int n = output.read();
+				if (n > 0) {
+					read = true;
+				}
+				else if (n < 0) { // broken or closed stream
+					synchronized (PUMP_LIST) {
+						PUMP_LIST.remove(output);
+					}
+				}
+			}
+			if (!read) {
+				Thread.sleep(PUMP_INTERVAL);
+			}
+		}
+	}
+	
+	
+	private final InputStream stream;
+	
+	private final byte[] ring = new byte[BUFFER_SIZE];
+	private int ringPos;
+	private boolean ringFull;
+	
+	private final byte[] readBuffer = new byte[4096];
+	
+	private final File logFile;
+	private FileOutputStream logStream;
+	private long logSize;
+	
+	private boolean closed;
+	
+	
+	/**
+	 * Creates a new output and starts draining the stream.
+	 * 
+	 * @param stream the output stream of the process
+	 * @param logFile the log file or <code>null</code>
+	 */
+	public NodeOutput(final InputStream stream, final File logFile) {
+		this.stream = stream;
+		this.logFile = logFile;
+		
+		synchronized (PUMP_LIST) {
+			PUMP_LIST.add(this);
+			if (pumpThread == null) {
+				pumpThread = new Thread("RServi-NodeOutput") {
+					@Override
+					public void run() {
+						try {
+							pump();
+						}
+						catch (final InterruptedException e) {
+						}
+						finally {
+							synchronized (PUMP_LIST) {
+								pumpThread = null;
+							}
+						}
+					}
+				};
+				pumpThread.setDaemon(true);
+				pumpThread.start();
+			}
+			PUMP_LIST.notifyAll();
+		}
+	}
+	
+	
+	/**
+	 * Reads the available output without blocking.
+	 * 
+	 * @return the number of bytes read, <code>-1</code> if the output is closed, at the end
+	 *     of the stream or on error
+	 */
+	private synchronized int read() {
+		return (!this.closed) ? readAvailable() : -1;
+	}
+	
+	/**
+	 * Reads the available output without blocking.
+	 * 
+	 * @return the number of bytes read, <code>-1</code> at the end of the stream or on error
+	 */
+	private int readAvailable() {
+		try {
+			final int available = this.stream.available();
+			if (available <= 0) {
+				return 0;
+			}
+			final int n = this.stream.read(this.readBuffer, 0,
+					Math.min(available, this.readBuffer.length) );
+			if (n > 0) {
+				append(this.readBuffer, n);
+			}
+			return n;
+		}
+		catch (final IOException e) {
+			return -1;
+		}
+	}
+	
+	private void append(final byte[] b, final int length) {
+		int offset = 0;
+		while (offset < length) {
+			final int n = Math.min(length - offset, this.ring.length - this.ringPos);
+			System.arraycopy(b, offset, this.ring, this.ringPos, n);
+			offset += n;
+			this.ringPos += n;
+			if (this.ringPos == this.ring.length) {
+				this.ringPos = 0;
+				this.ringFull = true;
+			}
+		}
+		
+		if (this.logFile != null) {
+			try {
+				if (this.logStream == null) {
+					this.logStream = new FileOutputStream(this.logFile, true);
+					this.logSize = this.logFile.length();
+				}
+				else if (this.logSize > LOG_FILE_MAX_SIZE) {
+					this.logStream.close();
+					final File oldFile = new File(this.logFile.getPath() + ".1");
+					oldFile.delete();
+					this.logFile.renameTo(oldFile);
+					this.logStream = new FileOutputStream(this.logFile, false);
+					this.logSize = 0;
+				}
+				this.logStream.write(b, 0, length);
+				this.logSize += length;
+			}
+			catch (final IOException e) {
+				// ignore, output remains available in the ring buffer
+			}
+		}
+	}
+	
+	/**
+	 * Returns the recent output.
+	 * 
+	 * If older output was dropped, the text starts with the first complete line.
+	 * 
+	 * @return the text
+	 */
+	public synchronized String getText() {
+		if (!this.ringFull) {
+			return new String(this.ring, 0, this.ringPos);
+		}
+		final byte[] bytes = new byte[this.ring.length];
+		final int n = this.ring.length - this.ringPos;
+		System.arraycopy(this.ring, this.ringPos, bytes, 0, n);
+		System.arraycopy(this.ring, 0, bytes, n, this.ringPos);
+		int start = 0;
+		while (start < bytes.length && bytes[start++] != '\n') {
+		}
+		return new String(bytes, start, bytes.length - start);
+	}
+	
+	/**
+	 * Stops draining the stream in background, reads the remaining output and closes
+	 * the stream.
+	 * 
+	 * The remaining output is read without blocking, until no more output is available
+	 * or at most {@value #CLOSE_TIMEOUT} milliseconds, because child processes of R can
+	 * keep the pipe open.  The method should be called only if the process is terminated.
+	 */
+	public void close() {
+		synchronized (PUMP_LIST) {
+			PUMP_LIST.remove(this);
+		}
+		final long deadline = System.nanoTime() + CLOSE_TIMEOUT * 1000000L;
+		boolean idle = false;
+		while (System.nanoTime() - deadline < 0) {
+			final int n;
+			synchronized (this) {
+				if (this.closed) {
+					return;
+				}
+				n = readAvailable();
+			}
+			if (n > 0) {
+				idle = false;
+				continue;
+			}
+			if (n < 0 || idle) {
+				break;
+			}
+			idle = true;
+			try {
+				Thread.sleep(PUMP_INTERVAL);
+			}
+			catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		synchronized (this) {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+			try {
+				this.stream.close();
+			}
+			catch (final IOException ignore) {}
+			if (this.logStream != null) {
+				try {
+					this.logStream.close();
+				}
+				catch (final IOException ignore) {}
+				this.logStream = null;
+			}
+		}
+	}
+	
+}
@@ -0,0 +1,222 @@
+/*=============================================================================#
+ # Copyright (c) 2009-2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.rj.servi.internal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Handshake for the start of local R nodes.
+ * 
+ * The listener accepts connections at a loopback socket; the node connects
+ * to it and sends its name as soon as it is published in the registry
+ * (see {@link #notifyReady(int, String)}).  In addition the process of the
+ * node is watched, so the start can be aborted as soon as it exits.
+ */
+class NodeReadyListener implements Runnable {
+	
+	
+	/** Name of the node argument specifying the port of the listener */
+	static final String PORT_ARG = "readyPort";
+	
+	private static final String CHARSET = "UTF-8";
+	
+	
+	static void notifyReady(final int port, final String name) throws IOException {
+		try (final Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+			final OutputStream out = socket.getOutputStream();
+			out.write((name + '\n').getBytes(CHARSET));
+			out.flush();
+		}
+	}
+	
+	
+	static final byte WAITING = 0;
+	static final byte READY = 1;
+	static final byte EXITED = 2;
+	
+	class Waiter {
+		
+		
+		private final String name;
+		
+		private byte state;
+		private int exitValue;
+		
+		private Thread watcher;
+		
+		
+		Waiter(final String name) {
+			this.name = name;
+		}
+		
+		
+		/**
+		 * Starts watching the process of the node.
+		 * 
+		 * @param process the process
+		 */
+		void watch(final Process process) {
+			final Thread thread = new Thread("RServi-NodeStart-" + this.name) {
+				@Override
+				public void run() {
+					try {
+						exited(process.waitFor());
+					}
+					catch (final InterruptedException e) {
+						// ready or cancelled
+					}
+				}
+			};
+			thread.setDaemon(true);
+			synchronized (this) {
+				this.watcher = thread;
+			}
+			thread.start();
+		}
+		
+		private synchronized void ready() {
+			if (this.state == WAITING) {
+				this.state = READY;
+				notifyAll();
+			}
+		}
+		
+		private synchronized void exited(final int exitValue) {
+			if (this.state == WAITING) {
+				this.state = EXITED;
+				this.exitValue = exitValue;
+				notifyAll();
+			}
+		}
+		
+		/**
+		 * Waits until the node is ready or its process exited.
+		 * 
+		 * @param nanos the max time to wait, <code>-1</code> to wait without timeout
+		 * @return the state, {@link #WAITING} if the timeout elapsed
+		 */
+		synchronized byte await(final long nanos) throws InterruptedException {
+			final long deadline = System.nanoTime() + nanos;
+			while (this.state == WAITING) {
+				if (nanos < 0) {
+					wait();
+				}
+				else {
+					final long remaining = deadline - System.nanoTime();
+					if (remaining <= 0) {
+						break;
+					}
+					TimeUnit.NANOSECONDS.timedWait(this, remaining);
+				}
+			}
+			return this.state;
+		}
+		
+		synchronized int getExitValue() {
+			return this.exitValue;
+		}
+		
+		/**
+		 * Unregisters the waiter and stops watching the process.
+		 */
+		void dispose() {
+			synchronized (NodeReadyListener.this.waiters) {
+				NodeReadyListener.this.waiters.remove(this.name);
+			}
+			final Thread thread;
+			synchronized (this) {
+				thread = this.watcher;
+				this.watcher = null;
+			}
+			if (thread != null) {
+				thread.interrupt();
+			}
+		}
+		
+	}
+	
+	
+	private final ServerSocket socket;
+	
+	private final Map<String, Waiter> waiters = new HashMap<>();
+	
+	
+	public NodeReadyListener() throws IOException {
+		this.socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		final Thread thread = new Thread(this, "RServi-NodeReadyListener");
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	
+	public int getPort() {
+		return this.socket.getLocalPort();
+	}
+	
+	/**
+	 * Registers a node which is going to be started.
+	 * 
+	 * @param name the name the node sends when it is ready
+	 * @return the waiter for the node
+	 */
+	public Waiter register(final String name) {
+		final Waiter waiter = new Waiter(name);
+		synchronized (this.waiters) {
+			this.waiters.put(name, waiter);
+		}
+		return waiter;
+	}
+	
+	@Override
+	public void run() {
+		while (!this.socket.isClosed()) {
+			try (final Socket client = this.socket.accept()) {
+				client.setSoTimeout(5000);
+				final BufferedReader reader = new BufferedReader(
+						new InputStreamReader(client.getInputStream(), CHARSET) );
+				final String name = reader.readLine();
+				if (name != null) {
+					final Waiter waiter;
+					synchronized (this.waiters) {
+						waiter = this.waiters.get(name);
+					}
+					if (waiter != null) {
+						waiter.ready();
+					}
+				}
+			}
+			catch (final IOException e) {
+				if (this.socket.isClosed()) {
+					break;
+				}
+			}
+		}
+	}
+	
+	public void dispose() {
+		try {
+			this.socket.close();
+		}
+		catch (final IOException ignore) {}
+	}
+	
+}
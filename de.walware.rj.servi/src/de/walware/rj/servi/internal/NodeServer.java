@@ -24,6 +24,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 import javax.rmi.ssl.SslRMIClientSocketFactory;
@@ -31,6 +32,7 @@ import javax.rmi.ssl.SslRMIServerSocketFactory;
 import javax.security.auth.login.LoginException;
 
 import de.walware.rj.RjException;
+import de.walware.rj.data.RObject;
 import de.walware.rj.server.DataCmdItem;
 import de.walware.rj.server.MainCmdC2SList;
 import de.walware.rj.server.MainCmdItem;
@@ -52,6 +54,34 @@ import de.walware.rj.servi.pool.RServiNode;
 public class NodeServer extends DefaultServerImpl {
 	
 	
+	/** Name of the environment of the preloaded objects in the R search path */
+	static final String PRELOAD_ENV_NAME = "rservi:preload";
+	
+	/**
+	 * Name of the private environment with the reference to the preloaded objects, bound
+	 * (locked) in the base environment, out of reach of <code>rm(list=ls())</code>
+	 */
+	private static final String PRELOAD_PRIVATE_NAME = ".rj.servi.preload";
+	
+	/**
+	 * Checks the preloaded objects against the references in the private environment and
+	 * re-attaches them if detached by the client; returns <code>FALSE</code> if tampered.
+	 * The values are compared by <code>identical</code>, which is cheap for unmodified objects.
+	 */
+	private static final String PRELOAD_CHECK_COMMAND = "local({"
+			+ "p<-if(exists(\"" + PRELOAD_PRIVATE_NAME + "\",envir=baseenv(),inherits=FALSE))get(\"" + PRELOAD_PRIVATE_NAME + "\",envir=baseenv(),inherits=FALSE);"
+			+ "v<-function(e)is.environment(e)&&environmentIsLocked(e)"
+					+ "&&identical(sort(ls(e,all.names=TRUE)),p$names)"
+					+ "&&all(vapply(p$names,bindingIsLocked,NA,env=e))"
+					+ "&&identical(mget(p$names,envir=e),p$objs);"
+			+ "if(!is.environment(p)||!environmentIsLocked(p)"
+					+ "||!bindingIsLocked(\"" + PRELOAD_PRIVATE_NAME + "\",baseenv())||!v(p$env))FALSE "
+			+ "else{if(!is.element(\"" + PRELOAD_ENV_NAME + "\",search())){"
+					+ "lockEnvironment(attach(p$env,name=\"" + PRELOAD_ENV_NAME + "\",warn.conflicts=FALSE),bindings=TRUE)};"
+				+ "v(as.environment(\"" + PRELOAD_ENV_NAME + "\"))}"
+			+ "},envir=new.env(parent=baseenv()))";
+	
+	
 	class ConsoleDummy extends Thread {
 		
 		private final Client client;
@@ -183,13 +213,18 @@ public class NodeServer extends DefaultServerImpl {
 		
 		@Override
 		public int getEvalTime() throws RemoteException {
-			return 0;
+			return (int) Math.min(NodeServer.this.totalBusyTime.get() / 1000000L, Integer.MAX_VALUE);
 		}
 		
 		@Override
 		public void ping() throws RemoteException {
 		}
 		
+		@Override
+		public long getRHeapSize() throws RemoteException {
+			return NodeServer.this.rHeapSize;
+		}
+		
 		@Override
 		public String getPoolHost() throws RemoteException {
 			try {
@@ -206,14 +241,45 @@ public class NodeServer extends DefaultServerImpl {
 					code, null, null, null ));
 		}
 		
+		@Override
+		public void runSnippet(final String[] lines) throws RemoteException, RjException {
+			for (int i = 0; i < lines.length; i++) {
+				final String line = lines[i];
+				if (line.length() > 0) {
+					try {
+						runServerLoopCommand(null, new DataCmdItem(DataCmdItem.EVAL_EXPR_VOID, 0,
+								line, null, null, null ));
+					}
+					catch (final RjException e) {
+						throw new RjException("line " + (i + 1) + " '" + line + "'", e);
+					}
+				}
+			}
+		}
+		
+		@Override
+		public long preload(final String[] lines) throws RemoteException, RjException {
+			return NodeServer.this.preload(lines);
+		}
+		
+		@Override
+		public void setResetPolicy(final int gcInterval, final long gcThreshold, final String code) throws RemoteException {
+			NodeServer.this.setResetPolicy(gcInterval, gcThreshold, code);
+		}
+		
 		@Override
 		public RServiBackend bindClient(final String client) throws RemoteException {
 			return NodeServer.this.bindClient(client);
 		}
 		
 		@Override
-		public void unbindClient() throws RemoteException {
-			NodeServer.this.unbindClient();
+		public NodeUsage unbindClient() throws RemoteException {
+			return NodeServer.this.unbindClient();
+		}
+		
+		@Override
+		public NodeUsage detachClient() throws RemoteException {
+			return NodeServer.this.detachClient();
 		}
 		
 		@Override
@@ -270,6 +336,9 @@ public class NodeServer extends DefaultServerImpl {
 	private boolean isConsoleEnabled;
 	private boolean isConsoleDummyRunning;
 	
+	private static final int EXPR_STATS_SIZE = 200;
+	
+	
 	private final ServerAuthMethod rserviAuthMethod;
 	
 	private final Client consoleDummyClient;
@@ -278,12 +347,41 @@ public class NodeServer extends DefaultServerImpl {
 	private Backend currentClientBackend;
 	private RServiBackend currentClientExp;
 	
+	/** time in nanos the node was busy running calls of the current client / of all clients */
+	private final AtomicLong clientBusyTime = new AtomicLong();
+	private final AtomicLong totalBusyTime = new AtomicLong();
+	/** number of commands of the current client */
+	private final AtomicLong clientCommands = new AtomicLong();
+	/** traffic of all clients when the current client was bound */
+	private long clientBytesInStart;
+	private long clientBytesOutStart;
+	/** statistics of the expressions of the current client */
+	private final ExprStatsTable clientExprStats = new ExprStatsTable(EXPR_STATS_SIZE);
+	/** expressions of the last main loop call (kind, expression), waiting for the bytes of the answer */
+	private String[] pendingExprs;
+	private long pendingBytesOutStart;
+	
 	private final Object serviRunLock = new Object();
 	
+	/** reset with full garbage collection */
 	private String resetCommand;
+	/** reset according to the reset policy */
+	private String resetCheapCommand;
+	private int resetGcInterval = 1;
+	private int resetCount;
+	/** if the workspace was used by a client since the last reset */
+	private boolean workspaceDirty;
+	/** size of the R heap in MB measured at the last reset with garbage collection */
+	private volatile long rHeapSize = -1;
+	/** if objects are preloaded, checked at each reset */
+	private boolean preloaded;
+	/** size of the preloaded objects in kB */
+	private volatile long preloadSize = -1;
 	
 	private RMIClientSocketFactory clientSocketFactory;
 	private RMIServerSocketFactory serverSocketFactory;
+	/** counts the traffic of the clients, not available with SSL */
+	private TrafficSocketFactory trafficSocketFactory;
 	
 	
 	public NodeServer(final AbstractServerControl control, final boolean ssl) {
@@ -295,18 +393,15 @@ public class NodeServer extends DefaultServerImpl {
 			this.clientSocketFactory = new SslRMIClientSocketFactory();
 			this.serverSocketFactory = new SslRMIServerSocketFactory(null, null, true);
 		}
+		else {
+			this.trafficSocketFactory = new TrafficSocketFactory();
+		}
 	}
 	
 	
 	void start1() throws Exception {
-		this.resetCommand = "{" +
-				"rm(list=ls());" +
-				"gc();" +
-				".rj.getTmp<-function(o){x<-get(o,pos=.GlobalEnv);rm(list=o,pos=.GlobalEnv);x};" +
-				".rj.wd<-\""+this.workingDirectory.replace("\\", "\\\\")+"\";" +
-				"setwd(.rj.wd);" +
-				"graphics.off();" +
-		"}";
+		this.resetCommand = createResetCommand(null, true, -1);
+		this.resetCheapCommand = this.resetCommand;
 		RjsComConfig.setServerPathResolver(this);
 		
 		final Map<String, Object> properties = new HashMap<>();
@@ -319,8 +414,10 @@ public class NodeServer extends DefaultServerImpl {
 				runServerLoopCommand(null, new DataCmdItem(DataCmdItem.EVAL_EXPR_VOID, 0,
 						"library(rj)", null, null, null ));
 				LOGGER.log(Level.FINE, "Initializing R node: Preparing R workspace for first client...");
-				runServerLoopCommand(null, new DataCmdItem(DataCmdItem.EVAL_EXPR_VOID, 0,
-						this.resetCommand, null, null, null ));
+				final DataCmdItem resetCmd = new DataCmdItem(DataCmdItem.EVAL_EXPR_DATA, 0,
+						this.resetCommand, null, null, null );
+				runServerLoopCommand(null, resetCmd);
+				updateRHeapSize(resetCmd.getData());
 			}
 		}
 		catch (final Exception e) {
@@ -361,6 +458,117 @@ public class NodeServer extends DefaultServerImpl {
 	}
 	
 	
+	private String createResetCommand(final String code, final boolean gc, final long gcThreshold) {
+		final StringBuilder sb = new StringBuilder(256);
+		sb.append('{');
+		if (code != null && code.length() > 0) {
+			sb.append(code);
+			sb.append('\n');
+		}
+		// .rj.heap: size of the R heap (MB) if measured by the garbage collection
+		if (gc) {
+			sb.append("rm(list=ls());");
+			sb.append(".rj.heap<-sum(gc()[,2L]);");
+		}
+		else if (gcThreshold >= 0) {
+			// size of the objects left by the client, no collection required
+			sb.append("if(sum(vapply(ls(),function(n)as.numeric(object.size(get(n,envir=.GlobalEnv))),0))>");
+			sb.append(gcThreshold * 1048576L);
+			sb.append("){rm(list=ls());.rj.heap<-sum(gc()[,2L])}else{rm(list=ls());.rj.heap<-NA_real_};");
+		}
+		else {
+			sb.append("rm(list=ls());");
+			sb.append(".rj.heap<-NA_real_;");
+		}
+		sb.append(".rj.getTmp<-function(o){x<-get(o,pos=.GlobalEnv);rm(list=o,pos=.GlobalEnv);x};");
+		sb.append(".rj.wd<-\"" + this.workingDirectory.replace("\\", "\\\\") + "\";");
+		sb.append("setwd(.rj.wd);");
+		sb.append("graphics.off();");
+		sb.append(".rj.heap");
+		sb.append('}');
+		return sb.toString();
+	}
+	
+	void setResetPolicy(final int gcInterval, final long gcThreshold, final String code) {
+		synchronized (this.serviRunLock) {
+			this.resetGcInterval = gcInterval;
+			this.resetCount = 0;
+			this.resetCommand = createResetCommand(code, true, -1);
+			this.resetCheapCommand = (gcInterval == 1) ? this.resetCommand :
+					createResetCommand(code, false, gcThreshold);
+		}
+	}
+	
+	long preload(final String[] lines) throws RjException {
+		synchronized (this.serviRunLock) {
+			runServerLoopCommand(null, new DataCmdItem(DataCmdItem.EVAL_EXPR_VOID, 0,
+					"invisible(attach(NULL,name=\"" + PRELOAD_ENV_NAME + "\",warn.conflicts=FALSE))",
+					null, null, null ));
+			for (int i = 0; i < lines.length; i++) {
+				final String line = lines[i];
+				if (line.length() > 0) {
+					try {
+						runServerLoopCommand(null, new DataCmdItem(DataCmdItem.EVAL_EXPR_VOID, 0,
+								"local({" + line + "\n},envir=as.environment(\"" + PRELOAD_ENV_NAME + "\"))",
+								null, null, null ));
+					}
+					catch (final RjException e) {
+						throw new RjException("line " + (i + 1) + " '" + line + "'", e);
+					}
+				}
+			}
+			// keep the references in a private environment, not in the client's global environment
+			final DataCmdItem sizeCmd = new DataCmdItem(DataCmdItem.EVAL_EXPR_DATA, 0,
+					"local({e<-as.environment(\"" + PRELOAD_ENV_NAME + "\");lockEnvironment(e,bindings=TRUE);"
+					+ "p<-new.env(parent=emptyenv());p$env<-e;p$names<-sort(ls(e,all.names=TRUE));"
+					+ "p$objs<-mget(p$names,envir=e);lockEnvironment(p,bindings=TRUE);"
+					+ "assign(\"" + PRELOAD_PRIVATE_NAME + "\",p,envir=baseenv());"
+					+ "lockBinding(\"" + PRELOAD_PRIVATE_NAME + "\",baseenv());"
+					+ "sum(vapply(p$objs,function(o)as.numeric(object.size(o)),0))})",
+					null, null, null );
+			runServerLoopCommand(null, sizeCmd);
+			this.preloaded = true;
+			final RObject data = sizeCmd.getData();
+			if (data != null && data.getData() != null && data.getData().getLength() == 1
+					&& !data.getData().isNA(0) ) {
+				this.preloadSize = (long) Math.ceil(data.getData().getNum(0) / 1024);
+			}
+			return this.preloadSize;
+		}
+	}
+	
+	/**
+	 * Checks that the preloaded objects were not modified by the client.
+	 * 
+	 * @throws RjException if the preloaded objects were modified, the node must not be reused
+	 */
+	private void checkPreload() throws RjException {
+		final DataCmdItem checkCmd = new DataCmdItem(DataCmdItem.EVAL_EXPR_DATA, 0,
+				PRELOAD_CHECK_COMMAND, null, null, null );
+		runServerLoopCommand(null, checkCmd);
+		final RObject data = checkCmd.getData();
+		if (data == null || data.getData() == null || data.getData().getLength() != 1
+				|| data.getData().isNA(0) || !data.getData().getLogi(0) ) {
+			throw new RjException("The preloaded objects were modified or removed by the client.");
+		}
+	}
+	
+	private void updateRHeapSize(final RObject data) {
+		if (data != null && data.getData() != null && data.getData().getLength() == 1
+				&& !data.getData().isNA(0) ) {
+			this.rHeapSize = (long) Math.ceil(data.getData().getNum(0));
+		}
+	}
+	
+	private String nextResetCommand() {
+		this.resetCount++;
+		if (this.resetGcInterval > 0 && this.resetCount >= this.resetGcInterval) {
+			this.resetCount = 0;
+			return this.resetCommand;
+		}
+		return this.resetCheapCommand;
+	}
+	
 	RServiBackend bindClient(final String client) throws RemoteException {
 		synchronized (this.serverClient) {
 			if (NodeServer.this.currentClientBackend != null) {
@@ -368,28 +576,70 @@ public class NodeServer extends DefaultServerImpl {
 			}
 			final Backend backend = new Backend();
 			final RServiBackend export = (RServiBackend) UnicastRemoteObject.exportObject(backend, 0,
-					this.clientSocketFactory, this.serverSocketFactory );
+					this.clientSocketFactory, (this.serverSocketFactory != null) ?
+							this.serverSocketFactory : this.trafficSocketFactory );
+			this.clientBusyTime.set(0);
+			this.clientCommands.set(0);
+			synchronized (this.clientExprStats) {
+				this.clientExprStats.reset();
+				this.pendingExprs = null;
+			}
+			if (this.trafficSocketFactory != null) {
+				this.clientBytesInStart = this.trafficSocketFactory.getBytesIn();
+				this.clientBytesOutStart = this.trafficSocketFactory.getBytesOut();
+			}
 			this.currentClientId = client;
 			this.currentClientBackend = backend;
 			this.currentClientExp = export;
+			this.workspaceDirty = true;
 			DefaultServerImpl.addClient(export);
 			return export;
 		}
 	}
 	
-	void unbindClient() throws RemoteException {
+	private NodeUsage detachCurrentClient() throws RemoteException {
+		final Backend previous = this.currentClientBackend;
+		if (previous != null) {
+			DefaultServerImpl.removeClient(this.currentClientExp);
+			this.currentClientId = null;
+			this.currentClientBackend = null;
+			this.currentClientExp = null;
+			UnicastRemoteObject.unexportObject(previous, true);
+			final TrafficSocketFactory traffic = this.trafficSocketFactory;
+			synchronized (this.clientExprStats) {
+				addPendingBytes();
+			}
+			return new NodeUsage(this.clientBusyTime.get() / 1000000L, this.clientCommands.get(),
+					(traffic != null) ? traffic.getBytesIn() - this.clientBytesInStart : -1,
+					(traffic != null) ? traffic.getBytesOut() - this.clientBytesOutStart : -1,
+					this.clientExprStats.drain() );
+		}
+		return null;
+	}
+	
+	NodeUsage detachClient() throws RemoteException {
 		synchronized (this.serverClient) {
-			final Backend previous = this.currentClientBackend;
-			if (previous != null) {
-				DefaultServerImpl.removeClient(this.currentClientExp);
-				this.currentClientId = null;
-				this.currentClientBackend = null;
-				this.currentClientExp = null;
-				UnicastRemoteObject.unexportObject(previous, true);
+			return detachCurrentClient();
+		}
+	}
+	
+	NodeUsage unbindClient() throws RemoteException {
+		synchronized (this.serverClient) {
+			final NodeUsage usage = detachCurrentClient();
+			if (this.workspaceDirty) {
+				this.workspaceDirty = false;
 				try {
 					synchronized (this.serviRunLock) {
-						runServerLoopCommand(null, new DataCmdItem(DataCmdItem.EVAL_EXPR_VOID, 0,
-								this.resetCommand, null, null, null ));
+						if (this.preloaded) {
+							checkPreload();
+						}
+						final DataCmdItem resetCmd = new DataCmdItem(DataCmdItem.EVAL_EXPR_DATA, 0,
+								nextResetCommand(), null, null, null );
+						runServerLoopCommand(null, resetCmd);
+						updateRHeapSize(resetCmd.getData());
+						if (usage != null) {
+							usage.setRHeapSize(this.rHeapSize);
+						}
 						ServerUtil.cleanDir(new File(this.workingDirectory), "out.log");
 					}
 				}
@@ -397,6 +647,7 @@ public class NodeServer extends DefaultServerImpl {
 					throw new RemoteException("An error occurred while resetting the workspace.", e);
 				}
 			}
+			return usage;
 		}
 	}
 	
@@ -432,14 +683,116 @@ public class NodeServer extends DefaultServerImpl {
 				throw new IllegalAccessError();
 			}
 		}
-		return super.runMainLoop(com, caller);
+		if (caller == null) {
+			return super.runMainLoop(com, caller);
+		}
+		String[] exprs = null;
+		if (com instanceof MainCmdC2SList) {
+			long count = 0;
+			int numExprs = 0;
+			for (MainCmdItem item = ((MainCmdC2SList) com).getItems(); item != null; item = item.next) {
+				count++;
+				if (item instanceof DataCmdItem && getExprKind(item.getOp()) != null) {
+					numExprs++;
+				}
+			}
+			this.clientCommands.addAndGet(count);
+			if (numExprs > 0) {
+				exprs = new String[numExprs * 2];
+				int i = 0;
+				for (MainCmdItem item = ((MainCmdC2SList) com).getItems(); item != null; item = item.next) {
+					final String kind;
+					if (item instanceof DataCmdItem && (kind = getExprKind(item.getOp())) != null) {
+						exprs[i++] = kind;
+						exprs[i++] = getExprFingerprint(kind, item.getDataText());
+					}
+				}
+			}
+		}
+		synchronized (this.clientExprStats) {
+			addPendingBytes();
+		}
+		final long t = System.nanoTime();
+		try {
+			return super.runMainLoop(com, caller);
+		}
+		finally {
+			final long nanos = System.nanoTime() - t;
+			addBusyTime(nanos);
+			if (exprs != null) {
+				synchronized (this.clientExprStats) {
+					final long exprNanos = nanos / (exprs.length / 2);
+					for (int i = 0; i < exprs.length; i += 2) {
+						this.clientExprStats.record(exprs[i], exprs[i + 1], exprNanos);
+					}
+					this.pendingExprs = exprs;
+					this.pendingBytesOutStart = (this.trafficSocketFactory != null) ?
+							this.trafficSocketFactory.getBytesOut() : -1;
+				}
+			}
+		}
+	}
+	
+	private static String getExprKind(final int op) {
+		switch (op) {
+		case DataCmdItem.EVAL_EXPR_VOID:
+			return ExprStatsTable.EVAL_VOID;
+		case DataCmdItem.EVAL_EXPR_DATA:
+			return ExprStatsTable.EVAL_DATA;
+		case DataCmdItem.EVAL_FCALL_VOID:
+			return ExprStatsTable.CALL_VOID;
+		case DataCmdItem.EVAL_FCALL_DATA:
+			return ExprStatsTable.CALL_DATA;
+		default:
+			return null;
+		}
+	}
+	
+	private static String getExprFingerprint(final String kind, final String text) {
+		if (text == null) {
+			return "";
+		}
+		if (kind == ExprStatsTable.CALL_VOID || kind == ExprStatsTable.CALL_DATA) {
+			return ExprStatsTable.normalize(text) + "(...)";
+		}
+		return ExprStatsTable.normalize(text);
+	}
+	
+	/**
+	 * Attributes the bytes sent since the end of the last main loop call (its answer)
+	 * to the expressions of that call.
+	 */
+	private void addPendingBytes() {
+		final String[] exprs = this.pendingExprs;
+		if (exprs == null) {
+			return;
+		}
+		this.pendingExprs = null;
+		long bytes = -1;
+		if (this.pendingBytesOutStart >= 0) {
+			bytes = (this.trafficSocketFactory.getBytesOut() - this.pendingBytesOutStart) / (exprs.length / 2);
+		}
+		for (int i = 0; i < exprs.length; i += 2) {
+			this.clientExprStats.addBytes(exprs[i], exprs[i + 1], bytes);
+		}
 	}
 	
 	private  RjsComObject runAsync(final RjsComObject com, final Backend backend) throws RemoteException {
 		if (backend != null && this.currentClientBackend != backend) {
 			throw new IllegalAccessError();
 		}
-		return this.internalEngine.runAsync(this.serverClient, com);
+		final long t = System.nanoTime();
+		try {
+			return this.internalEngine.runAsync(this.serverClient, com);
+		}
+		finally {
+			addBusyTime(System.nanoTime() - t);
+		}
+	}
+	
+	private void addBusyTime(final long nanos) {
+		this.clientBusyTime.addAndGet(nanos);
+		this.totalBusyTime.addAndGet(nanos);
 	}
 	
 }
@@ -0,0 +1,107 @@
+/*=============================================================================#
+ # Copyright (c) 2009-2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.rj.servi.internal;
+
+import java.io.Serializable;
+
+import de.walware.rj.servi.pool.RServiPoolManager;
+
+
+/**
+ * Usage of a node by a client, reported by the node when the client is unbound.
+ */
+public class NodeUsage implements Serializable {
+	
+	
+	private static final long serialVersionUID = 2316502845128846513L;
+	
+	
+	private final long busyTime;
+	private final long numCommands;
+	private final long bytesIn;
+	private final long bytesOut;
+	private final RServiPoolManager.ExprStat[] exprStats;
+	
+	private long rHeapSize = -1;
+	
+	
+	public NodeUsage(final long busyTime, final long numCommands,
+			final long bytesIn, final long bytesOut, final RServiPoolManager.ExprStat[] exprStats) {
+		this.busyTime = busyTime;
+		this.numCommands = numCommands;
+		this.bytesIn = bytesIn;
+		this.bytesOut = bytesOut;
+		this.exprStats = exprStats;
+	}
+	
+	
+	/**
+	 * Returns the time the node was busy running calls of the client (main loop and
+	 * async calls).
+	 * 
+	 * @return the time in milliseconds
+	 */
+	public long getBusyTime() {
+		return this.busyTime;
+	}
+	
+	/**
+	 * Returns the number of commands sent by the client in main loop calls.
+	 * 
+	 * @return the number of commands
+	 */
+	public long getNumCommands() {
+		return this.numCommands;
+	}
+	
+	/**
+	 * Returns the number of bytes received from the client.
+	 * 
+	 * @return the number of bytes or <code>-1</code> if not available
+	 */
+	public long getBytesIn() {
+		return this.bytesIn;
+	}
+	
+	/**
+	 * Returns the number of bytes sent to the client.
+	 * 
+	 * @return the number of bytes or <code>-1</code> if not available
+	 */
+	public long getBytesOut() {
+		return this.bytesOut;
+	}
+	
+	/**
+	 * Returns the statistics of the expressions and function calls of the client.
+	 * 
+	 * @return the statistics or <code>null</code> if no expressions were recorded
+	 */
+	public RServiPoolManager.ExprStat[] getExprStats() {
+		return this.exprStats;
+	}
+	
+	void setRHeapSize(final long size) {
+		this.rHeapSize = size;
+	}
+	
+	/**
+	 * Returns the size of the R heap measured at the reset of the workspace after the
+	 * client was unbound.
+	 * 
+	 * @return the size in MB or <code>-1</code> if not available
+	 */
+	public long getRHeapSize() {
+		return this.rHeapSize;
+	}
+	
+}
@@ -0,0 +1,226 @@
+/*=============================================================================#
+ # Copyright (c) 2009-2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.rj.servi.internal;
+
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.rmi.server.RMIClientSocketFactory;
+import java.rmi.server.RMIServerSocketFactory;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.core.runtime.CoreException;
+
+import de.walware.rj.servi.RServi;
+import de.walware.rj.servi.pool.RServiPoolAsync;
+
+
+/**
+ * Client side of an asynchronous RServi request.
+ * 
+ * The object is exported as RMI callback while the request is pending and
+ * unexported when the result is fetched or the request is cancelled.
+ * 
+ * A request can be cancelled until its RServi instance is fetched by {@link #get()};
+ * the instance is closed then.  After the instance is fetched, it is owned by the caller
+ * and {@link #cancel(boolean)} has no effect.
+ */
+public class RServiRequest implements RServiPoolAsync.Callback, Future<RServi> {
+	
+	
+	/**
+	 * Read timeout of the calls of the pool to the callback of the client (see
+	 * {@link CallbackClientSocketFactory}).
+	 */
+	public static final int CALLBACK_TIMEOUT = 30000;
+	
+	private static final byte PENDING = 0;
+	private static final byte COMPLETED = 1;
+	private static final byte FAILED = 2;
+	private static final byte CANCELLED = 3;
+	
+	
+	private byte state;
+	
+	private RServi rservi;
+	private boolean fetched;
+	private Exception exception;
+	
+	private boolean exported;
+	
+	
+	public RServiRequest() {
+	}
+	
+	
+	public synchronized RServiPoolAsync.Callback export(final RMIClientSocketFactory clientSocketFactory,
+			final RMIServerSocketFactory serverSocketFactory) throws RemoteException {
+		final RServiPoolAsync.Callback stub = (RServiPoolAsync.Callback) UnicastRemoteObject.exportObject(
+				this, 0, clientSocketFactory, serverSocketFactory );
+		this.exported = true;
+		return stub;
+	}
+	
+	/**
+	 * Unexports the callback.  Must not be called holding the lock of the request, the
+	 * calls delivering the result require the lock.
+	 */
+	private void unexport() {
+		synchronized (this) {
+			if (!this.exported) {
+				return;
+			}
+			this.exported = false;
+		}
+		try {
+			// the call delivering the result can still be in progress
+			for (int i = 0; !UnicastRemoteObject.unexportObject(this, (i >= 20)); i++) {
+				try {
+					Thread.sleep(50);
+				}
+				catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+					i = 20;
+				}
+			}
+		}
+		catch (final NoSuchObjectException e) {
+		}
+	}
+	
+	
+	@Override
+	public void completed(final RServi rservi) {
+		synchronized (this) {
+			if (this.state == PENDING) {
+				this.state = COMPLETED;
+				this.rservi = rservi;
+				notifyAll();
+				return;
+			}
+		}
+		// cancelled
+		closeRServi(rservi);
+	}
+	
+	@Override
+	public synchronized void failed(final Exception e) {
+		if (this.state == PENDING) {
+			this.state = FAILED;
+			this.exception = e;
+			notifyAll();
+		}
+	}
+	
+	public void failedLocal(final Exception e) {
+		failed(e);
+		unexport();
+	}
+	
+	
+	@Override
+	public boolean cancel(final boolean mayInterruptIfRunning) {
+		final RServi rservi;
+		final boolean cancelled;
+		synchronized (this) {
+			switch (this.state) {
+			case CANCELLED:
+				return true;
+			case FAILED:
+				rservi = null;
+				cancelled = false;
+				break;
+			case COMPLETED:
+				if (this.fetched) {
+					return false;
+				}
+				//$FALL-THROUGH$
+			default:
+				rservi = this.rservi;
+				this.rservi = null;
+				this.state = CANCELLED;
+				notifyAll();
+				cancelled = true;
+				break;
+			}
+		}
+		// a late completion closes the RServi instance itself
+		unexport();
+		if (rservi != null) {
+			closeRServi(rservi);
+		}
+		return cancelled;
+	}
+	
+	@Override
+	public synchronized boolean isCancelled() {
+		return (this.state == CANCELLED);
+	}
+	
+	@Override
+	public synchronized boolean isDone() {
+		return (this.state != PENDING);
+	}
+	
+	@Override
+	public RServi get() throws InterruptedException, ExecutionException {
+		synchronized (this) {
+			while (this.state == PENDING) {
+				wait();
+			}
+		}
+		unexport();
+		return getResult();
+	}
+	
+	@Override
+	public RServi get(final long timeout, final TimeUnit unit) throws InterruptedException,
+			ExecutionException, TimeoutException {
+		final long deadline = System.nanoTime() + unit.toNanos(timeout);
+		synchronized (this) {
+			while (this.state == PENDING) {
+				final long waitTime = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+				if (waitTime <= 0) {
+					throw new TimeoutException();
+				}
+				wait(waitTime);
+			}
+		}
+		unexport();
+		return getResult();
+	}
+	
+	private synchronized RServi getResult() throws ExecutionException {
+		switch (this.state) {
+		case COMPLETED:
+			this.fetched = true;
+			return this.rservi;
+		case FAILED:
+			throw new ExecutionException(this.exception);
+		default:
+			throw new CancellationException();
+		}
+	}
+	
+	private static void closeRServi(final RServi rservi) {
+		try {
+			rservi.close();
+		}
+		catch (final CoreException e) {
+		}
+	}
+	
+}
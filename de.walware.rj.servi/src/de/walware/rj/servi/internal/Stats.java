@@ -11,7 +11,13 @@
 
 package de.walware.rj.servi.internal;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
 import de.walware.rj.servi.acommons.pool.ObjectPoolItem;
+import de.walware.rj.servi.pool.RServiPoolManager;
 
 
 public class Stats implements PoolListener {
@@ -23,13 +29,67 @@ public class Stats implements PoolListener {
 	public final static int EXHAUSTED_FAILED = 3;
 	public final static int UNEXPECTED_FAILED = 4;
 	
+	public final static int MAX_AGE = 5;
+	public final static int MAX_R_HEAP = 6;
+	public final static int MAX_PROCESS_MEMORY = 7;
+	
+	private final static int NUM_REASONS = 8;
+	
+	private final static int EXPR_STATS_SIZE = 1000;
+	
+	
+	static String getShutdownReasonLabel(final int reason) {
+		switch (reason) {
+		case 0:
+			return null;
+		case MAX_USAGE:
+			return "max_usage";
+		case VALIDATION_FAILED:
+			return "validation_failed";
+		case EXHAUSTED_FAILED:
+			return "pool_exhausted";
+		case UNEXPECTED_FAILED:
+			return "unexpected_error";
+		case MAX_AGE:
+			return "max_age";
+		case MAX_R_HEAP:
+			return "max_r_heap";
+		case MAX_PROCESS_MEMORY:
+			return "max_process_memory";
+		default:
+			return "unknown_" + reason;
+		}
+	}
+	
+	private static boolean isRequestFailure(final int reason) {
+		return (reason == EXHAUSTED_FAILED || reason == UNEXPECTED_FAILED);
+	}
+	
 	
 	static class NodeEntry {
 		int shutdownReason;
+		/** Time stamp (nanos) the node was activated for the current client, or 0 */
+		long activateStamp;
+		/** Time stamp (nanos) the stop of the node was started */
+		long evictingStamp;
 	}
 	
 	
-//	private final ArrayList<NodeEntry> fTempList = new ArrayList<NodeEntry>();
+	private final StatsHistogram borrowWaitTimes = new StatsHistogram();
+	private final StatsHistogram usageDurations = new StatsHistogram();
+	private final StatsHistogram startupDurations = new StatsHistogram();
+	private final StatsHistogram resetDurations = new StatsHistogram();
+	private final StatsHistogram shutdownDurations = new StatsHistogram();
+	
+	/** Time in millis nodes were busy and in use, for usages with known busy time */
+	private final AtomicLong busyTime = new AtomicLong();
+	private final AtomicLong busyUsageTime = new AtomicLong();
+	
+	/** Number of failed requests and of recycled nodes by reason (see {@link #isRequestFailure(int)}) */
+	private final AtomicLongArray reasonCounts = new AtomicLongArray(NUM_REASONS);
+	
+	/** Statistics of the expressions of all clients */
+	private final ExprStatsTable exprStats = new ExprStatsTable(EXPR_STATS_SIZE);
 	
 	
 	@Override
@@ -38,21 +98,123 @@ public class Stats implements PoolListener {
 	
 	@Override
 	public void initialized(final ObjectPoolItem poolObj) {
-//		this.fTempList.add(poolObj.stats);
+		this.startupDurations.record(System.currentTimeMillis() - poolObj.getCreationTime());
 	}
 	
 	@Override
 	public void evicting(final ObjectPoolItem poolObj) {
+		final Object obj = poolObj.getObject();
+		if (obj instanceof PoolObject) {
+			((PoolObject) obj).stats.evictingStamp = System.nanoTime();
+		}
 	}
 	
 	@Override
 	public void evicted(final ObjectPoolItem poolObj) {
+		final Object obj = poolObj.getObject();
+		if (obj instanceof PoolObject) {
+			final NodeEntry entry = ((PoolObject) obj).stats;
+			countReason(entry.shutdownReason);
+		}
+	}
+	
+	/**
+	 * Logs the exit of the process of a node stopped by the pool.
+	 * 
+	 * @param poolObj the node
+	 */
+	public void logNodeShutdown(final PoolObject poolObj) {
+		this.shutdownDurations.recordNanos(System.nanoTime() - poolObj.stats.evictingStamp);
 	}
 	
+	/**
+	 * Logs a successful request of a client.
+	 * 
+	 * @param waitTime the time in millis the client waited for the node
+	 */
+	public void logServRequest(final long waitTime) {
+		this.borrowWaitTimes.record(waitTime);
+	}
+	
+	/**
+	 * Logs the usage of a node by a client.
+	 * 
+	 * @param borrowTime the time in millis the node was in use by the client
+	 * @param evalTime the time in millis the node was busy, or <code>-1</code> if not
+	 *     available
+	 */
 	public void logServUsage(final int borrowTime, final int evalTime) {
+		this.usageDurations.record(borrowTime);
+		if (evalTime >= 0) {
+			this.busyTime.addAndGet(evalTime);
+			this.busyUsageTime.addAndGet(borrowTime);
+		}
+	}
+	
+	/**
+	 * Adds the statistics of the expressions of a client reported by the node.
+	 * 
+	 * @param stats the statistics
+	 */
+	public void logExprStats(final RServiPoolManager.ExprStat[] stats) {
+		this.exprStats.add(stats);
+	}
+	
+	/**
+	 * Returns the statistics of the expressions with the highest total time.
+	 * 
+	 * @param max the max number of expressions, <code>-1</code> for all
+	 * @return the statistics, ordered by total time
+	 */
+	public RServiPoolManager.ExprStat[] getExprStats(final int max) {
+		return this.exprStats.getTop(max);
+	}
+	
+	public void resetExprStats() {
+		this.exprStats.reset();
 	}
 	
 	public void logServRequestFailed(final int reason) {
+		countReason(reason);
+	}
+	
+	/**
+	 * Logs the reset of a node after use.
+	 * 
+	 * @param nanos the duration of the reset
+	 */
+	public void logNodeReset(final long nanos) {
+		this.resetDurations.recordNanos(nanos);
+	}
+	
+	private void countReason(final int reason) {
+		if (reason > 0 && reason < NUM_REASONS) {
+			this.reasonCounts.incrementAndGet(reason);
+		}
+	}
+	
+	/**
+	 * Sets the histograms, busy ratio, failure and recycle counts in the counter.
+	 * 
+	 * @param counter the counter to complete
+	 */
+	public void getCounter(final RServiPoolManager.Counter counter) {
+		counter.borrowWaitTimes = this.borrowWaitTimes.getSnapshot();
+		counter.usageDurations = this.usageDurations.getSnapshot();
+		counter.startupDurations = this.startupDurations.getSnapshot();
+		counter.resetDurations = this.resetDurations.getSnapshot();
+		counter.shutdownDurations = this.shutdownDurations.getSnapshot();
+		final long busyUsageTime = this.busyUsageTime.get();
+		counter.busyRatio = (busyUsageTime > 0) ?
+				Math.min((double) this.busyTime.get() / busyUsageTime, 1.0) : -1;
+		final Map<String, Long> failureCounts = new LinkedHashMap<>();
+		final Map<String, Long> recycleCounts = new LinkedHashMap<>();
+		for (int reason = 1; reason < NUM_REASONS; reason++) {
+			((isRequestFailure(reason)) ? failureCounts : recycleCounts).put(
+					getShutdownReasonLabel(reason), this.reasonCounts.get(reason) );
+		}
+		counter.failureCounts = failureCounts;
+		counter.recycleCounts = recycleCounts;
 	}
 	
 }
@@ -0,0 +1,72 @@
+/*=============================================================================#
+ # Copyright (c) 2009-2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.rj.servi.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import de.walware.rj.servi.pool.RServiPoolManager;
+
+
+/**
+ * Histogram of durations with fixed buckets.
+ * 
+ * Recording is lock-free and doesn't allocate objects.
+ */
+final class StatsHistogram {
+	
+	
+	private final AtomicLongArray counts = new AtomicLongArray(RServiPoolManager.Histogram.numBuckets());
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong sum = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+	
+	
+	public StatsHistogram() {
+	}
+	
+	
+	public void record(final long millis) {
+		final long value = Math.max(millis, 0);
+		this.counts.incrementAndGet(RServiPoolManager.Histogram.bucketIndex(value));
+		this.count.incrementAndGet();
+		this.sum.addAndGet(value);
+		long current;
+		while (value > (current = this.max.get())) {
+			if (this.max.compareAndSet(current, value)) {
+				break;
+			}
+		}
+	}
+	
+	public void recordNanos(final long nanos) {
+		record(nanos / 1000000L);
+	}
+	
+	/**
+	 * Creates a snapshot of the histogram.
+	 * 
+	 * The values are not read atomically, so the snapshot can be slightly inconsistent
+	 * if durations are recorded concurrently.
+	 * 
+	 * @return the snapshot
+	 */
+	public RServiPoolManager.Histogram getSnapshot() {
+		final long[] counts = new long[this.counts.length()];
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = this.counts.get(i);
+		}
+		return new RServiPoolManager.Histogram(this.count.get(), this.sum.get(), this.max.get(),
+				counts );
+	}
+	
+}
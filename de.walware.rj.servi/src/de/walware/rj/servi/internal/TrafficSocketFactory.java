@@ -0,0 +1,108 @@
+/*=============================================================================#
+ # Copyright (c) 2009-2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.rj.servi.internal;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.rmi.server.RMIServerSocketFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Server socket factory for RMI counting the bytes received and sent by the
+ * accepted connections.
+ */
+class TrafficSocketFactory implements RMIServerSocketFactory {
+	
+	
+	private class CountingSocket extends Socket {
+		
+		
+		public CountingSocket() {
+		}
+		
+		
+		@Override
+		public InputStream getInputStream() throws IOException {
+			return new FilterInputStream(super.getInputStream()) {
+				@Override
+				public int read() throws IOException {
+					final int b = super.read();
+					if (b >= 0) {
+						TrafficSocketFactory.this.bytesIn.incrementAndGet();
+					}
+					return b;
+				}
+				@Override
+				public int read(final byte[] b, final int off, final int len) throws IOException {
+					final int n = super.read(b, off, len);
+					if (n > 0) {
+						TrafficSocketFactory.this.bytesIn.addAndGet(n);
+					}
+					return n;
+				}
+			};
+		}
+		
+		@Override
+		public OutputStream getOutputStream() throws IOException {
+			return new FilterOutputStream(super.getOutputStream()) {
+				@Override
+				public void write(final int b) throws IOException {
+					this.out.write(b);
+					TrafficSocketFactory.this.bytesOut.incrementAndGet();
+				}
+				@Override
+				public void write(final byte[] b, final int off, final int len) throws IOException {
+					this.out.write(b, off, len);
+					TrafficSocketFactory.this.bytesOut.addAndGet(len);
+				}
+			};
+		}
+		
+	}
+	
+	
+	private final AtomicLong bytesIn = new AtomicLong();
+	private final AtomicLong bytesOut = new AtomicLong();
+	
+	
+	public TrafficSocketFactory() {
+	}
+	
+	
+	@Override
+	public ServerSocket createServerSocket(final int port) throws IOException {
+		return new ServerSocket(port) {
+			@Override
+			public Socket accept() throws IOException {
+				final Socket socket = new CountingSocket();
+				implAccept(socket);
+				return socket;
+			}
+		};
+	}
+	
+	public long getBytesIn() {
+		return this.bytesIn.get();
+	}
+	
+	public long getBytesOut() {
+		return this.bytesOut.get();
+	}
+	
+}
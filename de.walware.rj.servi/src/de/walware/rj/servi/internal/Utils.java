@@ -11,6 +11,15 @@
 
 package de.walware.rj.servi.internal;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
@@ -221,6 +230,126 @@ public class Utils {
 		}
 	}
 	
+	/**
+	 * Returns the id of the operating system process.
+	 * 
+	 * @param process the process
+	 * @return the id or <code>-1</code> if not available
+	 */
+	public static long getProcessId(final Process process) {
+		try {
+			// Java 9+
+			final Method method = Process.class.getMethod("pid");
+			return ((Long) method.invoke(process)).longValue();
+		}
+		catch (final Exception e) {}
+		try {
+			// UNIXProcess
+			final Field field = process.getClass().getDeclaredField("pid");
+			field.setAccessible(true);
+			return field.getInt(process);
+		}
+		catch (final Exception e) {}
+		return -1;
+	}
+	
+	/**
+	 * Sends a signal to the operating system process (using <code>kill</code>).
+	 * 
+	 * @param pid the id of the process
+	 * @param signal the name of the signal, e.g. <code>STOP</code>
+	 * @return <code>true</code> if the signal was sent, <code>false</code> if signals are
+	 *     not supported
+	 * @throws IOException if sending the signal failed
+	 */
+	public static boolean signalProcess(final long pid, final String signal) throws IOException {
+		if (IS_WINDOWS || pid < 0) {
+			return false;
+		}
+		final Process kill = new ProcessBuilder("kill", "-" + signal, Long.toString(pid))
+				.redirectErrorStream(true).start();
+		try (final InputStream in = kill.getInputStream()) {
+			final byte[] buffer = new byte[1024];
+			while (in.read(buffer) >= 0) {
+			}
+		}
+		try {
+			final int exitValue = kill.waitFor();
+			if (exitValue != 0) {
+				throw new IOException("kill -" + signal + " failed (exit code = " + exitValue + ").");
+			}
+		}
+		catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("kill -" + signal + " was interrupted.");
+		}
+		return true;
+	}
+	
+	/**
+	 * Reads a value in kB from the status file of the process in the proc filesystem.
+	 * 
+	 * @param pid the id of the process
+	 * @param key the key of the value, e.g. <code>VmRSS</code>
+	 * @return the value in kB or <code>-1</code> if not available
+	 */
+	public static long readProcessStatus(final long pid, final String key) {
+		final File file = new File("/proc/" + pid + "/status");
+		if (pid < 0 || !file.exists()) {
+			return -1;
+		}
+		try (final BufferedReader reader = new BufferedReader(new InputStreamReader(
+				new FileInputStream(file), Charset.forName("US-ASCII") ))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith(key) && line.length() > key.length()
+						&& line.charAt(key.length()) == ':') {
+					String value = line.substring(key.length() + 1).trim();
+					final int idx = value.indexOf(' ');
+					if (idx > 0) {
+						value = value.substring(0, idx);
+					}
+					return Long.parseLong(value);
+				}
+			}
+		}
+		catch (final IOException | NumberFormatException e) {}
+		return -1;
+	}
+	
+	/**
+	 * Reads the major version of a Java installation from its release file.
+	 * 
+	 * @param javaHome the path of the Java installation
+	 * @return the major version (e.g. <code>8</code> for 1.8, <code>11</code> for 11.0.2)
+	 *     or <code>-1</code> if not available
+	 */
+	public static int getJavaVersion(final String javaHome) {
+		final File file = new File(javaHome, "release");
+		if (!file.exists()) {
+			return -1;
+		}
+		try (final FileInputStream in = new FileInputStream(file)) {
+			final Properties properties = new Properties();
+			properties.load(in);
+			String version = properties.getProperty("JAVA_VERSION");
+			if (version == null) {
+				return -1;
+			}
+			version = version.replace("\"", "").trim();
+			if (version.startsWith("1.")) {
+				version = version.substring(2);
+			}
+			int end = 0;
+			while (end < version.length() && Character.isDigit(version.charAt(end))) {
+				end++;
+			}
+			return Integer.parseInt(version.substring(0, end));
+		}
+		catch (final IOException | NumberFormatException e) {}
+		return -1;
+	}
+	
 	
 	private Utils() {
 	}
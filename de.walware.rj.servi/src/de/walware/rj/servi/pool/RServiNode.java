@@ -15,6 +15,7 @@ import java.rmi.Remote;
 import java.rmi.RemoteException;
 
 import de.walware.rj.RjException;
+import de.walware.rj.servi.internal.NodeUsage;
 import de.walware.rj.servi.internal.RServiBackend;
 
 
@@ -25,12 +26,43 @@ public interface RServiNode extends Remote {
 	
 	String getPoolHost() throws RemoteException;
 	RServiBackend bindClient(String client) throws RemoteException;
-	void unbindClient() throws RemoteException;
+	/**
+	 * Unbinds the current client and resets the workspace.
+	 * 
+	 * @return the usage of the node by the client or <code>null</code> if no client was bound
+	 * @throws RemoteException if an RMI/communication error occurred
+	 */
+	NodeUsage unbindClient() throws RemoteException;
+	/**
+	 * Unbinds the current client without resetting the workspace.
+	 * The reset is done by the next call of {@link #unbindClient()}.
+	 * 
+	 * @return the usage of the node by the client or <code>null</code> if no client was bound
+	 * @throws RemoteException if an RMI/communication error occurred
+	 * @since 2.1
+	 */
+	NodeUsage detachClient() throws RemoteException;
 	
 	void shutdown() throws RemoteException;
 	
+	/**
+	 * Returns the time the node was busy running calls of clients since its start.
+	 * 
+	 * @return the time in milliseconds
+	 * @throws RemoteException if an RMI/communication error occurred
+	 */
 	int getEvalTime() throws RemoteException;
 	
+	/**
+	 * Returns the size of the R heap, measured by the garbage collection at
+	 * the last reset of the workspace.
+	 * 
+	 * @return the size in MB or <code>-1</code> if not yet measured
+	 * @throws RemoteException if an RMI/communication error occurred
+	 * @since 2.1
+	 */
+	long getRHeapSize() throws RemoteException;
+	
 	boolean setConsole(String authConfig) throws RjException, RemoteException;
 	
 	/**
@@ -42,4 +74,43 @@ public interface RServiNode extends Remote {
 	 */
 	void runSnippet(String code) throws RjException, RemoteException;
 	
+	/**
+	 * Runs the given lines of code in R, line by line, in a single call.
+	 * Empty lines are skipped.
+	 * 
+	 * @param lines the lines of R code
+	 * @throws RjException if an R error occurred when running a line; the message
+	 *     specifies the number and the code of the line
+	 * @throws RemoteException if an RMI/communication error occurred
+	 * @since 2.1
+	 */
+	void runSnippet(String[] lines) throws RjException, RemoteException;
+	
+	/**
+	 * Runs the given lines of code in R, line by line, in the environment for preloaded
+	 * objects.
+	 * <p>
+	 * The environment is attached to the search path and locked afterwards; its objects
+	 * are not removed when the workspace is reset. Empty lines are skipped.</p>
+	 * 
+	 * @param lines the lines of R code
+	 * @return the size of the preloaded objects in kB
+	 * @throws RjException if an R error occurred when running a line; the message
+	 *     specifies the number and the code of the line
+	 * @throws RemoteException if an RMI/communication error occurred
+	 * @since 2.1
+	 */
+	long preload(String[] lines) throws RjException, RemoteException;
+	
+	/**
+	 * Sets the policy for the reset of the workspace after use
+	 * 
+	 * @param gcInterval the interval of full garbage collections (number of uses, 0 = never)
+	 * @param gcThreshold the workspace size in MB triggering a full garbage collection, or -1
+	 * @param code the R code to run before clearing the workspace
+	 * @throws RemoteException if an RMI/communication error occurred
+	 * @since 2.1
+	 */
+	void setResetPolicy(int gcInterval, long gcThreshold, String code) throws RemoteException;
+	
 }
@@ -38,6 +38,16 @@ public class RServiNodeConfig implements PropertiesBean {
 	public static final String JAVA_ARGS_ID = "java_cmd.args";
 	private static final String JAVA_ARGS_OLD_ID = "java_args.path";
 	
+	/**
+	 * Property id for the class data sharing archive of the Java VM of nodes
+	 * 
+	 * @see #setEnableJavaCds(boolean)
+	 * @since 2.1
+	 */
+	public static final String JAVA_CDS_ENABLED_ID = "java_cds.enabled";
+	
+	private static final boolean JAVA_CDS_ENABLED_DEFAULT = true;
+	
 	public static final String NODE_ENVIRONMENT_VARIABLES_PREFIX = "node_environment.variables.";
 	public static final String NODE_ARGS_ID = "node_cmd.args";
 	
@@ -51,6 +61,91 @@ public class RServiNodeConfig implements PropertiesBean {
 	 */
 	public static final String R_STARTUP_SNIPPET_ID = "r_startup.snippet";
 	
+	/**
+	 * Property id for R snippet to preload objects surviving the reset of the workspace
+	 * 
+	 * @see #setRPreloadSnippet(String)
+	 * @since 2.1
+	 */
+	public static final String R_PRELOAD_SNIPPET_ID = "r_preload.snippet";
+	
+	/**
+	 * Property id for R snippet to run when resetting the workspace after use
+	 * 
+	 * @see #setRResetSnippet(String)
+	 * @since 2.1
+	 */
+	public static final String R_RESET_SNIPPET_ID = "r_reset.snippet";
+	
+	/**
+	 * Property id for the interval of full garbage collections when resetting the workspace
+	 * 
+	 * @see #setRResetGcInterval(int)
+	 * @since 2.1
+	 */
+	public static final String R_RESET_GC_INTERVAL_ID = "r_reset_gc_interval.count";
+	
+	private static final int R_RESET_GC_INTERVAL_DEFAULT = 1;
+	
+	/**
+	 * Property id for the workspace size triggering a full garbage collection when resetting
+	 * the workspace
+	 * 
+	 * @see #setRResetGcThreshold(long)
+	 * @since 2.1
+	 */
+	public static final String R_RESET_GC_THRESHOLD_ID = "r_reset_gc_threshold.mb";
+	
+	private static final long R_RESET_GC_THRESHOLD_DEFAULT = -1;
+	
+	/**
+	 * Property id for the number of nodes prestarted in reserve
+	 * 
+	 * @see #setPrestartCount(int)
+	 * @since 2.1
+	 */
+	public static final String PRESTART_COUNT_ID = "node_prestart.count";
+	
+	private static final int PRESTART_COUNT_DEFAULT = 0;
+	
+	/**
+	 * Property id for the path of the parent cgroup of the nodes
+	 * 
+	 * @see #setCgroupPath(String)
+	 * @since 2.1
+	 */
+	public static final String CGROUP_PATH_ID = "cgroup.path";
+	
+	/**
+	 * Property id for the CPU weight of the cgroup of a node
+	 * 
+	 * @see #setCgroupCpuWeight(int)
+	 * @since 2.1
+	 */
+	public static final String CGROUP_CPU_WEIGHT_ID = "cgroup_cpu.weight";
+	
+	private static final int CGROUP_CPU_WEIGHT_DEFAULT = -1;
+	
+	/**
+	 * Property id for the CPU quota of the cgroup of a node
+	 * 
+	 * @see #setCgroupCpuMax(int)
+	 * @since 2.1
+	 */
+	public static final String CGROUP_CPU_MAX_ID = "cgroup_cpu_max.percent";
+	
+	private static final int CGROUP_CPU_MAX_DEFAULT = -1;
+	
+	/**
+	 * Property id for the memory limit of the cgroup of a node
+	 * 
+	 * @see #setCgroupMemoryMax(long)
+	 * @since 2.1
+	 */
+	public static final String CGROUP_MEMORY_MAX_ID = "cgroup_memory_max.mb";
+	
+	private static final long CGROUP_MEMORY_MAX_DEFAULT = -1;
+	
 	public static final String CONSOLE_ENABLED_ID = "debug_console.enabled";
 	
 	public static final String VERBOSE_ENABLED_ID = "debug_verbose.enabled";
@@ -71,6 +166,7 @@ public class RServiNodeConfig implements PropertiesBean {
 	
 	private String javaHome;
 	private String javaArgs;
+	private boolean enableJavaCds;
 	
 	private final Map<String, String> environmentVariables = new HashMap<>();
 	private String nodeArgs;
@@ -78,6 +174,18 @@ public class RServiNodeConfig implements PropertiesBean {
 	private String baseWd;
 	
 	private String rStartupSnippet;
+	private String rPreloadSnippet;
+	
+	private String rResetSnippet;
+	private int rResetGcInterval;
+	private long rResetGcThreshold;
+	
+	private int prestartCount;
+	
+	private String cgroupPath;
+	private int cgroupCpuWeight;
+	private int cgroupCpuMax;
+	private long cgroupMemoryMax;
 	
 	private boolean enableConsole;
 	private boolean enableVerbose;
@@ -89,8 +197,17 @@ public class RServiNodeConfig implements PropertiesBean {
 		this.rHome = System.getenv("R_HOME");
 		this.rArch = System.getenv("R_ARCH");
 		this.javaArgs = "-server";
+		this.enableJavaCds = JAVA_CDS_ENABLED_DEFAULT;
 		this.nodeArgs = "";
 		this.rStartupSnippet = "";
+		this.rPreloadSnippet = "";
+		this.rResetSnippet = "";
+		this.rResetGcInterval = R_RESET_GC_INTERVAL_DEFAULT;
+		this.rResetGcThreshold = R_RESET_GC_THRESHOLD_DEFAULT;
+		this.prestartCount = PRESTART_COUNT_DEFAULT;
+		this.cgroupCpuWeight = CGROUP_CPU_WEIGHT_DEFAULT;
+		this.cgroupCpuMax = CGROUP_CPU_MAX_DEFAULT;
+		this.cgroupMemoryMax = CGROUP_MEMORY_MAX_DEFAULT;
 		this.startStopTimeout = STARTSTOP_TIMEOUT_DEFAULT;
 	}
 	
@@ -112,11 +229,21 @@ public class RServiNodeConfig implements PropertiesBean {
 		this.rArch = templ.rArch;
 		this.javaHome = templ.javaHome;
 		this.javaArgs = templ.javaArgs;
+		this.enableJavaCds = templ.enableJavaCds;
 		this.environmentVariables.clear();
 		this.environmentVariables.putAll(templ.environmentVariables);
 		this.nodeArgs = templ.nodeArgs;
 		this.baseWd = templ.baseWd;
 		this.rStartupSnippet = templ.rStartupSnippet;
+		this.rPreloadSnippet = templ.rPreloadSnippet;
+		this.rResetSnippet = templ.rResetSnippet;
+		this.rResetGcInterval = templ.rResetGcInterval;
+		this.rResetGcThreshold = templ.rResetGcThreshold;
+		this.prestartCount = templ.prestartCount;
+		this.cgroupPath = templ.cgroupPath;
+		this.cgroupCpuWeight = templ.cgroupCpuWeight;
+		this.cgroupCpuMax = templ.cgroupCpuMax;
+		this.cgroupMemoryMax = templ.cgroupMemoryMax;
 		this.enableConsole = templ.enableConsole;
 		this.enableVerbose = templ.enableVerbose;
 		this.startStopTimeout = templ.startStopTimeout;
@@ -131,6 +258,9 @@ public class RServiNodeConfig implements PropertiesBean {
 		if (this.javaArgs.length() == 0) {
 			setJavaArgs(map.getProperty(JAVA_ARGS_OLD_ID));
 		}
+		{	final String s = map.getProperty(JAVA_CDS_ENABLED_ID);
+			this.enableJavaCds = ((s != null) ? Boolean.parseBoolean(s) : JAVA_CDS_ENABLED_DEFAULT);
+		}
 		this.environmentVariables.clear();
 		final int prefixLength = NODE_ENVIRONMENT_VARIABLES_PREFIX.length();
 		for (final Entry<Object, Object> p : map.entrySet()) {
@@ -144,6 +274,27 @@ public class RServiNodeConfig implements PropertiesBean {
 		setNodeArgs(map.getProperty(NODE_ARGS_ID));
 		setBaseWorkingDirectory(map.getProperty(BASE_WD_ID));
 		setRStartupSnippet(map.getProperty(R_STARTUP_SNIPPET_ID));
+		setRPreloadSnippet(map.getProperty(R_PRELOAD_SNIPPET_ID));
+		setRResetSnippet(map.getProperty(R_RESET_SNIPPET_ID));
+		{	final String s = map.getProperty(R_RESET_GC_INTERVAL_ID);
+			this.rResetGcInterval = ((s != null) ? Integer.parseInt(s) : R_RESET_GC_INTERVAL_DEFAULT);
+		}
+		{	final String s = map.getProperty(R_RESET_GC_THRESHOLD_ID);
+			this.rResetGcThreshold = ((s != null) ? Long.parseLong(s) : R_RESET_GC_THRESHOLD_DEFAULT);
+		}
+		{	final String s = map.getProperty(PRESTART_COUNT_ID);
+			this.prestartCount = ((s != null) ? Integer.parseInt(s) : PRESTART_COUNT_DEFAULT);
+		}
+		setCgroupPath(map.getProperty(CGROUP_PATH_ID));
+		{	final String s = map.getProperty(CGROUP_CPU_WEIGHT_ID);
+			this.cgroupCpuWeight = ((s != null) ? Integer.parseInt(s) : CGROUP_CPU_WEIGHT_DEFAULT);
+		}
+		{	final String s = map.getProperty(CGROUP_CPU_MAX_ID);
+			this.cgroupCpuMax = ((s != null) ? Integer.parseInt(s) : CGROUP_CPU_MAX_DEFAULT);
+		}
+		{	final String s = map.getProperty(CGROUP_MEMORY_MAX_ID);
+			this.cgroupMemoryMax = ((s != null) ? Long.parseLong(s) : CGROUP_MEMORY_MAX_DEFAULT);
+		}
 		setEnableConsole(Boolean.parseBoolean(map.getProperty(CONSOLE_ENABLED_ID)));
 		setEnableVerbose(Boolean.parseBoolean(map.getProperty(VERBOSE_ENABLED_ID)));
 		{	final String s = map.getProperty(STARTSTOP_TIMEOUT__ID);
@@ -157,12 +308,22 @@ public class RServiNodeConfig implements PropertiesBean {
 		Utils.setProperty(map, R_ARCH_ID, this.rArch);
 		Utils.setProperty(map, JAVA_HOME_ID, this.javaHome);
 		Utils.setProperty(map, JAVA_ARGS_ID, this.javaArgs);
+		Utils.setProperty(map, JAVA_CDS_ENABLED_ID, Boolean.toString(this.enableJavaCds));
 		for (final Entry<String, String> variable : this.environmentVariables.entrySet()) {
 			map.setProperty(NODE_ENVIRONMENT_VARIABLES_PREFIX + variable.getKey(), variable.getValue());
 		}
 		Utils.setProperty(map, NODE_ARGS_ID, this.nodeArgs);
 		Utils.setProperty(map, BASE_WD_ID, this.baseWd);
 		Utils.setProperty(map, R_STARTUP_SNIPPET_ID, this.rStartupSnippet);
+		Utils.setProperty(map, R_PRELOAD_SNIPPET_ID, this.rPreloadSnippet);
+		Utils.setProperty(map, R_RESET_SNIPPET_ID, this.rResetSnippet);
+		Utils.setProperty(map, R_RESET_GC_INTERVAL_ID, Integer.toString(this.rResetGcInterval));
+		Utils.setProperty(map, R_RESET_GC_THRESHOLD_ID, Long.toString(this.rResetGcThreshold));
+		Utils.setProperty(map, PRESTART_COUNT_ID, Integer.toString(this.prestartCount));
+		Utils.setProperty(map, CGROUP_PATH_ID, this.cgroupPath);
+		Utils.setProperty(map, CGROUP_CPU_WEIGHT_ID, Integer.toString(this.cgroupCpuWeight));
+		Utils.setProperty(map, CGROUP_CPU_MAX_ID, Integer.toString(this.cgroupCpuMax));
+		Utils.setProperty(map, CGROUP_MEMORY_MAX_ID, Long.toString(this.cgroupMemoryMax));
 		Utils.setProperty(map, CONSOLE_ENABLED_ID, Boolean.toString(this.enableConsole));
 		Utils.setProperty(map, VERBOSE_ENABLED_ID, Boolean.toString(this.enableVerbose));
 		Utils.setProperty(map, STARTSTOP_TIMEOUT__ID, Long.toString(this.startStopTimeout));
@@ -200,6 +361,36 @@ public class RServiNodeConfig implements PropertiesBean {
 		this.javaArgs = (args != null) ? args : "";
 	}
 	
+	/**
+	 * Returns if a class data sharing archive is used for the Java VM of nodes.
+	 * 
+	 * @return <code>true</code> if enabled, otherwise <code>false</code>
+	 * 
+	 * @see #setEnableJavaCds(boolean)
+	 * @since 2.1
+	 */
+	public synchronized boolean getEnableJavaCds() {
+		return this.enableJavaCds;
+	}
+	
+	/**
+	 * Sets if a class data sharing archive is used for the Java VM of nodes.
+	 * <p>
+	 * If enabled and supported by the Java VM (version 13 or later), an additional node is
+	 * started together with the first node and stopped directly after its start; the
+	 * classes it loaded are dumped into an archive when it exits. The nodes started
+	 * afterwards map the archive instead of loading the classes again. The archive is created
+	 * again if the libraries or the Java configuration change. It is not used if the
+	 * Java arguments specify class data sharing options. The default is <code>true</code>.</p>
+	 * 
+	 * @param enable <code>true</code> to enable, otherwise <code>false</code>
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized void setEnableJavaCds(final boolean enable) {
+		this.enableJavaCds = enable;
+	}
+	
 	/**
 	 * Additional environment variables for the R process.
 	 * 
@@ -262,6 +453,261 @@ public class RServiNodeConfig implements PropertiesBean {
 		this.rStartupSnippet = (code != null) ? code : "";
 	}
 	
+	/**
+	 * Returns the R code snippet to preload objects at startup of a node.
+	 * 
+	 * @return the code
+	 * 
+	 * @see #setRPreloadSnippet(String)
+	 * @since 2.1
+	 */
+	public synchronized String getRPreloadSnippet() {
+		return this.rPreloadSnippet;
+	}
+	
+	/**
+	 * Sets the R code snippet to preload objects at startup of a node.
+	 * <p>
+	 * The snippet runs after the startup snippet in a separate environment, which is
+	 * attached to the search path (as <code>rservi:preload</code>) and locked afterwards.
+	 * Typical use case is to load large reference datasets once per node; other than
+	 * objects in the global environment, the objects are kept when the workspace is reset
+	 * after use. The default is an empty snippet. If the execution of the code throws
+	 * an error, the startup of the node is canceled.</p>
+	 * 
+	 * @param code the R code to run
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized void setRPreloadSnippet(final String code) {
+		this.rPreloadSnippet = (code != null) ? code : "";
+	}
+	
+	/**
+	 * Returns the R code snippet to run when resetting the workspace of a node.
+	 * 
+	 * @return the code
+	 * 
+	 * @see #setRResetSnippet(String)
+	 * @since 2.1
+	 */
+	public synchronized String getRResetSnippet() {
+		return this.rResetSnippet;
+	}
+	
+	/**
+	 * Sets the R code snippet to run when resetting the workspace of a node after
+	 * it was used by a client.
+	 * <p>
+	 * The snippet runs before the global environment is cleared; typical use case is
+	 * to restore options or to detach packages loaded by the client. The default is
+	 * an empty snippet. If the execution of the code throws an error, the node is
+	 * not reused.</p>
+	 * 
+	 * @param code the R code to run
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized void setRResetSnippet(final String code) {
+		this.rResetSnippet = (code != null) ? code : "";
+	}
+	
+	/**
+	 * Returns the interval of full garbage collections when resetting the workspace.
+	 * 
+	 * @return the number of uses
+	 * 
+	 * @see #setRResetGcInterval(int)
+	 * @since 2.1
+	 */
+	public synchronized int getRResetGcInterval() {
+		return this.rResetGcInterval;
+	}
+	
+	/**
+	 * Sets the interval of full garbage collections when resetting the workspace.
+	 * <p>
+	 * The workspace of a node is always cleared after use, a full garbage collection
+	 * (<code>gc()</code>) runs only each given number of uses. The default is
+	 * <code>1</code> (after each use); <code>0</code> disables the periodic collection,
+	 * see also {@link #setRResetGcThreshold(long)}.</p>
+	 * 
+	 * @param count the number of uses
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized void setRResetGcInterval(final int count) {
+		this.rResetGcInterval = count;
+	}
+	
+	/**
+	 * Returns the workspace size triggering a full garbage collection when resetting
+	 * the workspace.
+	 * 
+	 * @return the size in MB or <code>-1</code> (disabled)
+	 * 
+	 * @see #setRResetGcThreshold(long)
+	 * @since 2.1
+	 */
+	public synchronized long getRResetGcThreshold() {
+		return this.rResetGcThreshold;
+	}
+	
+	/**
+	 * Sets the workspace size triggering a full garbage collection when resetting
+	 * the workspace.
+	 * <p>
+	 * If the objects in the global environment left by the client are larger than the
+	 * given size, a full garbage collection runs in addition to the periodic collection
+	 * (see {@link #setRResetGcInterval(int)}). The default is <code>-1</code> (disabled).</p>
+	 * 
+	 * @param mb the size in MB or <code>-1</code>
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized void setRResetGcThreshold(final long mb) {
+		this.rResetGcThreshold = mb;
+	}
+	
+	/**
+	 * Returns the number of nodes prestarted in reserve.
+	 * 
+	 * @return the number of nodes
+	 * 
+	 * @see #setPrestartCount(int)
+	 * @since 2.1
+	 */
+	public synchronized int getPrestartCount() {
+		return this.prestartCount;
+	}
+	
+	/**
+	 * Sets the number of nodes prestarted in reserve.
+	 * <p>
+	 * The node factory keeps up to the given number of completely initialized nodes
+	 * (R engine started, startup snippet executed) in reserve.  A request for a new
+	 * node is served by one of these nodes without waiting for the start of a process;
+	 * the reserve is refilled in the background.  The prestarted nodes count against
+	 * the max total number of nodes of the pool: the reserve is only filled up to the
+	 * free capacity of the pool.  The default is <code>0</code> (disabled).</p>
+	 * 
+	 * @param count the number of nodes
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized void setPrestartCount(final int count) {
+		this.prestartCount = count;
+	}
+	
+	/**
+	 * Returns the path of the parent cgroup of the nodes.
+	 * 
+	 * @return the path or <code>null</code> if disabled
+	 * 
+	 * @see #setCgroupPath(String)
+	 * @since 2.1
+	 */
+	public synchronized String getCgroupPath() {
+		return this.cgroupPath;
+	}
+	
+	/**
+	 * Sets the path of the parent cgroup of the nodes.
+	 * <p>
+	 * If set, the process of each node is placed in its own control group (Linux cgroup v2),
+	 * created as child of the specified group, which limits and accounts the CPU and memory
+	 * usage of the node.  The group must be delegated to the user running the pool (writable,
+	 * controllers <code>cpu</code> and <code>memory</code> available) and must not contain
+	 * processes itself, e.g. <code>/sys/fs/cgroup/rservi</code>.  The default is
+	 * <code>null</code> (disabled).</p>
+	 * 
+	 * @param path the path of the cgroup directory or <code>null</code>
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized void setCgroupPath(final String path) {
+		this.cgroupPath = (path != null && path.trim().length() > 0) ? path : null;
+	}
+	
+	/**
+	 * Returns the CPU weight of the cgroup of a node.
+	 * 
+	 * @return the weight or <code>-1</code> for the default
+	 * 
+	 * @see #setCgroupCpuWeight(int)
+	 * @since 2.1
+	 */
+	public synchronized int getCgroupCpuWeight() {
+		return this.cgroupCpuWeight;
+	}
+	
+	/**
+	 * Sets the CPU weight (<code>cpu.weight</code>, 1-10000) of the cgroup of a node.
+	 * <p>
+	 * The weight specifies the share of the CPU time if the CPUs are fully used.  The default
+	 * is <code>-1</code> (the default weight of the system, usually 100).</p>
+	 * 
+	 * @param weight the weight or <code>-1</code>
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized void setCgroupCpuWeight(final int weight) {
+		this.cgroupCpuWeight = weight;
+	}
+	
+	/**
+	 * Returns the CPU quota of the cgroup of a node.
+	 * 
+	 * @return the quota in percent of one CPU or <code>-1</code> if unlimited
+	 * 
+	 * @see #setCgroupCpuMax(int)
+	 * @since 2.1
+	 */
+	public synchronized int getCgroupCpuMax() {
+		return this.cgroupCpuMax;
+	}
+	
+	/**
+	 * Sets the CPU quota (<code>cpu.max</code>) of the cgroup of a node.
+	 * <p>
+	 * The quota is specified in percent of one CPU, e.g. 200 allows a node to use
+	 * two CPUs completely.  The default is <code>-1</code> (unlimited).</p>
+	 * 
+	 * @param percent the quota or <code>-1</code>
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized void setCgroupCpuMax(final int percent) {
+		this.cgroupCpuMax = percent;
+	}
+	
+	/**
+	 * Returns the memory limit of the cgroup of a node.
+	 * 
+	 * @return the limit in MB or <code>-1</code> if unlimited
+	 * 
+	 * @see #setCgroupMemoryMax(long)
+	 * @since 2.1
+	 */
+	public synchronized long getCgroupMemoryMax() {
+		return this.cgroupMemoryMax;
+	}
+	
+	/**
+	 * Sets the memory limit (<code>memory.max</code>) of the cgroup of a node.
+	 * <p>
+	 * If the node process exceeds the limit, it is killed by the system.  The limit
+	 * must include the Java VM and R heap of the node.  The default is <code>-1</code>
+	 * (unlimited).</p>
+	 * 
+	 * @param mb the limit in MB or <code>-1</code>
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized void setCgroupMemoryMax(final long mb) {
+		this.cgroupMemoryMax = mb;
+	}
+	
 	public synchronized boolean getEnableConsole() {
 		return this.enableConsole;
 	}
@@ -324,6 +770,51 @@ public class RServiNodeConfig implements PropertiesBean {
 			valid = false;
 		}
 		
+		if (this.rResetGcInterval < 0) {
+			if (messages != null) {
+				messages.add(new ValidationMessage(R_RESET_GC_INTERVAL_ID, "Value must be >= 0."));
+			}
+			valid = false;
+		}
+		if (this.rResetGcThreshold != -1 && this.rResetGcThreshold < 0) {
+			if (messages != null) {
+				messages.add(new ValidationMessage(R_RESET_GC_THRESHOLD_ID, "Value must be >= 0 or -1 (disabled)."));
+			}
+			valid = false;
+		}
+		if (this.prestartCount < 0) {
+			if (messages != null) {
+				messages.add(new ValidationMessage(PRESTART_COUNT_ID, "Value must be >= 0."));
+			}
+			valid = false;
+		}
+		
+		if (this.cgroupPath != null
+				&& !new File(this.cgroupPath, "cgroup.controllers").exists() ) {
+			if (messages != null) {
+				messages.add(new ValidationMessage(CGROUP_PATH_ID, "The directory is not a cgroup (v2)."));
+			}
+			valid = false;
+		}
+		if (this.cgroupCpuWeight != -1 && (this.cgroupCpuWeight < 1 || this.cgroupCpuWeight > 10000)) {
+			if (messages != null) {
+				messages.add(new ValidationMessage(CGROUP_CPU_WEIGHT_ID, "Value must be in [1, 10000] or -1 (default)."));
+			}
+			valid = false;
+		}
+		if (this.cgroupCpuMax != -1 && this.cgroupCpuMax <= 0) {
+			if (messages != null) {
+				messages.add(new ValidationMessage(CGROUP_CPU_MAX_ID, "Value must be > 0 or -1 (unlimited)."));
+			}
+			valid = false;
+		}
+		if (this.cgroupMemoryMax != -1 && this.cgroupMemoryMax <= 0) {
+			if (messages != null) {
+				messages.add(new ValidationMessage(CGROUP_MEMORY_MAX_ID, "Value must be > 0 or -1 (unlimited)."));
+			}
+			valid = false;
+		}
+		
 		if (this.startStopTimeout != -1 && this.startStopTimeout < 0) {
 			if (messages != null) {
 				messages.add(new ValidationMessage(STARTSTOP_TIMEOUT__ID, "Value must be > 0 or -1 (infinite)."));
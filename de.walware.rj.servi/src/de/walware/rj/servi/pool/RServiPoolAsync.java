@@ -0,0 +1,81 @@
+/*=============================================================================#
+ # Copyright (c) 2009-2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.rj.servi.pool;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+
+import javax.security.auth.login.LoginException;
+
+import de.walware.rj.RjException;
+import de.walware.rj.server.ServerLogin;
+import de.walware.rj.servi.RServi;
+
+
+/**
+ * Interface to a pool providing RServi instances without blocking the caller
+ * while the pool is exhausted.
+ * 
+ * @since 2.1
+ */
+public interface RServiPoolAsync extends RServiPool {
+	
+	
+	/**
+	 * Callback for {@link RServiPoolAsync#requestRServi(String, ServerLogin, Callback)}.
+	 * The callback is called by the pool via RMI, so the implementation must be
+	 * exported.
+	 */
+	interface Callback extends Remote {
+		
+		/**
+		 * Called when the requested R services node is available.
+		 * 
+		 * <p>If the consumer cannot take over the RServi instance anymore, it must
+		 * {@link RServi#close() close} it. If the call does not return within the
+		 * delivery timeout of the pool (30 seconds), the pool takes back the instance.</p>
+		 * 
+		 * @param rservi the R services node
+		 */
+		void completed(RServi rservi) throws RemoteException;
+		
+		/**
+		 * Called when the request failed.
+		 * 
+		 * @param e the exception, a {@link java.util.NoSuchElementException}
+		 *     if there was no free RServi instance available within the max wait time
+		 */
+		void failed(Exception e) throws RemoteException;
+		
+	}
+	
+	
+	/**
+	 * Requests a {@link RServi} instance from this pool asynchronously.
+	 * 
+	 * <p>The method returns immediately; the request is queued and the callback
+	 * is notified as soon as a node is available or the request failed. No
+	 * thread of the pool is blocked while the request is waiting.</p>
+	 * 
+	 * @param name a name which can be used to identify the client
+	 * @param login not yet used
+	 * @param callback the callback to notify
+	 * 
+	 * @throws RjException when an server error occurs (retry not promising)
+	 * @throws LoginException when the login failed
+	 * @throws RemoteException when communication or runtime error occurs
+	 * 
+	 * @see RServiPool#getRServi(String, ServerLogin)
+	 */
+	void requestRServi(String name, ServerLogin login, Callback callback) throws RjException, LoginException, RemoteException;
+	
+}
@@ -25,6 +25,7 @@ public interface ObjectPoolItem {
 		INITIALIZING,
 		IDLING,
 		LENT,
+		RESETTING,
 		EVICTING,
 		EVICTED;
 	}
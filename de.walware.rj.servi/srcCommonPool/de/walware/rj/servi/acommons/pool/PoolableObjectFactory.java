@@ -116,6 +116,19 @@ public interface PoolableObjectFactory {
    */
   boolean validateObject(ObjectPoolItem item);
 
+  /**
+   * Returns whether an instance, which failed the validation, can still be
+   * lent until its successor is created.
+   * Returns <code>false</code> if a hard limit is exceeded and the instance
+   * should be destroyed at once.
+   *
+   * @param item the instance, which failed the validation
+   * @return <code>true</code> if the instance can be replaced gradually,
+   *         <code>false</code> otherwise.
+   * @see #validateObject
+   */
+  boolean isReplaceable(ObjectPoolItem item);
+
   /**
    * Reinitialize an instance to be returned by the pool.
    * 
@@ -140,4 +153,42 @@ public interface PoolableObjectFactory {
    */
   void passivateObject(ObjectPoolItem item) throws Exception;
   
+  /**
+   * Uninitialize an instance to be returned to the idle object pool, but
+   * keep its state for the next borrower with the same affinity.
+   * 
+   * The pool calls {@link #passivateObject passivateObject} before the
+   * instance is activated for another borrower.
+   *
+   * @param item the instance to be detached
+   * @throws Exception if there is a problem detaching <code>obj</code>,
+   *    this exception may be swallowed by the pool.
+   * @see #passivateObject
+   */
+  void detachObject(ObjectPoolItem item) throws Exception;
+  
+  /**
+   * Suspends an idle instance which is not needed soon, to reduce the resources it
+   * uses while idle.
+   * 
+   * The pool calls {@link #resumeObject resumeObject} before the instance is used
+   * again (activated, validated or destroyed).
+   *
+   * @param item the instance to be suspended
+   * @throws Exception if the instance cannot be suspended, the pool keeps
+   *    the instance awake.
+   * @see #resumeObject
+   */
+  void suspendObject(ObjectPoolItem item) throws Exception;
+  
+  /**
+   * Resumes an instance suspended by {@link #suspendObject suspendObject}.
+   *
+   * @param item the instance to be resumed
+   * @throws Exception if there is a problem resuming <code>obj</code>,
+   *    the pool destroys the instance.
+   * @see #suspendObject
+   */
+  void resumeObject(ObjectPoolItem item) throws Exception;
+  
 }
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.walware.rj.servi.acommons.pool.impl;
+
+
+/**
+ * <p>
+ * Tracks the borrow arrival rate, the lease duration and the creation
+ * duration of the objects of a pool as exponentially weighted moving averages
+ * and derives the effective minimum number of idle objects from it.
+ * </p>
+ * <p>
+ * The idle objects must cover the borrowers arriving until a new object is
+ * created; if objects are returned faster than created, the lease duration
+ * is the relevant period:
+ * <code>target = rate * min(creationDuration, leaseDuration)</code>.
+ * The target is limited to the configured bounds and decreases by at most
+ * one object per update to avoid oscillation.
+ * </p>
+ * <p>
+ * This class has package scope to prevent its inclusion in the pool public API.
+ * </p>
+ */
+class AdaptiveSizer {
+	
+	
+	/** Time constant (in milliseconds) of the borrow rate average. */
+	private static final double RATE_TIME_CONSTANT = 60000.0;
+	
+	/** Weight of a new sample of the duration averages. */
+	private static final double DURATION_ALPHA = 0.2;
+	
+	
+	private long lastUpdateStamp;
+	private int borrowCount;
+	
+	/** borrows per millisecond */
+	private double borrowRate;
+	
+	private double leaseDuration = Double.NaN;
+	private double createDuration = Double.NaN;
+	
+	private int effectiveMinIdle;
+	
+	
+	public AdaptiveSizer() {
+		this.lastUpdateStamp = System.currentTimeMillis();
+	}
+	
+	
+	public synchronized void borrowed() {
+		this.borrowCount++;
+	}
+	
+	public synchronized void leased(final long millis) {
+		this.leaseDuration = (Double.isNaN(this.leaseDuration)) ? millis :
+				this.leaseDuration + DURATION_ALPHA * (millis - this.leaseDuration);
+	}
+	
+	public synchronized void created(final long millis) {
+		this.createDuration = (Double.isNaN(this.createDuration)) ? millis :
+				this.createDuration + DURATION_ALPHA * (millis - this.createDuration);
+	}
+	
+	/**
+	 * Updates the borrow rate and computes the effective minimum number of idle objects.
+	 * 
+	 * @param minIdle the lower bound
+	 * @param maxMinIdle the upper bound, if not greater than <code>minIdle</code>
+	 *     the effective value is always <code>minIdle</code>
+	 * @return the effective minimum number of idle objects
+	 */
+	public synchronized int update(final int minIdle, final int maxMinIdle) {
+		final long stamp = System.currentTimeMillis();
+		final long dt = stamp - this.lastUpdateStamp;
+		if (dt > 0) {
+			final double weight = 1.0 - Math.exp(-dt / RATE_TIME_CONSTANT);
+			this.borrowRate += weight * ((double) this.borrowCount / dt - this.borrowRate);
+			this.borrowCount = 0;
+			this.lastUpdateStamp = stamp;
+		}
+		
+		if (maxMinIdle <= minIdle) {
+			this.effectiveMinIdle = minIdle;
+			return minIdle;
+		}
+		double period = (Double.isNaN(this.createDuration)) ? 0 : this.createDuration;
+		if (!Double.isNaN(this.leaseDuration)) {
+			period = Math.min(period, this.leaseDuration);
+		}
+		int target = (int) Math.ceil(this.borrowRate * period);
+		target = Math.max(minIdle, Math.min(maxMinIdle, target));
+		if (target < this.effectiveMinIdle) {
+			target = Math.min(maxMinIdle, Math.max(target, this.effectiveMinIdle - 1));
+		}
+		this.effectiveMinIdle = target;
+		return target;
+	}
+	
+	public synchronized int getEffectiveMinIdle() {
+		return this.effectiveMinIdle;
+	}
+	
+	/**
+	 * @return the average borrow rate in borrows per minute
+	 */
+	public synchronized double getBorrowRate() {
+		return this.borrowRate * 60000.0;
+	}
+	
+	/**
+	 * @return the average lease duration in milliseconds
+	 */
+	public synchronized long getLeaseDuration() {
+		return (Double.isNaN(this.leaseDuration)) ? 0 : (long) this.leaseDuration;
+	}
+	
+	/**
+	 * @return the average creation duration in milliseconds
+	 */
+	public synchronized long getCreateDuration() {
+		return (Double.isNaN(this.createDuration)) ? 0 : (long) this.createDuration;
+	}
+	
+}
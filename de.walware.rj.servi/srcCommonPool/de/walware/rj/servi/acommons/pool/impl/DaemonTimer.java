@@ -81,4 +81,14 @@ class DaemonTimer {
 		return this.executor.scheduleWithFixedDelay(task, delay, period, TimeUnit.MILLISECONDS);
 	}
 	
+	/**
+	 * Add the specified one-shot task to the timer.
+	 * @param task      Task to be scheduled
+	 * @param delay     Delay in milliseconds before task is executed
+	 * @return 
+	 */
+	public synchronized ScheduledFuture<?> schedule(Runnable task, long delay) {
+		return this.executor.schedule(task, delay, TimeUnit.MILLISECONDS);
+	}
+	
 }
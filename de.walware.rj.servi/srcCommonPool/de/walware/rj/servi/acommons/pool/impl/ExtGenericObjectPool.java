@@ -18,11 +18,19 @@
 package de.walware.rj.servi.acommons.pool.impl;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.TimerTask;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -73,7 +81,9 @@ import de.walware.rj.servi.acommons.pool.PoolableObjectFactory;
  *    <li>
  *      When {@link #setWhenExhaustedAction <i>whenExhaustedAction</i>}
  *      is {@link #WHEN_EXHAUSTED_BLOCK}, {@link #borrowObject} will block
- *      (invoke {@link Object#wait()} until a new or idle object is available.
+ *      until a new or idle object is available.  Blocked callers are queued
+ *      in FIFO order and each returned or newly available object is handed
+ *      directly to the oldest waiting caller.
  *      If a positive {@link #setMaxWait <i>maxWait</i>}
  *      value is supplied, the {@link #borrowObject} will block for at
  *      most that many milliseconds, after which a {@link NoSuchElementException}
@@ -263,6 +273,56 @@ public class ExtGenericObjectPool implements ObjectPool {
 	 */
 	public static final boolean DEFAULT_LIFO = true;
 	
+	/**
+	 * The default cap on the number of objects created concurrently
+	 * to ensure the minimum number of idle objects.
+	 * @see #setMaxCreating
+	 */
+	public static final int DEFAULT_MAX_CREATING = 1;
+	
+	/**
+	 * The default upper bound of the adaptive minimum number of idle objects
+	 * (disabled).
+	 * @see #setMaxAdaptiveMinIdle
+	 */
+	public static final int DEFAULT_MAX_ADAPTIVE_MIN_IDLE = -1;
+	
+	/**
+	 * The default "reset in background" value.
+	 * @see #setResetInBackground
+	 */
+	public static final boolean DEFAULT_RESET_IN_BACKGROUND = false;
+	
+	/**
+	 * The default "affinity" value.
+	 * @see #setAffinity
+	 */
+	public static final boolean DEFAULT_AFFINITY = false;
+	
+	/**
+	 * The default "affinity keep state" value.
+	 * @see #setAffinityKeepState
+	 */
+	public static final boolean DEFAULT_AFFINITY_KEEP_STATE = false;
+	
+	/**
+	 * The default "replace retiring" value.
+	 * @see #setReplaceRetiring
+	 */
+	public static final boolean DEFAULT_REPLACE_RETIRING = false;
+	
+	/**
+	 * The default "rolling update rate" value (disabled).
+	 * @see #setRollingUpdateRate
+	 */
+	public static final int DEFAULT_ROLLING_UPDATE_RATE = -1;
+	
+	/**
+	 * The default cap on the number of idle objects kept awake (disabled).
+	 * @see #setMaxAwakeIdle
+	 */
+	public static final int DEFAULT_MAX_AWAKE_IDLE = -1;
+	
 	/**
 	 * The default maximum amount of time (in milliseconds) the
 	 * {@link #borrowObject} method should block before throwing
@@ -335,6 +395,12 @@ public class ExtGenericObjectPool implements ObjectPool {
 	private static final int CLOSE_DAEMON = 1;
 	private static final int CLOSE_FINAL = 3;
 	
+	/** The max number of threads completing borrow requests with callback. */
+	private static final int MAX_ASYNC_THREADS = 8;
+	
+	/** The max number of threads resetting returned objects. */
+	private static final int MAX_RESET_THREADS = 8;
+	
 	/**
 	 * A simple "struct" encapsulating the
 	 * configuration information for a {@link ExtGenericObjectPool}.
@@ -394,6 +460,38 @@ public class ExtGenericObjectPool implements ObjectPool {
 		 * @see ExtGenericObjectPool#setLifo
 		 */
 		public boolean lifo = ExtGenericObjectPool.DEFAULT_LIFO;
+		/**
+		 * @see ExtGenericObjectPool#setMaxCreating
+		 */
+		public int maxCreating = ExtGenericObjectPool.DEFAULT_MAX_CREATING;
+		/**
+		 * @see ExtGenericObjectPool#setMaxAdaptiveMinIdle
+		 */
+		public int maxAdaptiveMinIdle = ExtGenericObjectPool.DEFAULT_MAX_ADAPTIVE_MIN_IDLE;
+		/**
+		 * @see ExtGenericObjectPool#setResetInBackground
+		 */
+		public boolean resetInBackground = ExtGenericObjectPool.DEFAULT_RESET_IN_BACKGROUND;
+		/**
+		 * @see ExtGenericObjectPool#setAffinity
+		 */
+		public boolean affinity = ExtGenericObjectPool.DEFAULT_AFFINITY;
+		/**
+		 * @see ExtGenericObjectPool#setAffinityKeepState
+		 */
+		public boolean affinityKeepState = ExtGenericObjectPool.DEFAULT_AFFINITY_KEEP_STATE;
+		/**
+		 * @see ExtGenericObjectPool#setReplaceRetiring
+		 */
+		public boolean replaceRetiring = ExtGenericObjectPool.DEFAULT_REPLACE_RETIRING;
+		/**
+		 * @see ExtGenericObjectPool#setRollingUpdateRate
+		 */
+		public int rollingUpdateRate = ExtGenericObjectPool.DEFAULT_ROLLING_UPDATE_RATE;
+		/**
+		 * @see ExtGenericObjectPool#setMaxAwakeIdle
+		 */
+		public int maxAwakeIdle = ExtGenericObjectPool.DEFAULT_MAX_AWAKE_IDLE;
 	
 	}
 	
@@ -421,6 +519,26 @@ public class ExtGenericObjectPool implements ObjectPool {
 		
 		private long evict;
 		
+		/** The argument of the last borrower, if affinity is enabled */
+		private Object affinityKey;
+		/** If the item was detached keeping the state of the last borrower */
+		private boolean detached;
+		
+		/** The generation of the pool the item was created in */
+		private int generation;
+		
+		/** If the item failed validation */
+		private boolean invalid;
+		/** If the item failed validation or is outdated, and its successor is created */
+		private boolean retiring;
+		/** If the successor of the retiring item is available (or failed) */
+		private boolean replaced;
+		
+		/** If the idle item is suspended (guarded by the item) */
+		private volatile boolean suspended;
+		/** If the idle item is selected to be suspended (guarded by the item) */
+		private volatile boolean suspendable;
+		
 		
 		Item() {
 			this.createStamp = this.stateStamp = System.currentTimeMillis();
@@ -453,6 +571,7 @@ public class ExtGenericObjectPool implements ObjectPool {
 				long stamp = System.currentTimeMillis();
 				if (this.state == State.LENT) {
 					this.lentDuration += stamp-this.stateStamp;
+					ExtGenericObjectPool.this._sizer.leased(stamp-this.stateStamp);
 					this.clientId = -1L;
 					this.clientLabel = null;
 				}
@@ -526,6 +645,194 @@ public class ExtGenericObjectPool implements ObjectPool {
 		}
 	}
 	
+	/**
+	 * Callback for {@link ExtGenericObjectPool#borrowObject(Object, BorrowCallback)}.
+	 *
+	 * The methods are called by one of the bounded number of pool threads (or by the
+	 * caller, if the request fails immediately), but never while holding the pool lock;
+	 * implementations must return quickly. If the borrower cannot take over the item,
+	 * the callback must return it to the pool.
+	 */
+	public static interface BorrowCallback {
+		
+		void borrowed(ObjectPoolItem item);
+		
+		void failed(Exception e);
+		
+	}
+	
+	/**
+	 * Listener for the events of the pool, e.g. to record a timeline of the pool.
+	 * 
+	 * The methods are called by the thread doing the operation, but never while
+	 * holding the pool lock; implementations must return quickly.
+	 * @see ExtGenericObjectPool#setEventListener(EventListener)
+	 */
+	public static interface EventListener {
+		
+		/** Outcomes of a borrow request */
+		int BORROW_LENT = 0;
+		int BORROW_EXHAUSTED = 1;
+		int BORROW_TIMEOUT = 2;
+		int BORROW_CLOSED = 3;
+		int BORROW_FAILED = 4;
+		
+		/**
+		 * Called when a borrow request is completed.
+		 * 
+		 * @param item the lent item or <code>null</code> if failed
+		 * @param waitNanos the time from the request until the completion
+		 * @param outcome the outcome of the request
+		 */
+		void borrowed(ObjectPoolItem item, long waitNanos, int outcome);
+		
+		/**
+		 * Called when a returned item is passivated.
+		 * 
+		 * @param item the returned item
+		 * @param resetNanos the duration of the validation and passivation
+		 * @param idle if the item can be added to the idle object pool
+		 */
+		void returned(ObjectPoolItem item, long resetNanos, boolean idle);
+		
+		/**
+		 * Called when an item was destroyed.
+		 * 
+		 * @param item the destroyed item
+		 * @param nanos the duration of the destruction
+		 */
+		void destroyed(ObjectPoolItem item, long nanos);
+		
+		/**
+		 * Called after a run of the idle object evictor.
+		 * 
+		 * @param nanos the duration of the run
+		 * @param numDestroyed the number of items destroyed by the run
+		 * @param numIdle the number of idle items after the run
+		 */
+		void evictorRun(long nanos, int numDestroyed, int numIdle);
+		
+		/**
+		 * Called when an operation of the pool in background failed.
+		 * 
+		 * @param item the item or <code>null</code> if not available
+		 * @param message the description of the operation
+		 * @param e the cause
+		 */
+		void failed(ObjectPoolItem item, String message, Throwable e);
+		
+	}
+	
+	/**
+	 * A borrower of an item.
+	 *
+	 * If the pool is exhausted, the waiter is queued and the pool completes
+	 * the waiter (while holding the pool lock) by handing over an idle item
+	 * or the permission to create a new one.
+	 */
+	private static final class Waiter {
+		
+		static final int PENDING = 0;
+		static final int GRANTED = 1;
+		static final int EXHAUSTED = 2;
+		static final int CLOSED = 3;
+		static final int TIMEOUT = 4;
+		
+		
+		private final Object arg;
+		private final BorrowCallback callback;
+		
+		/** Time stamp (nanos) of the request */
+		private final long requestStamp = System.nanoTime();
+		private long enqueueStamp;
+		private ScheduledFuture<?> timeoutFuture;
+		
+		private int result = PENDING;
+		private Item item;
+		
+		
+		Waiter(final Object arg, final BorrowCallback callback) {
+			this.arg = arg;
+			this.callback = callback;
+		}
+		
+		
+		synchronized void complete(final int result, final Item item) {
+			this.result = result;
+			this.item = item;
+			notify();
+		}
+		
+		synchronized int getResult() {
+			return this.result;
+		}
+		
+		synchronized Item getItem() {
+			return this.item;
+		}
+		
+		/**
+		 * Waits until the waiter is completed or the timeout elapsed.
+		 * 
+		 * @param timeoutMillis the timeout, non-positive to wait indefinitely
+		 * @return the result
+		 */
+		synchronized int await(final long timeoutMillis) throws InterruptedException {
+			if (timeoutMillis <= 0) {
+				while (this.result == PENDING) {
+					wait();
+				}
+			}
+			else {
+				final long deadline = System.currentTimeMillis() + timeoutMillis;
+				while (this.result == PENDING) {
+					final long waitTime = deadline - System.currentTimeMillis();
+					if (waitTime <= 0) {
+						break;
+					}
+					wait(waitTime);
+				}
+			}
+			return this.result;
+		}
+		
+	}
+	
+	/**
+	 * Completes a borrow request with callback outside of the pool lock.
+	 */
+	private class AsyncBorrowTask implements Runnable {
+		
+		
+		private final Waiter waiter;
+		
+		
+		AsyncBorrowTask(final Waiter waiter) {
+			this.waiter = waiter;
+		}
+		
+		
+		@Override
+		public void run() {
+			final BorrowCallback callback = this.waiter.callback;
+			final Item item;
+			try {
+				if (this.waiter.getResult() != Waiter.GRANTED) {
+					throw createBorrowException(this.waiter.getResult());
+				}
+				item = uLend(this.waiter.getItem(), this.waiter.arg);
+			}
+			catch (final Exception e) {
+				fireBorrowed(null, this.waiter.requestStamp, getBorrowOutcome(this.waiter.getResult()));
+				callback.failed(e);
+				return;
+			}
+			fireBorrowed(item, this.waiter.requestStamp, EventListener.BORROW_LENT);
+			callback.borrowed(item);
+		}
+		
+	}
+	
 	
 	/**
 	 * The cap on the number of idle instances in the pool.
@@ -673,6 +980,76 @@ public class ExtGenericObjectPool implements ObjectPool {
 	/** Whether or not the pool behaves as a LIFO queue (last in first out) */
 	private boolean _lifo = DEFAULT_LIFO;
 	
+	/**
+	 * The cap on the number of objects created concurrently by the
+	 * idle object evictor.
+	 * @see #setMaxCreating
+	 * @see #getMaxCreating
+	 */
+	private int _maxCreating = DEFAULT_MAX_CREATING;
+	
+	/**
+	 * The upper bound of the adaptive minimum number of idle objects.
+	 * @see #setMaxAdaptiveMinIdle
+	 * @see #getMaxAdaptiveMinIdle
+	 */
+	private int _maxAdaptiveMinIdle = DEFAULT_MAX_ADAPTIVE_MIN_IDLE;
+	
+	/**
+	 * The minimum number of idle objects currently ensured by the evictor.
+	 * @see #getEffectiveMinIdle
+	 */
+	private int _effectiveMinIdle = DEFAULT_MIN_IDLE;
+	
+	/**
+	 * Whether returned objects are passivated in the background.
+	 * @see #setResetInBackground
+	 * @see #getResetInBackground
+	 */
+	private boolean _resetInBackground = DEFAULT_RESET_IN_BACKGROUND;
+	
+	/**
+	 * Whether borrowers prefer the idle object they borrowed last.
+	 * @see #setAffinity
+	 * @see #getAffinity
+	 */
+	private boolean _affinity = DEFAULT_AFFINITY;
+	
+	/**
+	 * Whether returned objects keep their state for the next borrow with the same argument.
+	 * @see #setAffinityKeepState
+	 * @see #getAffinityKeepState
+	 */
+	private boolean _affinityKeepState = DEFAULT_AFFINITY_KEEP_STATE;
+	
+	/**
+	 * Whether objects failing validation on return are replaced before they are destroyed.
+	 * @see #setReplaceRetiring
+	 * @see #getReplaceRetiring
+	 */
+	private boolean _replaceRetiring = DEFAULT_REPLACE_RETIRING;
+	
+	/**
+	 * The number of outdated idle objects replaced per minute.
+	 * @see #setRollingUpdateRate
+	 * @see #getRollingUpdateRate
+	 */
+	private int _rollingUpdateRate = DEFAULT_ROLLING_UPDATE_RATE;
+	
+	/**
+	 * The cap on the number of idle objects kept awake.
+	 * @see #setMaxAwakeIdle
+	 * @see #getMaxAwakeIdle
+	 */
+	private int _maxAwakeIdle = DEFAULT_MAX_AWAKE_IDLE;
+	
+	/** The current generation, objects of older generations are outdated */
+	private int _generation;
+	
+	/** The number of replacements of outdated idle objects which can be started */
+	private double _rollingUpdateCredit;
+	private long _rollingUpdateStamp = System.currentTimeMillis();
+	
 	//-- data --
 	
 	private final ArrayList<Item> _completePool = new ArrayList<>();
@@ -683,6 +1060,9 @@ public class ExtGenericObjectPool implements ObjectPool {
 	
 	private final ArrayList<Item> _evictionCheckList = new ArrayList<>();
 	
+	/** The item last lent by affinity key (borrow argument) */
+	private final HashMap<Object, Item> _affinityIndex = new HashMap<>();
+	
 	/** Eviction cursor - keeps track of idle object evictor position */
 	private CursorableLinkedList<Item>.Cursor _evictionCursor = null;
 	
@@ -695,6 +1075,38 @@ public class ExtGenericObjectPool implements ObjectPool {
 	 */
 	private int _numActive = 0;
 	
+	/**
+	 * The callers of {@link #borrowObject} waiting for an item, oldest first.
+	 */
+	private final LinkedList<Waiter> _waiters = new LinkedList<>();
+	
+	/**
+	 * The waiters with callback refused by the closed pool, to notify after
+	 * releasing the pool lock.
+	 * @see #uNotifyRefused()
+	 */
+	private final List<Waiter> _refusedWaiters = new ArrayList<>();
+	
+	/** Executor completing borrow requests with callback (bounded). */
+	private ThreadPoolExecutor _asyncExecutor;
+	
+	/** Executor resetting returned objects in the background (bounded). */
+	private ThreadPoolExecutor _resetExecutor;
+	
+	/** Executor creating objects to ensure the minimum of idle objects. */
+	private ThreadPoolExecutor _createExecutor;
+	
+	/** The number of objects currently created by {@link #_createExecutor}. */
+	private int _numCreating = 0;
+	
+	/**
+	 * The number of returned objects currently passivated in the background,
+	 * neither active nor idle.
+	 */
+	private int _numResetting = 0;
+	
+	private final AdaptiveSizer _sizer = new AdaptiveSizer();
+	
 	private DaemonTimer timer = DaemonTimer.DEFAULT;
 	private Evictor evictor = null;
 	private ScheduledFuture<?> evictorFuture;
@@ -705,10 +1117,21 @@ public class ExtGenericObjectPool implements ObjectPool {
 	
 	private volatile int _closed = 0;
 	
+	private volatile EventListener _eventListener;
+	
 	
 	private int _statMaxActive;
 	private int _statMaxIdle;
 	private int _statMaxTotal;
+	private int _statMaxWaiting;
+	private long _statWaitCount;
+	private long _statWaitTimeSum;
+	private long _statMaxWaitTime;
+	private long _statResetCount;
+	private long _statResetTimeSum;
+	private long _statMaxResetTime;
+	private long _statAffinityHits;
+	private long _statAffinityMisses;
 	
 	
 	//--- constructors -----------------------------------------------
@@ -735,6 +1158,14 @@ public class ExtGenericObjectPool implements ObjectPool {
 	 */
 	public ExtGenericObjectPool(PoolableObjectFactory factory, ExtGenericObjectPool.Config config) {
 		this(factory,config.maxActive,config.whenExhaustedAction,config.maxWait,config.maxIdle,config.minIdle,config.testOnBorrow,config.testOnReturn,config.timeBetweenEvictionRunsMillis,config.numTestsPerEvictionRun,config.minEvictableIdleTimeMillis,config.testWhileIdle,config.softMinEvictableIdleTimeMillis, config.lifo);
+		setMaxCreating(config.maxCreating);
+		setMaxAdaptiveMinIdle(config.maxAdaptiveMinIdle);
+		setResetInBackground(config.resetInBackground);
+		setAffinity(config.affinity);
+		setAffinityKeepState(config.affinityKeepState);
+		setReplaceRetiring(config.replaceRetiring);
+		setRollingUpdateRate(config.rollingUpdateRate);
+		setMaxAwakeIdle(config.maxAwakeIdle);
 	}
 	
 	/**
@@ -771,6 +1202,7 @@ public class ExtGenericObjectPool implements ObjectPool {
 		this._maxWait = maxWait;
 		this._maxIdle = maxIdle;
 		this._minIdle = minIdle;
+		this._effectiveMinIdle = minIdle;
 		this._testOnBorrow = testOnBorrow;
 		this._testOnReturn = testOnReturn;
 		this._timeBetweenEvictionRunsMillis = timeBetweenEvictionRunsMillis;
@@ -806,7 +1238,7 @@ public class ExtGenericObjectPool implements ObjectPool {
 	 */
 	public synchronized void setMaxActive(int maxActive) {
 		this._maxActive = maxActive;
-		notifyAll();
+		sServeWaiters();
 		synchronized (this._completePool) {
 			this._completePool.ensureCapacity((int) (this._maxActive*1.25));
 		}
@@ -840,7 +1272,7 @@ public class ExtGenericObjectPool implements ObjectPool {
 		case WHEN_EXHAUSTED_FAIL:
 		case WHEN_EXHAUSTED_GROW:
 			this._whenExhaustedAction = whenExhaustedAction;
-			notifyAll();
+			sServeWaiters();
 			break;
 		default:
 			throw new IllegalArgumentException("whenExhaustedAction " + whenExhaustedAction + " not recognized.");
@@ -884,7 +1316,6 @@ public class ExtGenericObjectPool implements ObjectPool {
 	 */
 	public synchronized void setMaxWait(long maxWait) {
 		this._maxWait = maxWait;
-		notifyAll();
 	}
 	
 	/**
@@ -904,7 +1335,6 @@ public class ExtGenericObjectPool implements ObjectPool {
 	 */
 	public synchronized void setMaxIdle(int maxIdle) {
 		this._maxIdle = maxIdle;
-		notifyAll();
 	}
 	
 	/**
@@ -921,7 +1351,7 @@ public class ExtGenericObjectPool implements ObjectPool {
 	 */
 	public synchronized void setMinIdle(int minIdle) {
 		this._minIdle = minIdle;
-		notifyAll();
+		this._effectiveMinIdle = Math.max(minIdle, Math.min(this._effectiveMinIdle, this._maxAdaptiveMinIdle));
 	}
 	
 	/**
@@ -1161,97 +1591,542 @@ public class ExtGenericObjectPool implements ObjectPool {
 	}
 	
 	/**
-	 * Sets my configuration.
-	 *
-	 * @param conf configuration to use.
-	 * @see ExtGenericObjectPool.Config
+	 * Returns the upper bound of the adaptive minimum number of idle objects.
+	 * 
+	 * @return the upper bound
+	 * @see #setMaxAdaptiveMinIdle
 	 */
-	public synchronized void setConfig(ExtGenericObjectPool.Config conf) {
-		setMaxIdle(conf.maxIdle);
-		setMinIdle(conf.minIdle);
-		setMaxActive(conf.maxActive);
-		setMaxWait(conf.maxWait);
-		setWhenExhaustedAction(conf.whenExhaustedAction);
-		setTestOnBorrow(conf.testOnBorrow);
-		setTestOnReturn(conf.testOnReturn);
-		setTestWhileIdle(conf.testWhileIdle);
-		setNumTestsPerEvictionRun(conf.numTestsPerEvictionRun);
-		setMinEvictableIdleTimeMillis(conf.minEvictableIdleTimeMillis);
-		setTimeBetweenEvictionRunsMillis(conf.timeBetweenEvictionRunsMillis);
-		setSoftMinEvictableIdleTimeMillis(conf.softMinEvictableIdleTimeMillis);
-		setLifo(conf.lifo);
-		notifyAll();
+	public synchronized int getMaxAdaptiveMinIdle() {
+		return this._maxAdaptiveMinIdle;
 	}
 	
 	/**
-	 * Sets the {@link PoolableObjectFactory factory} this pool uses
-	 * to create new instances. Trying to change
-	 * the <code>factory</code> while there are borrowed objects will
-	 * throw an {@link IllegalStateException}.
-	 *
-	 * @param factory the {@link PoolableObjectFactory} used to create new instances.
-	 * @throws IllegalStateException when the factory cannot be set at this time
-	 */
-	public synchronized void setFactory(PoolableObjectFactory factory) throws IllegalStateException {
-		if (factory == null) {
-			throw new NullPointerException();
-		}
-		assertOpen();
-		if(0 < getNumActive()) {
-			throw new IllegalStateException("Objects are already active");
-		} else {
-			clear();
-			this._factory = factory;
-		}
+	 * Sets the upper bound of the adaptive minimum number of idle objects.
+	 * <p>
+	 * If the bound is greater than {@link #getMinIdle() minIdle}, the idle object
+	 * evictor adapts the minimum number of idle objects it ensures between
+	 * <i>minIdle</i> and this bound, based on the observed borrow rate, lease
+	 * duration and creation duration.  Otherwise <i>minIdle</i> is used as is.
+	 * 
+	 * @param maxAdaptiveMinIdle the upper bound, or <code>-1</code> to disable
+	 *     the adaption
+	 * @see #getMaxAdaptiveMinIdle
+	 * @see #getEffectiveMinIdle
+	 */
+	public synchronized void setMaxAdaptiveMinIdle(int maxAdaptiveMinIdle) {
+		this._maxAdaptiveMinIdle = maxAdaptiveMinIdle;
+		this._effectiveMinIdle = Math.max(this._minIdle, Math.min(this._effectiveMinIdle, maxAdaptiveMinIdle));
 	}
 	
-	//-- ObjectPool methods ------------------------------------------
-	
 	/**
-	 * Return the number of instances currently borrowed from this pool.
-	 *
-	 * @return the number of instances currently borrowed from this pool
+	 * Returns the minimum number of idle objects currently ensured by
+	 * the idle object evictor.
+	 * 
+	 * @return the effective minimum number of idle objects
+	 * @see #setMaxAdaptiveMinIdle
 	 */
-	@Override
-	public synchronized int getNumActive() {
-		return this._numActive;
+	public synchronized int getEffectiveMinIdle() {
+		return this._effectiveMinIdle;
 	}
 	
 	/**
-	 * Return the number of instances currently idle in this pool.
-	 *
-	 * @return the number of instances currently idle in this pool
+	 * Returns the average number of borrow requests per minute.
+	 * 
+	 * @return the average borrow rate
 	 */
-	@Override
-	public synchronized int getNumIdle() {
-		return this._idlePool.size();
+	public double getStatBorrowRate() {
+		return this._sizer.getBorrowRate();
 	}
 	
-	public int getStatMaxTotal() {
-		return this._statMaxTotal;
+	/**
+	 * Returns the average time (in milliseconds) objects are lent.
+	 * 
+	 * @return the average lease duration
+	 */
+	public long getStatAvgLeaseDuration() {
+		return this._sizer.getLeaseDuration();
 	}
 	
-	public int getStatMaxActive() {
-		return this._statMaxActive;
+	/**
+	 * Returns the average time (in milliseconds) to create an object.
+	 * 
+	 * @return the average creation duration
+	 */
+	public long getStatAvgCreateDuration() {
+		return this._sizer.getCreateDuration();
 	}
 	
-	public int getStatMaxIdle() {
-		return this._statMaxIdle;
+	/**
+	 * Returns the cap on the number of objects created concurrently to
+	 * ensure the minimum number of idle objects.
+	 * 
+	 * @return the cap on the number of concurrently created objects
+	 * @see #setMaxCreating
+	 */
+	public synchronized int getMaxCreating() {
+		return this._maxCreating;
 	}
 	
 	/**
-	 * Create an object, and place it into the pool.
-	 * addObject() is useful for "pre-loading" a pool with idle objects.
+	 * Sets the cap on the number of objects created concurrently to
+	 * ensure the minimum number of idle objects.  Object creation runs in
+	 * a separate bounded executor, so slow creations neither block the
+	 * idle object evictor nor each other.
+	 * 
+	 * @param maxCreating the cap on the number of concurrently created objects,
+	 *     must be positive
+	 * @see #getMaxCreating
+	 * @see #setMinIdle
 	 */
-	@Override
-	public void addObject() throws Exception {
-		assertOpen();
-		Item item = null;
-		try {
-			item = uDoCreate();
-			uAddToIdlePool(item, false);
+	public synchronized void setMaxCreating(int maxCreating) {
+		if (maxCreating < 1) {
+			throw new IllegalArgumentException("maxCreating: " + maxCreating);
 		}
-		catch (Throwable e) {
+		this._maxCreating = maxCreating;
+		if (this._createExecutor != null) {
+			if (maxCreating > this._createExecutor.getMaximumPoolSize()) {
+				this._createExecutor.setMaximumPoolSize(maxCreating);
+				this._createExecutor.setCorePoolSize(maxCreating);
+			}
+			else {
+				this._createExecutor.setCorePoolSize(maxCreating);
+				this._createExecutor.setMaximumPoolSize(maxCreating);
+			}
+		}
+	}
+	
+	/**
+	 * Returns whether returned objects are passivated in the background.
+	 * 
+	 * @return <code>true</code> if objects are reset in the background
+	 * @see #setResetInBackground
+	 */
+	public synchronized boolean getResetInBackground() {
+		return this._resetInBackground;
+	}
+	
+	/**
+	 * Sets whether returned objects are passivated in the background.
+	 * If enabled, {@link #returnObject} only marks the object as
+	 * {@link State#RESETTING resetting} and returns immediately; the
+	 * validation (if <code>testOnReturn</code> is set) and passivation of the
+	 * object are done asynchronously and the object is added to the idle
+	 * object pool after they are finished.  Resetting objects are counted
+	 * towards <code>maxActive</code>.
+	 * 
+	 * @param resetInBackground <code>true</code> to reset objects in the background
+	 * @see #getResetInBackground
+	 */
+	public synchronized void setResetInBackground(boolean resetInBackground) {
+		this._resetInBackground = resetInBackground;
+	}
+	
+	/**
+	 * Returns whether borrowers prefer the idle object they borrowed last.
+	 * 
+	 * @return <code>true</code> if the affinity is enabled
+	 * @see #setAffinity
+	 */
+	public synchronized boolean getAffinity() {
+		return this._affinity;
+	}
+	
+	/**
+	 * Sets whether borrowers prefer the idle object they borrowed last.
+	 * If enabled, {@link #borrowObject} takes the idle object last lent with
+	 * an equal argument, if available; otherwise it prefers objects
+	 * not keeping the state of another borrower.
+	 * 
+	 * @param affinity <code>true</code> to enable the affinity
+	 * @see #getAffinity
+	 * @see #setAffinityKeepState
+	 */
+	public synchronized void setAffinity(boolean affinity) {
+		this._affinity = affinity;
+		if (!affinity) {
+			this._affinityIndex.clear();
+		}
+	}
+	
+	/**
+	 * Returns whether returned objects keep their state for the next borrower
+	 * with the same argument.
+	 * 
+	 * @return <code>true</code> if the state is kept
+	 * @see #setAffinityKeepState
+	 */
+	public synchronized boolean getAffinityKeepState() {
+		return this._affinityKeepState;
+	}
+	
+	/**
+	 * Sets whether returned objects keep their state for the next borrower
+	 * with the same argument.  If enabled (and {@link #setAffinity affinity}
+	 * is enabled), returned objects are {@link PoolableObjectFactory#detachObject
+	 * detached} instead of passivated; the passivation is done before an object
+	 * is activated for a borrower with another argument.
+	 * 
+	 * @param keepState <code>true</code> to keep the state
+	 * @see #getAffinityKeepState
+	 */
+	public synchronized void setAffinityKeepState(boolean keepState) {
+		this._affinityKeepState = keepState;
+	}
+	
+	/**
+	 * Returns whether objects failing validation on return are replaced
+	 * before they are destroyed.
+	 * 
+	 * @return <code>true</code> if make-before-break replacement is enabled
+	 * @see #setReplaceRetiring
+	 */
+	public synchronized boolean getReplaceRetiring() {
+		return this._replaceRetiring;
+	}
+	
+	/**
+	 * Sets whether objects failing validation on return are replaced before
+	 * they are destroyed.  If enabled, the creation of a successor is started
+	 * immediately and the retiring object is still passivated and lent until
+	 * the successor is available; then the successor takes its place in the
+	 * idle object pool.  Objects the factory does not report as
+	 * {@link PoolableObjectFactory#isReplaceable replaceable}, e.g. if a hard
+	 * limit is exceeded, are destroyed at once.  The successor is created only
+	 * if the total number of objects stays within {@link #setMaxActive maxActive},
+	 * otherwise the retiring object is destroyed at once too.
+	 * 
+	 * @param replaceRetiring <code>true</code> to enable make-before-break replacement
+	 * @see #getReplaceRetiring
+	 */
+	public synchronized void setReplaceRetiring(boolean replaceRetiring) {
+		this._replaceRetiring = replaceRetiring;
+	}
+	
+	/**
+	 * Returns the number of outdated idle objects replaced per minute.
+	 * 
+	 * @return the rate or <code>-1</code> if rolling updates are disabled
+	 * @see #setRollingUpdateRate
+	 */
+	public synchronized int getRollingUpdateRate() {
+		return this._rollingUpdateRate;
+	}
+	
+	/**
+	 * Sets the number of outdated idle objects replaced per minute.
+	 * Objects created before the last call of {@link #startNewGeneration()}
+	 * are outdated.  If rolling updates are enabled, the idle object evictor
+	 * starts the creation of successors of outdated idle objects at the given
+	 * rate, and outdated objects are replaced when they are returned, as far as
+	 * the rate allows; all replacements share the rate, at most one is started
+	 * at once.  As for {@link #setReplaceRetiring retiring objects}, an outdated
+	 * object is in use until its successor is available.  If the total number of
+	 * objects reached <code>maxActive</code>, outdated idle objects are destroyed
+	 * without successor instead.  With a rate of <code>0</code>, outdated objects
+	 * are replaced only when they are returned.
+	 * 
+	 * @param rate the number of objects per minute, or <code>-1</code> to disable
+	 *     rolling updates
+	 * @see #getRollingUpdateRate
+	 */
+	public synchronized void setRollingUpdateRate(int rate) {
+		this._rollingUpdateRate = rate;
+	}
+	
+	/**
+	 * Returns the cap on the number of idle objects kept awake.
+	 * 
+	 * @return the number or <code>-1</code> if suspension is disabled
+	 * @see #setMaxAwakeIdle
+	 */
+	public synchronized int getMaxAwakeIdle() {
+		return this._maxAwakeIdle;
+	}
+	
+	/**
+	 * Sets the cap on the number of idle objects kept awake.
+	 * The idle object evictor {@link PoolableObjectFactory#suspendObject suspends}
+	 * the idle objects exceeding the number, beginning with the objects which are
+	 * borrowed last; the objects are resumed when they are borrowed or when they
+	 * move up again.  Suspended objects are not tested while idle, but they are
+	 * evicted according to the idle time as usual.
+	 * 
+	 * @param maxAwakeIdle the number of objects, or <code>-1</code> to disable
+	 *     suspension
+	 * @see #getMaxAwakeIdle
+	 */
+	public synchronized void setMaxAwakeIdle(int maxAwakeIdle) {
+		this._maxAwakeIdle = maxAwakeIdle;
+	}
+	
+	/**
+	 * Starts a new generation of objects.  All existing objects become outdated
+	 * and are replaced according to the {@link #setRollingUpdateRate rolling update rate}.
+	 * The method must be called after the configuration of the factory is changed.
+	 */
+	public synchronized void startNewGeneration() {
+		this._generation++;
+	}
+	
+	/**
+	 * Returns the current generation of objects.
+	 * 
+	 * @return the generation
+	 * @see #startNewGeneration()
+	 */
+	public synchronized int getGeneration() {
+		return this._generation;
+	}
+	
+	/**
+	 * Returns the number of objects created before the current generation and
+	 * not yet evicted.
+	 * 
+	 * @return the number of outdated objects
+	 * @see #startNewGeneration()
+	 */
+	public int getNumOutdated() {
+		final int generation = getGeneration();
+		int count = 0;
+		synchronized (this._completePool) {
+			for (final Item item : this._completePool) {
+				if (item.generation != generation) {
+					final State state = item.getState();
+					if (state != State.EVICTING && state != State.EVICTED) {
+						count++;
+					}
+				}
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Returns the number of idle objects currently suspended.
+	 * 
+	 * @return the number of suspended objects
+	 * @see #setMaxAwakeIdle(int)
+	 */
+	public synchronized int getNumSuspended() {
+		int count = 0;
+		for (final Iterator<Item> iter = this._idlePool.iterator(); iter.hasNext(); ) {
+			if (iter.next().suspended) {
+				count++;
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Sets my configuration.
+	 *
+	 * @param conf configuration to use.
+	 * @see ExtGenericObjectPool.Config
+	 */
+	public synchronized void setConfig(ExtGenericObjectPool.Config conf) {
+		setMaxIdle(conf.maxIdle);
+		setMinIdle(conf.minIdle);
+		setMaxActive(conf.maxActive);
+		setMaxWait(conf.maxWait);
+		setWhenExhaustedAction(conf.whenExhaustedAction);
+		setTestOnBorrow(conf.testOnBorrow);
+		setTestOnReturn(conf.testOnReturn);
+		setTestWhileIdle(conf.testWhileIdle);
+		setNumTestsPerEvictionRun(conf.numTestsPerEvictionRun);
+		setMinEvictableIdleTimeMillis(conf.minEvictableIdleTimeMillis);
+		setTimeBetweenEvictionRunsMillis(conf.timeBetweenEvictionRunsMillis);
+		setSoftMinEvictableIdleTimeMillis(conf.softMinEvictableIdleTimeMillis);
+		setLifo(conf.lifo);
+		setMaxCreating(conf.maxCreating);
+		setMaxAdaptiveMinIdle(conf.maxAdaptiveMinIdle);
+		setResetInBackground(conf.resetInBackground);
+		setAffinity(conf.affinity);
+		setAffinityKeepState(conf.affinityKeepState);
+		setReplaceRetiring(conf.replaceRetiring);
+		setRollingUpdateRate(conf.rollingUpdateRate);
+		setMaxAwakeIdle(conf.maxAwakeIdle);
+		sServeWaiters();
+	}
+	
+	/**
+	 * Sets the {@link PoolableObjectFactory factory} this pool uses
+	 * to create new instances. Trying to change
+	 * the <code>factory</code> while there are borrowed objects will
+	 * throw an {@link IllegalStateException}.
+	 *
+	 * @param factory the {@link PoolableObjectFactory} used to create new instances.
+	 * @throws IllegalStateException when the factory cannot be set at this time
+	 */
+	public synchronized void setFactory(PoolableObjectFactory factory) throws IllegalStateException {
+		if (factory == null) {
+			throw new NullPointerException();
+		}
+		assertOpen();
+		if(0 < getNumActive()) {
+			throw new IllegalStateException("Objects are already active");
+		} else {
+			clear();
+			this._factory = factory;
+		}
+	}
+	
+	/**
+	 * Sets the listener for the events of the pool.
+	 * 
+	 * @param listener the listener or <code>null</code>
+	 */
+	public void setEventListener(final EventListener listener) {
+		this._eventListener = listener;
+	}
+	
+	private void fireBorrowed(final Item item, final long requestStamp, final int outcome) {
+		final EventListener listener = this._eventListener;
+		if (listener != null) {
+			listener.borrowed(item, System.nanoTime() - requestStamp, outcome);
+		}
+	}
+	
+	private void fireFailed(final Item item, final String message, final Throwable e) {
+		final EventListener listener = this._eventListener;
+		if (listener != null) {
+			listener.failed(item, message, e);
+		}
+		else {
+			new Exception(message, e).printStackTrace();
+		}
+	}
+	
+	private static int getBorrowOutcome(final int result) {
+		switch (result) {
+		case Waiter.EXHAUSTED:
+			return EventListener.BORROW_EXHAUSTED;
+		case Waiter.TIMEOUT:
+			return EventListener.BORROW_TIMEOUT;
+		case Waiter.CLOSED:
+			return EventListener.BORROW_CLOSED;
+		default:
+			return EventListener.BORROW_FAILED;
+		}
+	}
+	
+	//-- ObjectPool methods ------------------------------------------
+	
+	/**
+	 * Return the number of instances currently borrowed from this pool.
+	 *
+	 * @return the number of instances currently borrowed from this pool
+	 */
+	@Override
+	public synchronized int getNumActive() {
+		return this._numActive;
+	}
+	
+	/**
+	 * Return the number of instances currently idle in this pool.
+	 *
+	 * @return the number of instances currently idle in this pool
+	 */
+	@Override
+	public synchronized int getNumIdle() {
+		return this._idlePool.size();
+	}
+	
+	public int getStatMaxTotal() {
+		return this._statMaxTotal;
+	}
+	
+	public int getStatMaxActive() {
+		return this._statMaxActive;
+	}
+	
+	public int getStatMaxIdle() {
+		return this._statMaxIdle;
+	}
+	
+	/**
+	 * Return the number of callers currently waiting in {@link #borrowObject}.
+	 *
+	 * @return the number of waiting callers
+	 */
+	public synchronized int getNumWaiting() {
+		return this._waiters.size();
+	}
+	
+	public int getStatMaxWaiting() {
+		return this._statMaxWaiting;
+	}
+	
+	/**
+	 * Return the average time (in milliseconds) callers of {@link #borrowObject}
+	 * spent in the waiter queue.
+	 *
+	 * @return the average time in queue
+	 */
+	public synchronized long getStatAvgWaitTime() {
+		return (this._statWaitCount > 0) ? (this._statWaitTimeSum / this._statWaitCount) : 0;
+	}
+	
+	public long getStatMaxWaitTime() {
+		return this._statMaxWaitTime;
+	}
+	
+	/**
+	 * Return the number of returned instances currently reset in the background.
+	 *
+	 * @return the number of resetting instances
+	 * @see #setResetInBackground
+	 */
+	public synchronized int getNumResetting() {
+		return this._numResetting;
+	}
+	
+	/**
+	 * Return the average time (in milliseconds) to passivate a returned instance.
+	 *
+	 * @return the average reset duration
+	 */
+	public synchronized long getStatAvgResetDuration() {
+		return (this._statResetCount > 0) ? (this._statResetTimeSum / this._statResetCount) : 0;
+	}
+	
+	public long getStatMaxResetDuration() {
+		return this._statMaxResetTime;
+	}
+	
+	/**
+	 * Return the number of borrows with affinity served by the idle object last
+	 * lent to the same argument.
+	 *
+	 * @return the number of affinity hits
+	 * @see #setAffinity
+	 */
+	public long getStatAffinityHits() {
+		return this._statAffinityHits;
+	}
+	
+	/**
+	 * Return the number of borrows with affinity served by another object.
+	 *
+	 * @return the number of affinity misses
+	 * @see #setAffinity
+	 */
+	public long getStatAffinityMisses() {
+		return this._statAffinityMisses;
+	}
+	
+	/**
+	 * Create an object, and place it into the pool.
+	 * addObject() is useful for "pre-loading" a pool with idle objects.
+	 */
+	@Override
+	public void addObject() throws Exception {
+		assertOpen();
+		Item item = null;
+		try {
+			item = uDoCreate();
+			uAddToIdlePool(item, false);
+		}
+		catch (Throwable e) {
 			if (item != null) {
 				uDoDestroy(new Item[] { item });
 			}
@@ -1262,65 +2137,286 @@ public class ExtGenericObjectPool implements ObjectPool {
 	@Override
 	public ObjectPoolItem borrowObject(Object arg) throws Exception {
 		long starttime = System.currentTimeMillis();
-		for(;;) {
-			Item item = null;
+		final long requestStamp = System.nanoTime();
+		int outcome = EventListener.BORROW_FAILED;
+		Item item = null;
+		this._sizer.borrowed();
+		try {
+			final Waiter waiter = new Waiter(arg, null);
+			int result;
+			synchronized (this) {
+				result = sAcquire(waiter);
+			}
+			if (result == Waiter.PENDING) {
+				result = uAwait(waiter, starttime);
+			}
+			if (result != Waiter.GRANTED) {
+				outcome = getBorrowOutcome(result);
+				throw createBorrowException(result);
+			}
 			
+			// item (or null to create one) is already counted as active
+			item = uLend(waiter.getItem(), arg);
+			outcome = EventListener.BORROW_LENT;
+			return item;
+		}
+		finally {
+			fireBorrowed(item, requestStamp, outcome);
+		}
+	}
+	
+	/**
+	 * Borrows an item without blocking the calling thread.
+	 * 
+	 * If the pool is exhausted and the {@link #getWhenExhaustedAction "when exhausted" action}
+	 * is {@link #WHEN_EXHAUSTED_BLOCK}, the request is queued together with the
+	 * callers of {@link #borrowObject(Object)}; the callback is notified when
+	 * an item was handed off and is activated, or when the request failed
+	 * (e.g. because of {@link #getMaxWait() maxWait}).
+	 * 
+	 * @param arg the argument for the activation of the item
+	 * @param callback the callback to notify
+	 */
+	public void borrowObject(final Object arg, final BorrowCallback callback) {
+		if (callback == null) {
+			throw new NullPointerException("callback");
+		}
+		this._sizer.borrowed();
+		final Waiter waiter = new Waiter(arg, callback);
+		final int result;
+		synchronized (this) {
+			result = sAcquire(waiter);
+			if (result == Waiter.PENDING) {
+				if (this._maxWait > 0) {
+					waiter.timeoutFuture = this.timer.schedule(new Runnable() {
+						@Override
+						public void run() {
+							onAsyncTimeout(waiter);
+						}
+					}, this._maxWait);
+				}
+				return;
+			}
+			if (result == Waiter.GRANTED && sExecuteAsync(waiter)) {
+				return;
+			}
+		}
+		// failed immediately (e.g. pool closed), no need of a pool thread
+		uNotifyRefused();
+		fireBorrowed(null, waiter.requestStamp, getBorrowOutcome(waiter.getResult()));
+		callback.failed(createBorrowException(waiter.getResult()));
+	}
+	
+	/**
+	 * Tries to acquire an item for the waiter; if the pool is exhausted and
+	 * configured to block, the waiter is queued.
+	 * 
+	 * @return the result of the waiter
+	 */
+	private int sAcquire(final Waiter waiter) {
+		if (this._closed != 0) {
+			waiter.complete(Waiter.CLOSED, null);
+			return Waiter.CLOSED;
+		}
+		Item item = null;
+		boolean available = false;
+		// borrowers already waiting are served first
+		if (this._waiters.isEmpty()) {
+			// if there are any sleeping, just grab one of those
+			if (!this._idlePool.isEmpty()) {
+				item = sTakeIdle(waiter.arg);
+				available = true;
+			}
+			// otherwise check if we can create one (items in creation count against maxActive)
+			else if (this._maxActive < 0
+					|| this._numActive + this._numResetting + this._numCreating < this._maxActive) {
+				available = true;
+			}
+		}
+		if (!available) {
+			// the pool is exhausted
+			switch(this._whenExhaustedAction) {
+				case WHEN_EXHAUSTED_GROW:
+					// allow new object to be created
+					break;
+				case WHEN_EXHAUSTED_FAIL:
+					waiter.complete(Waiter.EXHAUSTED, null);
+					return Waiter.EXHAUSTED;
+				case WHEN_EXHAUSTED_BLOCK:
+					waiter.enqueueStamp = System.currentTimeMillis();
+					this._waiters.addLast(waiter);
+					this._statMaxWaiting = Math.max(this._waiters.size(), this._statMaxWaiting);
+					return Waiter.PENDING;
+				default:
+					throw new IllegalArgumentException("WhenExhaustedAction property " + this._whenExhaustedAction + " not recognized.");
+			}
+		}
+		sIncrementNumActive();
+		waiter.complete(Waiter.GRANTED, item);
+		return Waiter.GRANTED;
+	}
+	
+	/**
+	 * Blocks until the waiter is served by {@link #sServeWaiters()}.
+	 * 
+	 * @return the result of the waiter
+	 */
+	private int uAwait(final Waiter waiter, final long starttime) throws Exception {
+		final long maxWait;
+		synchronized (this) {
+			maxWait = this._maxWait;
+		}
+		int result;
+		try {
+			result = waiter.await((maxWait > 0) ?
+					Math.max(maxWait - (System.currentTimeMillis() - starttime), 1) : 0 );
+		}
+		catch (InterruptedException e) {
 			synchronized (this) {
-				assertOpen();
-				// if there are any sleeping, just grab one of those
-				try {
-					item = (Item)(this._idlePool.removeFirst());
-				} catch(NoSuchElementException e) {
-					; /* ignored */
+				if (this._waiters.remove(waiter)) {
+					sRecordWait(waiter);
 				}
-				
-				// otherwise
-				if(null == item) {
-					// check if we can create one
-					// (note we know that the num sleeping is 0, else we wouldn't be here)
-					if(this._maxActive < 0 || this._numActive < this._maxActive) {
-						// allow new object to be created
-					} else {
-						// the pool is exhausted
-						switch(this._whenExhaustedAction) {
-							case WHEN_EXHAUSTED_GROW:
-								// allow new object to be created
-								break;
-							case WHEN_EXHAUSTED_FAIL:
-								throw new NoSuchElementException("Pool exhausted");
-							case WHEN_EXHAUSTED_BLOCK:
-								try {
-									if(this._maxWait <= 0) {
-										wait();
-									} else {
-										// this code may be executed again after a notify then continue cycle
-										// so, need to calculate the amount of time to wait
-										final long elapsed = (System.currentTimeMillis() - starttime);
-										final long waitTime = this._maxWait - elapsed;
-										if (waitTime > 0)
-										{
-											wait(waitTime);
-										}
-									}
-								} catch(InterruptedException e) {
-									Thread.currentThread().interrupt();
-									throw e; 
-								}
-								if(this._maxWait > 0 && ((System.currentTimeMillis() - starttime) >= this._maxWait)) {
-									throw new NoSuchElementException("Timeout waiting for idle object");
-								} else {
-									continue; // keep looping
-								}
-							default:
-								throw new IllegalArgumentException("WhenExhaustedAction property " + this._whenExhaustedAction + " not recognized.");
-						}
-					}
+				else if (waiter.getResult() == Waiter.GRANTED) {
+					// give back what was handed off
+					sReleaseGranted(waiter);
 				}
-				this._numActive++;
-				this._statMaxActive = Math.max(this._numActive, this._statMaxActive);
-				this._statMaxTotal = Math.max(this._numActive+this._idlePool.size(), this._statMaxTotal);
 			}
-			
+			uNotifyRefused();
+			Thread.currentThread().interrupt();
+			throw e;
+		}
+		if (result == Waiter.PENDING) {
+			synchronized (this) {
+				result = waiter.getResult();
+				if (result == Waiter.PENDING && this._waiters.remove(waiter)) {
+					sRecordWait(waiter);
+					result = Waiter.TIMEOUT;
+				}
+			}
+		}
+		return result;
+	}
+	
+	private void onAsyncTimeout(final Waiter waiter) {
+		synchronized (this) {
+			if (!this._waiters.remove(waiter)) {
+				return;
+			}
+			sRecordWait(waiter);
+			waiter.complete(Waiter.TIMEOUT, null);
+		}
+		fireBorrowed(null, waiter.requestStamp, EventListener.BORROW_TIMEOUT);
+		waiter.callback.failed(createBorrowException(Waiter.TIMEOUT));
+	}
+	
+	private void sReleaseGranted(final Waiter waiter) {
+		final Item item = waiter.getItem();
+		if (item != null) {
+			this._idlePool.addFirst(item);
+		}
+		this._numActive--;
+		sServeWaiters();
+	}
+	
+	/**
+	 * Schedules the completion of the waiter with callback.
+	 * 
+	 * If the task is refused (the pool is closed), a granted item is released and
+	 * the waiter is completed as closed; the caller must notify the callback
+	 * after releasing the pool lock.
+	 * 
+	 * @return <code>true</code> if the completion is scheduled, otherwise <code>false</code>
+	 */
+	private boolean sExecuteAsync(final Waiter waiter) {
+		if (waiter.timeoutFuture != null) {
+			waiter.timeoutFuture.cancel(false);
+			waiter.timeoutFuture = null;
+		}
+		try {
+			sGetAsyncExecutor().execute(new AsyncBorrowTask(waiter));
+			return true;
+		}
+		catch (final RejectedExecutionException e) {
+			if (waiter.getResult() == Waiter.GRANTED) {
+				sReleaseGranted(waiter);
+			}
+			waiter.complete(Waiter.CLOSED, null);
+			return false;
+		}
+	}
+	
+	/**
+	 * Notifies the callbacks of the waiters refused by {@link #sExecuteAsync(Waiter)}.
+	 * 
+	 * Must be called without holding the pool lock by the methods which can
+	 * serve waiters. Not expected in practice: the waiters are completed before
+	 * the pool is closed finally.
+	 */
+	private void uNotifyRefused() {
+		final Waiter[] refused;
+		synchronized (this) {
+			if (this._refusedWaiters.isEmpty()) {
+				return;
+			}
+			refused = this._refusedWaiters.toArray(new Waiter[this._refusedWaiters.size()]);
+			this._refusedWaiters.clear();
+		}
+		for (final Waiter waiter : refused) {
+			fireBorrowed(null, waiter.requestStamp, EventListener.BORROW_CLOSED);
+			waiter.callback.failed(createBorrowException(Waiter.CLOSED));
+		}
+	}
+	
+	/**
+	 * Returns the executor for async tasks.
+	 * 
+	 * @throws RejectedExecutionException if the pool is closed finally
+	 */
+	private ExecutorService sGetAsyncExecutor() {
+		if (this._asyncExecutor == null) {
+			if (this._closed >= CLOSE_FINAL) {
+				throw new RejectedExecutionException("Pool closed");
+			}
+			this._asyncExecutor = new ThreadPoolExecutor(MAX_ASYNC_THREADS, MAX_ASYNC_THREADS,
+					60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+					new ThreadFactory() {
+						@Override
+						public Thread newThread(final Runnable r) {
+							final Thread thread = new Thread(r, "ExtGenericObjectPool-Async");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			this._asyncExecutor.allowCoreThreadTimeOut(true);
+		}
+		return this._asyncExecutor;
+	}
+	
+	private static Exception createBorrowException(final int result) {
+		switch (result) {
+		case Waiter.EXHAUSTED:
+			return new NoSuchElementException("Pool exhausted");
+		case Waiter.TIMEOUT:
+			return new NoSuchElementException("Timeout waiting for idle object");
+		case Waiter.CLOSED:
+			return new IllegalStateException("Pool not open");
+		default:
+			return new IllegalStateException("Unexpected borrow state: " + result);
+		}
+	}
+	
+	/**
+	 * Creates (if <code>item</code> is <code>null</code>), activates and validates
+	 * the item for a borrower already counted as active.
+	 * 
+	 * If an existing item fails, it is destroyed and the borrower keeps its permission
+	 * and retries with another idle item or a new item, so it neither goes back to the
+	 * end of the queue of waiters nor restarts its max wait time.
+	 * 
+	 * @return the lent item
+	 */
+	private Item uLend(Item item, final Object arg) throws Exception {
+		for (;;) {
 			boolean newlyCreated = false;
 			try {
 				// create new object when needed
@@ -1328,34 +2424,156 @@ public class ExtGenericObjectPool implements ObjectPool {
 					newlyCreated = true;
 					item = uDoCreate();
 				}
+				else {
+					uResume(item);
+				}
+				
+				// passivate the object if it keeps the state of another borrower
+				if (item.detached) {
+					if (!(this._affinity && arg != null && arg.equals(item.affinityKey))) {
+						this._factory.passivateObject(item);
+					}
+					item.detached = false;
+				}
 				
 				// activate & validate the object
 				String label = this._factory.activateObject(item, arg);
 				if(this._testOnBorrow && !this._factory.validateObject(item)) {
 					throw new Exception("ValidateObject failed");
 				}
+				synchronized (this) {
+					if (this._affinity) {
+						sSetAffinityKey(item, arg);
+					}
+				}
 				item.setState(State.LENT, label);
 				return item;
 			}
 			catch (Throwable e) {
+				final boolean closed;
 				synchronized (this) {
 					if (item != null) {
 						sPrepareDestroy(item);
 					}
-					this._numActive--;
-					notifyAll();
+					closed = (this._closed != 0);
+					if (newlyCreated || closed) {
+						this._numActive--;
+						sServeWaiters();
+					}
+					else {
+						item = (!this._idlePool.isEmpty()) ? sTakeIdle(arg) : null;
+					}
 				}
 				if (newlyCreated) {
+					uNotifyRefused();
 					if (e instanceof Exception) {
 						throw (Exception) e;
 					}
 					throw new RuntimeException(e);
 				}
-				else {
-					continue;
+				if (closed) {
+					uNotifyRefused();
+					throw createBorrowException(Waiter.CLOSED);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Hands off idle items or the permission to create new items to the waiting
+	 * callers in FIFO order, as long as the pool allows it.
+	 * 
+	 * Must be called after each change which can make an item available;
+	 * waiters refused by the closed pool are collected for {@link #uNotifyRefused()}.
+	 */
+	private void sServeWaiters() {
+		while (!this._waiters.isEmpty()) {
+			final int result;
+			Item item = null;
+			if (this._closed != 0) {
+				result = Waiter.CLOSED;
+			}
+			else if (!this._idlePool.isEmpty()) {
+				item = sTakeIdle(this._waiters.getFirst().arg);
+				result = Waiter.GRANTED;
+			}
+			else if (this._maxActive < 0
+					|| this._numActive + this._numResetting + this._numCreating < this._maxActive
+					|| this._whenExhaustedAction == WHEN_EXHAUSTED_GROW) {
+				result = Waiter.GRANTED;
+			}
+			else if (this._whenExhaustedAction == WHEN_EXHAUSTED_FAIL) {
+				result = Waiter.EXHAUSTED;
+			}
+			else {
+				return;
+			}
+			final Waiter waiter = this._waiters.removeFirst();
+			sRecordWait(waiter);
+			if (result == Waiter.GRANTED) {
+				sIncrementNumActive();
+			}
+			waiter.complete(result, item);
+			if (waiter.callback != null && !sExecuteAsync(waiter)) {
+				this._refusedWaiters.add(waiter);
+			}
+		}
+	}
+	
+	/**
+	 * Removes an item from the (not empty) idle object pool.  If the affinity
+	 * is enabled, the item last lent to the same argument is preferred.
+	 */
+	private Item sTakeIdle(final Object arg) {
+		if (this._affinity && arg != null) {
+			Item item = this._affinityIndex.get(arg);
+			if (item != null && item.getState() == State.IDLING && this._idlePool.remove(item)) {
+				this._statAffinityHits++;
+				return item;
+			}
+			this._statAffinityMisses++;
+			// prefer items not lent before, then items not keeping the state
+			// of another borrower
+			Item candidate = null;
+			for (Iterator<Item> iter = this._idlePool.iterator(); iter.hasNext(); ) {
+				item = iter.next();
+				if (item.affinityKey == null) {
+					candidate = item;
+					break;
+				}
+				if (candidate == null && !item.detached) {
+					candidate = item;
 				}
 			}
+			if (candidate != null) {
+				this._idlePool.remove(candidate);
+				return candidate;
+			}
+		}
+		return (Item) this._idlePool.removeFirst();
+	}
+	
+	private void sSetAffinityKey(final Item item, final Object key) {
+		if (item.affinityKey != null && this._affinityIndex.get(item.affinityKey) == item) {
+			this._affinityIndex.remove(item.affinityKey);
 		}
+		item.affinityKey = key;
+		if (key != null) {
+			this._affinityIndex.put(key, item);
+		}
+	}
+	
+	private void sIncrementNumActive() {
+		this._numActive++;
+		this._statMaxActive = Math.max(this._numActive, this._statMaxActive);
+		this._statMaxTotal = Math.max(this._numActive+this._numResetting+this._idlePool.size(), this._statMaxTotal);
+	}
+	
+	private void sRecordWait(final Waiter waiter) {
+		final long waitTime = System.currentTimeMillis() - waiter.enqueueStamp;
+		this._statWaitCount++;
+		this._statWaitTimeSum += waitTime;
+		this._statMaxWaitTime = Math.max(waitTime, this._statMaxWaitTime);
 	}
 	
 	@Override
@@ -1382,8 +2600,9 @@ public class ExtGenericObjectPool implements ObjectPool {
 		finally {
 			synchronized (this) {
 				this._numActive--;
-				notifyAll(); // _numActive has changed
+				sServeWaiters(); // _numActive has changed
 			}
+			uNotifyRefused();
 		}
 	}
 	
@@ -1402,9 +2621,10 @@ public class ExtGenericObjectPool implements ObjectPool {
 					it.remove();
 				}
 				this._idlePool.clear();
-				notifyAll(); // num sleeping has changed
+				sServeWaiters(); // num sleeping has changed
 				toDestroy = this._toDestroy.toArray(new Item[this._toDestroy.size()]);
 			}
+			uNotifyRefused();
 			uDoDestroy(toDestroy);
 		}
 		finally {
@@ -1421,6 +2641,8 @@ public class ExtGenericObjectPool implements ObjectPool {
 	 * borrowed again between returns). Violating this contract will result in
 	 * the same object appearing multiple times in the pool and pool counters 
 	 * (numActive, numIdle) returning incorrect values.</p>
+	 * <p>If {@link #setResetInBackground reset in background} is enabled,
+	 * the method returns before the object is passivated.</p>
 	 */
 	@Override
 	public void returnObject(ObjectPoolItem obj) throws Exception {
@@ -1431,6 +2653,16 @@ public class ExtGenericObjectPool implements ObjectPool {
 		if (item.getState() == State.IDLING) {
 			throw new IllegalStateException();
 		}
+		synchronized (this) {
+			if (this._resetInBackground && item.getState() == State.LENT
+					&& this._closed < CLOSE_FINAL) {
+				item.setState(State.RESETTING, null);
+				this._numActive--;
+				this._numResetting++;
+				sGetResetExecutor().execute(new ResetTask(item));
+				return;
+			}
+		}
 		try {
 			uAddToIdlePool(item, true);
 		}
@@ -1441,21 +2673,50 @@ public class ExtGenericObjectPool implements ObjectPool {
 			// "behavior flag",decrementNumActive, from addObjectToPool.
 			synchronized(this) {
 				this._numActive--;
-				notifyAll();
+				sServeWaiters();
 			}
+			uNotifyRefused();
 		}
 	}
 	
 	@Override
-	public synchronized void close(final long timeoutMillis) throws Exception {
+	public void close(final long timeoutMillis) throws Exception {
 		long evict = checkEvict(timeoutMillis, System.nanoTime());
-		startEvictor(-1);
-		this._closed = CLOSE_DAEMON;
-		for (int i = 0; i < this._completePool.size(); i++) {
-			Item item = this._completePool.get(i);
-			sPrepareEvict(item, evict);
+		synchronized (this) {
+			startEvictor(-1);
+			this._closed = CLOSE_DAEMON;
+			for (int i = 0; i < this._completePool.size(); i++) {
+				Item item = this._completePool.get(i);
+				sPrepareEvict(item, evict);
+			}
+			sServeWaiters();
+			startEvictor(100);
+		}
+		uNotifyRefused();
+	}
+	
+	/**
+	 * Waits until the pool closed by {@link #close(long)} destroyed all its items.
+	 * 
+	 * @param timeoutMillis the max time to wait in milliseconds
+	 * @return <code>true</code> if the pool is closed completely, otherwise <code>false</code>
+	 */
+	public synchronized boolean waitForClosed(final long timeoutMillis) {
+		final long deadline = System.nanoTime() + timeoutMillis * 1000000L;
+		while (this._closed < CLOSE_FINAL) {
+			final long remaining = deadline - System.nanoTime();
+			if (this._closed == 0 || remaining <= 0) {
+				return false;
+			}
+			try {
+				TimeUnit.NANOSECONDS.timedWait(this, remaining);
+			}
+			catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
 		}
-		startEvictor(100);
+		return true;
 	}
 	
 	public ObjectPoolItem[] getItems() {
@@ -1478,7 +2739,10 @@ public class ExtGenericObjectPool implements ObjectPool {
 	 * @throws Exception if the pool is closed or eviction fails.
 	 */
 	public void evict() throws Exception {
+		final long evictStamp = System.nanoTime();
 		Item[] toDestroy;
+		final List<Item> toResume = new ArrayList<>();
+		final List<Item> toSuspend = new ArrayList<>();
 		synchronized (this) {
 			if (this._closed >= CLOSE_FINAL) {
 				return;
@@ -1525,10 +2789,10 @@ public class ExtGenericObjectPool implements ObjectPool {
 						removeObject = true;
 					} else if ((this._softMinEvictableIdleTimeMillis > 0)
 							&& (idleTimeMilis > this._softMinEvictableIdleTimeMillis)
-							&& (getNumIdle() > getMinIdle())) {
+							&& (getNumIdle() > this._effectiveMinIdle)) {
 						removeObject = true;
 					}
-					if(this._testWhileIdle && !removeObject) {
+					if(this._testWhileIdle && !removeObject && !item.suspended) {
 						boolean active = false;
 						try {
 							this._factory.activateObject(item, null);
@@ -1557,68 +2821,294 @@ public class ExtGenericObjectPool implements ObjectPool {
 					}
 				}
 			} // if !empty
+			sSelectSuspended(toResume, toSuspend);
+			sContinueRollingUpdate();
 			toDestroy = this._toDestroy.toArray(new Item[this._toDestroy.size()]);
 			this._toDestroy.clear();
 			
 			if (this._closed != 0 && toDestroy.length == 0 && this._completePool.isEmpty()) {
 				this._closed = CLOSE_FINAL;
+				notifyAll();
 				startEvictor(-1);
 				this.timer.unregister();
+				if (this._asyncExecutor != null) {
+					this._asyncExecutor.shutdown();
+					this._asyncExecutor = null;
+				}
+				if (this._resetExecutor != null) {
+					this._resetExecutor.shutdown();
+					this._resetExecutor = null;
+				}
+				if (this._createExecutor != null) {
+					this._createExecutor.shutdown();
+					this._createExecutor = null;
+				}
 			}
 		}
 		uDoDestroy(toDestroy);
+		for (final Item item : toResume) {
+			try {
+				uResume(item);
+			}
+			catch (final Exception e) {
+				synchronized (this) {
+					if (!this._idlePool.remove(item)) {
+						continue;
+					}
+				}
+				uDoDestroy(new Item[] { item });
+			}
+		}
+		for (final Item item : toSuspend) {
+			uSuspend(item);
+		}
+		final EventListener listener = this._eventListener;
+		if (listener != null) {
+			listener.evictorRun(System.nanoTime() - evictStamp, toDestroy.length, getNumIdle());
+		}
 	}
 	
 	/**
-	 * Check to see if we are below our minimum number of objects
-	 * if so enough to bring us back to our minimum.
-	 * 
-	 * @throws Exception when {@link #addObject()} fails.
-	 */
-	private void ensureMinIdle() throws Exception {
-		// this method isn't synchronized so the
-		// calculateDeficit is done at the beginning
-		// as a loop limit and a second time inside the loop
-		// to stop when another thread already returned the
-		// needed objects
-		int m = this._numTestsPerEvictionRun;
-		if (m < 0) {
-			m = this._minIdle / (-m);
-		}
-		if (m <= 0) {
-			m = 1;
-		}
-		for (int i = 0; ; ) {
-			synchronized (this) {
-				if (this._closed > 0 || sCalculateDeficit() <= 0) {
-					return;
+	 * Selects the idle items to suspend and to resume according to the cap
+	 * on the number of idle items kept awake.  The items borrowed next
+	 * (at the head of the idle object pool) are kept awake.
+	 * @see #setMaxAwakeIdle(int)
+	 */
+	private void sSelectSuspended(final List<Item> toResume, final List<Item> toSuspend) {
+		final int maxAwake = (this._closed == 0) ? this._maxAwakeIdle : -1;
+		int awake = 0;
+		for (final Iterator<Item> iter = this._idlePool.iterator(); iter.hasNext(); ) {
+			final Item item = iter.next();
+			if (maxAwake < 0 || awake < maxAwake) {
+				awake++;
+				if (item.suspended) {
+					toResume.add(item);
 				}
 			}
-			Item item = null;
+			else if (!item.suspended) {
+				item.suspendable = true;
+				toSuspend.add(item);
+			}
+		}
+	}
+	
+	/**
+	 * Suspends the idle item, if it is still selected to be suspended.
+	 */
+	private void uSuspend(final Item item) {
+		synchronized (item) {
+			if (!item.suspendable || item.suspended || item.getState() != State.IDLING) {
+				return;
+			}
 			try {
-				item = uDoCreate();
-				uAddToIdlePool(item, false);
-				if (++i >= m) {
-					return;
-				}
-				Thread.sleep(100);
+				this._factory.suspendObject(item);
+				item.suspended = true;
 			}
-			catch (InterruptedException e) {
-				Thread.interrupted();
+			catch (final Exception e) {
+				item.suspendable = false;
 			}
-			catch (Throwable e) {
-				if (item != null) {
-					uDoDestroy(new Item[] { item });
+		}
+	}
+	
+	/**
+	 * Resumes the item, if it is suspended, and cancels a pending suspension.
+	 * 
+	 * @throws Exception if resuming the item failed
+	 */
+	private void uResume(final Item item) throws Exception {
+		synchronized (item) {
+			item.suspendable = false;
+			if (item.suspended) {
+				this._factory.resumeObject(item);
+				item.suspended = false;
+			}
+		}
+	}
+	
+	/**
+	 * Starts the creation of objects until the minimum number of idle
+	 * objects is reached.  The method does not wait for the creation;
+	 * the objects are created concurrently, at most {@link #getMaxCreating()}
+	 * at the same time.
+	 * 
+	 * This is done regularly by the idle object evictor, but can be used
+	 * to "pre-load" the pool directly after its creation.
+	 */
+	public void preparePool() {
+		ensureMinIdle();
+	}
+	
+	/**
+	 * Check to see if we are below our minimum number of objects
+	 * if so start the creation of enough objects to bring us back to our
+	 * minimum.
+	 */
+	private void ensureMinIdle() {
+		synchronized (this) {
+			if (this._closed > 0) {
+				return;
+			}
+			int m = Math.min(sCalculateDeficit(), this._maxCreating - this._numCreating);
+			if (m <= 0) {
+				return;
+			}
+			final ExecutorService executor = sGetCreateExecutor();
+			for (; m > 0; m--) {
+				this._numCreating++;
+				executor.execute(new CreateTask(null));
+			}
+		}
+	}
+	
+	/**
+	 * Starts the creation of the successor of a retiring item, if the total
+	 * number of items stays within <code>maxActive</code>.
+	 * @return <code>true</code> if the creation is started, otherwise <code>false</code>
+	 * @see #setReplaceRetiring(boolean)
+	 */
+	private boolean sStartReplacement(final Item item) {
+		if (this._closed != 0) {
+			return false;
+		}
+		if (this._maxActive > 0 && getNumActive() + getNumIdle() + this._numCreating + this._numResetting
+				>= getMaxActive() ) {
+			return false;
+		}
+		item.retiring = true;
+		this._numCreating++;
+		sGetCreateExecutor().execute(new CreateTask(item));
+		return true;
+	}
+	
+	/**
+	 * Marks the retiring item as replaced and removes it from the idle object
+	 * pool, if it is idle.
+	 * 
+	 * @return <code>true</code> if the item must be destroyed by the caller
+	 */
+	private boolean sRemoveReplaced(final Item item) {
+		item.retiring = false;
+		item.replaced = true;
+		if (this._idlePool.remove(item)) {
+			item.setState(State.EVICTING, null);
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Starts the replacement of outdated idle items according to the rolling
+	 * update rate.
+	 * @see #setRollingUpdateRate(int)
+	 */
+	private void sContinueRollingUpdate() {
+		sUpdateRollingUpdateCredit();
+		if (this._rollingUpdateCredit < 1.0 || this._closed != 0) {
+			return;
+		}
+		for (final Iterator<Item> iter = this._idlePool.iterator();
+				this._rollingUpdateCredit >= 1.0 && iter.hasNext(); ) {
+			final Item item = iter.next();
+			if (item.generation != this._generation && !item.retiring && !item.replaced) {
+				if (!sStartReplacement(item)) {
+					// no capacity for the successor, the deficit is created again
+					iter.remove();
+					sPrepareDestroy(item);
 				}
-				throw new Exception("Failed to create additional item.", e);
+				this._rollingUpdateCredit -= 1.0;
+			}
+		}
+	}
+	
+	/**
+	 * Adds the credit for replacements accumulated since the last update.
+	 * The credit is capped to one replacement, so the replacements are spread
+	 * according to the rate.
+	 */
+	private void sUpdateRollingUpdateCredit() {
+		final long stamp = System.currentTimeMillis();
+		final int rate = this._rollingUpdateRate;
+		if (rate > 0) {
+			this._rollingUpdateCredit = Math.min(1.0,
+					this._rollingUpdateCredit + rate * (stamp - this._rollingUpdateStamp) / 60000.0);
+		}
+		else {
+			this._rollingUpdateCredit = 0;
+		}
+		this._rollingUpdateStamp = stamp;
+	}
+	
+	/**
+	 * Takes the credit for the replacement of an outdated returned item.
+	 * With a rate of <code>0</code>, outdated items are replaced when returned without limit.
+	 * @return <code>true</code> if the replacement can be started
+	 */
+	private boolean sTakeRollingUpdateCredit() {
+		if (this._rollingUpdateRate == 0) {
+			return true;
+		}
+		sUpdateRollingUpdateCredit();
+		if (this._rollingUpdateCredit < 1.0) {
+			return false;
+		}
+		this._rollingUpdateCredit -= 1.0;
+		return true;
+	}
+	
+	private ExecutorService sGetResetExecutor() {
+		if (this._resetExecutor == null) {
+			this._resetExecutor = new ThreadPoolExecutor(MAX_RESET_THREADS, MAX_RESET_THREADS,
+					60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+					new ThreadFactory() {
+						@Override
+						public Thread newThread(final Runnable r) {
+							final Thread thread = new Thread(r, "ExtGenericObjectPool-Reset");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			this._resetExecutor.allowCoreThreadTimeOut(true);
+		}
+		return this._resetExecutor;
+	}
+	
+	private ExecutorService sGetCreateExecutor() {
+		if (this._createExecutor == null) {
+			this._createExecutor = new ThreadPoolExecutor(this._maxCreating, this._maxCreating,
+					60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+					new ThreadFactory() {
+						@Override
+						public Thread newThread(final Runnable r) {
+							final Thread thread = new Thread(r, "ExtGenericObjectPool-Create");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			this._createExecutor.allowCoreThreadTimeOut(true);
+		}
+		return this._createExecutor;
+	}
+	
+	private void updateEffectiveMinIdle() {
+		final int minIdle;
+		final int maxMinIdle;
+		synchronized (this) {
+			minIdle = this._minIdle;
+			maxMinIdle = this._maxAdaptiveMinIdle;
+		}
+		final int effectiveMinIdle = this._sizer.update(minIdle, maxMinIdle);
+		synchronized (this) {
+			if (this._minIdle == minIdle && this._maxAdaptiveMinIdle == maxMinIdle) {
+				this._effectiveMinIdle = effectiveMinIdle;
 			}
 		}
 	}
 	
 	private int sCalculateDeficit() {
-		int objectDeficit = getMinIdle() - getNumIdle();
+		// objects currently created or reset are counted as idle
+		int objectDeficit = this._effectiveMinIdle - getNumIdle() - this._numCreating - this._numResetting;
 		if (this._maxActive > 0) {
-			int growLimit = Math.max(0, getMaxActive() - getNumActive() - getNumIdle());
+			int growLimit = Math.max(0, getMaxActive() - getNumActive() - getNumIdle() - this._numCreating - this._numResetting);
 			objectDeficit = Math.min(objectDeficit, growLimit);
 		}
 		return objectDeficit;
@@ -1627,11 +3117,13 @@ public class ExtGenericObjectPool implements ObjectPool {
 	
 	private Item uDoCreate() throws Throwable {
 		Item item = new Item();
+		item.generation = getGeneration();
 		try {
 			synchronized (this._completePool) {
 				this._completePool.add(item);
 			}
 			this._factory.makeObject(item);
+			this._sizer.created(System.currentTimeMillis() - item.createStamp);
 			return item;
 		}
 		catch (Throwable e) {
@@ -1688,7 +3180,14 @@ public class ExtGenericObjectPool implements ObjectPool {
 	private void uDoDestroy(Item[] toDestroy) {
 		if (toDestroy != null) {
 			for (Item item : toDestroy) {
+				final long stamp = System.nanoTime();
 				item.setState(State.EVICTING, null);
+				try {
+					uResume(item);
+				}
+				catch (final Exception e) {
+					// logged by the factory, destroy the item anyway
+				}
 				try {
 					this._factory.destroyObject(item);
 				}
@@ -1697,10 +3196,17 @@ public class ExtGenericObjectPool implements ObjectPool {
 					e.printStackTrace();
 				}
 				item.destroyStamp = System.currentTimeMillis();
+				synchronized (this) {
+					sSetAffinityKey(item, null);
+				}
 				synchronized (this._completePool) {
 					this._completePool.remove(item);
 					item.setState(State.EVICTED, null);
 				}
+				final EventListener listener = this._eventListener;
+				if (listener != null) {
+					listener.destroyed(item, System.nanoTime() - stamp);
+				}
 			}
 		}
 	}
@@ -1752,52 +3258,234 @@ public class ExtGenericObjectPool implements ObjectPool {
 	}
 	
 	private void uAddToIdlePool(Item item, boolean decrementNumActive) throws Exception {
-		boolean success = true;
-		if((this._testOnReturn && !(this._factory.validateObject(item))) || item.evict != 0) {
-			success = false;
+		boolean success = uPassivate(item, decrementNumActive);
+		
+		synchronized (this) {
+			sAddToIdlePool(item, success, decrementNumActive);
+		}
+		uNotifyRefused();
+	}
+	
+	/**
+	 * Validates (if <code>testOnReturn</code> is set) and passivates the item.
+	 * 
+	 * @param returned if the item is returned by a borrower
+	 * @return <code>true</code> if the item can be added to the idle object pool
+	 */
+	private boolean uPassivate(Item item, boolean returned) throws Exception {
+		if (!returned) {
+			return uDoPassivate(item, false);
+		}
+		final long stamp = System.nanoTime();
+		boolean success = false;
+		try {
+			success = uDoPassivate(item, true);
+			return success;
+		}
+		finally {
+			final EventListener listener = this._eventListener;
+			if (listener != null) {
+				listener.returned(item, System.nanoTime() - stamp, success);
+			}
+		}
+	}
+	
+	private boolean uDoPassivate(Item item, boolean returned) throws Exception {
+		if (item.evict != 0) {
+			return false;
+		}
+		final boolean valid = (!this._testOnReturn || this._factory.validateObject(item));
+		final boolean replaceable = (valid || (this._replaceRetiring && this._factory.isReplaceable(item)));
+		synchronized (this) {
+			if (!valid) {
+				item.invalid = true;
+			}
+			if (item.invalid || (this._rollingUpdateRate >= 0 && item.generation != this._generation)) {
+				// outdated objects are replaced before they are destroyed, if possible
+				if (!replaceable || item.replaced || this._closed != 0) {
+					return false;
+				}
+				if (!item.retiring) {
+					if (item.invalid) {
+						if (!sStartReplacement(item)) {
+							// no capacity for the successor
+							return false;
+						}
+					}
+					else if (sTakeRollingUpdateCredit()
+							&& !sStartReplacement(item) && this._rollingUpdateRate > 0) {
+						// no capacity for the successor, keep the credit
+						this._rollingUpdateCredit += 1.0;
+					}
+					// otherwise the outdated item is kept, replaced later by the rolling update
+				}
+			}
+		}
+		long stamp = System.currentTimeMillis();
+		if (this._affinityKeepState && item.affinityKey != null) {
+			this._factory.detachObject(item);
+			item.detached = true;
 		}
 		else {
 			this._factory.passivateObject(item);
 		}
-		
+		if (returned) {
+			long resetTime = System.currentTimeMillis() - stamp;
+			synchronized (this) {
+				this._statResetCount++;
+				this._statResetTimeSum += resetTime;
+				this._statMaxResetTime = Math.max(resetTime, this._statMaxResetTime);
+			}
+		}
+		return true;
+	}
+	
+	private void sAddToIdlePool(Item item, boolean success, boolean decrementNumActive) {
 		// Add instance to pool if there is room and it has passed validation
 		// (if testOnreturn is set)
-		synchronized (this) {
-			switch (item.getState()) {
-			case EVICTING:
-			case EVICTED:
-				return;
-			default:
-				break;
-			}
-			final int numActive = (decrementNumActive) ? (this._numActive - 1) : this._numActive;
-			final int numIdle = this._idlePool.size() + 1;
-			if (success && this._closed == 0 && numIdle <= this._maxIdle && item.evict == 0) {
-				// borrowObject always takes the first element from the queue,
-				// so for LIFO, push on top, FIFO add to end
-				item.setState(State.IDLING, null);
-				if (this._lifo) {
-					this._idlePool.addFirst(item);
-				}
-				else {
-					this._idlePool.addLast(item);
-				}
-				this._statMaxIdle = Math.max(numIdle, this._statMaxIdle);
-				this._statMaxTotal = Math.max(numActive+numIdle, this._statMaxTotal);
+		switch (item.getState()) {
+		case EVICTING:
+		case EVICTED:
+			return;
+		default:
+			break;
+		}
+		final int numActive = (decrementNumActive) ? (this._numActive - 1) : this._numActive;
+		final int numIdle = this._idlePool.size() + 1;
+		if (success && this._closed == 0 && item.evict == 0
+				&& (numIdle <= this._maxIdle || !this._waiters.isEmpty()) ) {
+			// borrowObject always takes the first element from the queue,
+			// so for LIFO, push on top, FIFO add to end
+			item.setState(State.IDLING, null);
+			if (this._lifo || !this._waiters.isEmpty()) {
+				this._idlePool.addFirst(item);
 			}
 			else {
-				sPrepareDestroy(item);
-			}
-			
-			if (decrementNumActive) {
-				this._numActive = numActive;
-				notifyAll();
+				this._idlePool.addLast(item);
 			}
+			this._statMaxIdle = Math.max(numIdle, this._statMaxIdle);
+			this._statMaxTotal = Math.max(numActive+this._numResetting+numIdle, this._statMaxTotal);
+		}
+		else {
+			sPrepareDestroy(item);
 		}
+		
+		if (decrementNumActive) {
+			this._numActive = numActive;
+		}
+		// hand off to the oldest waiting caller
+		sServeWaiters();
 	}
 	
 	//--- inner classes ----------------------------------------------
 	
+	/**
+	 * Creates a single object and adds it to the idle object pool.
+	 * @see ExtGenericObjectPool#ensureMinIdle()
+	 */
+	private class CreateTask implements Runnable {
+		
+		
+		/** The retiring item to replace, or <code>null</code> */
+		private final Item predecessor;
+		
+		
+		CreateTask(final Item predecessor) {
+			this.predecessor = predecessor;
+		}
+		
+		
+		@Override
+		public void run() {
+			Item item = null;
+			boolean success = false;
+			try {
+				if (ExtGenericObjectPool.this._closed > 0) {
+					return;
+				}
+				item = uDoCreate();
+				success = uPassivate(item, false);
+			}
+			catch (Throwable e) {
+				if (item != null) {
+					uDoDestroy(new Item[] { item });
+					item = null;
+				}
+				fireFailed(null, "Failed to create additional item.", e);
+			}
+			finally {
+				boolean destroyPredecessor = false;
+				synchronized (ExtGenericObjectPool.this) {
+					ExtGenericObjectPool.this._numCreating--;
+					if (this.predecessor != null) {
+						if (item != null || this.predecessor.invalid) {
+							// swap the successor in
+							destroyPredecessor = sRemoveReplaced(this.predecessor);
+						}
+						else {
+							// keep the valid predecessor, the replacement is tried again later
+							this.predecessor.retiring = false;
+						}
+					}
+					if (item != null) {
+						sAddToIdlePool(item, success, false);
+					}
+					else {
+						sServeWaiters(); // _numCreating has changed
+					}
+				}
+				uNotifyRefused();
+				if (destroyPredecessor) {
+					uDoDestroy(new Item[] { this.predecessor });
+				}
+			}
+		}
+		
+	}
+	
+	/**
+	 * Resets a returned object in the background and adds it to the idle
+	 * object pool.
+	 * @see ExtGenericObjectPool#setResetInBackground(boolean)
+	 */
+	private class ResetTask implements Runnable {
+		
+		
+		private final Item item;
+		
+		
+		ResetTask(final Item item) {
+			this.item = item;
+		}
+		
+		
+		@Override
+		public void run() {
+			boolean success;
+			try {
+				success = uPassivate(this.item, true);
+			}
+			catch (Throwable e) {
+				final State state;
+				synchronized (ExtGenericObjectPool.this) {
+					state = this.item.getState();
+				}
+				if (state == State.RESETTING) { // not yet evicted by the evictor
+					uDoDestroy(new Item[] { this.item });
+				}
+				fireFailed(this.item, "Failed to reset returned item.", e);
+				success = false;
+			}
+			synchronized (ExtGenericObjectPool.this) {
+				ExtGenericObjectPool.this._numResetting--;
+				sAddToIdlePool(this.item, success, false);
+				sServeWaiters(); // _numResetting has changed
+			}
+			uNotifyRefused();
+		}
+		
+	}
+	
 	/**
 	 * The idle object evictor {@link TimerTask}.
 	 * @see ExtGenericObjectPool#setTimeBetweenEvictionRunsMillis
@@ -1817,15 +3505,13 @@ public class ExtGenericObjectPool implements ObjectPool {
 				ExtGenericObjectPool.this._clearLock.unlock();
 			}
 			
-			ExtGenericObjectPool.this._clearLock.lock();
+			// only starts the creation, so no need for _clearLock
 			try {
+				updateEffectiveMinIdle();
 				ensureMinIdle();
 			} catch(Throwable e) {
 				e.printStackTrace();
 			}
-			finally {
-				ExtGenericObjectPool.this._clearLock.unlock();
-			}
 		}
 	}
 	
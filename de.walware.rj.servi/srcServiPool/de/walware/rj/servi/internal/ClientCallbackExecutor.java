@@ -0,0 +1,211 @@
+/*=============================================================================#
+ # Copyright (c) 2009-2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.rj.servi.internal;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.walware.rj.RjException;
+import de.walware.rj.servi.RServi;
+import de.walware.rj.servi.pool.RServiPoolAsync;
+
+
+/**
+ * Calls the {@link RServiPoolAsync.Callback callbacks} of the clients (RMI) by a bounded
+ * number of threads.
+ * 
+ * RMI calls have no response timeout, so a delivery of a node not completed within
+ * {@link #DELIVERY_TIMEOUT} after the request of the delivery is abandoned and the node is
+ * returned to the pool, even if the delivery did not yet start.  The client is notified about
+ * abandoned deliveries (best effort) by a separate executor, so hung clients do not delay the
+ * delivery to other clients.  The callbacks of the clients are exported with a socket factory
+ * setting a read timeout ({@link RServiRequest#CALLBACK_TIMEOUT}), which releases threads
+ * blocked by hung clients.
+ */
+class ClientCallbackExecutor {
+	
+	
+	static final long DELIVERY_TIMEOUT = 30000;
+	
+	private static final int MAX_THREADS = 8;
+	
+	private static final int MAX_NOTIFY_THREADS = 2;
+	private static final int MAX_NOTIFY_QUEUE = 256;
+	
+	private static final int PENDING = 0;
+	private static final int DELIVERED = 1;
+	private static final int ABANDONED = 2;
+	
+	
+	private class DeliveryTask implements Runnable {
+		
+		
+		private final RServiPoolAsync.Callback callback;
+		private final RServi rservi;
+		private final Runnable returnAction;
+		
+		private final AtomicInteger state = new AtomicInteger(PENDING);
+		
+		private volatile Future<?> future;
+		private volatile Future<?> timeoutFuture;
+		
+		
+		DeliveryTask(final RServiPoolAsync.Callback callback, final RServi rservi,
+				final Runnable returnAction) {
+			this.callback = callback;
+			this.rservi = rservi;
+			this.returnAction = returnAction;
+		}
+		
+		
+		@Override
+		public void run() {
+			if (this.state.get() != PENDING) {
+				return;
+			}
+			try {
+				this.callback.completed(this.rservi);
+				this.state.compareAndSet(PENDING, DELIVERED);
+			}
+			catch (final Exception e) {
+				if (this.state.compareAndSet(PENDING, ABANDONED)) {
+					Utils.logWarning("Failed to deliver the RServi instance to the client, returning it to the pool.", e);
+					abandon();
+				}
+			}
+			finally {
+				final Future<?> timeoutFuture = this.timeoutFuture;
+				if (timeoutFuture != null) {
+					timeoutFuture.cancel(false);
+				}
+			}
+		}
+		
+		void timeout() {
+			if (this.state.compareAndSet(PENDING, ABANDONED)) {
+				Utils.logWarning("The client did not accept the RServi instance within the delivery timeout, returning it to the pool.");
+				// removes the task if it is still queued
+				final Future<?> future = this.future;
+				if (future != null) {
+					future.cancel(true);
+					ClientCallbackExecutor.this.executor.remove((Runnable) future);
+				}
+				abandon();
+			}
+		}
+		
+		private void abandon() {
+			this.returnAction.run();
+			fail(this.callback, new RjException("The RServi instance could not be delivered to the client."));
+		}
+		
+	}
+	
+	private static ThreadFactory createThreadFactory(final String name) {
+		return new ThreadFactory() {
+			@Override
+			public Thread newThread(final Runnable r) {
+				final Thread thread = new Thread(r, name);
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
+	
+	
+	private final ThreadPoolExecutor executor;
+	
+	private final ScheduledThreadPoolExecutor timeoutExecutor;
+	
+	private final ThreadPoolExecutor notifyExecutor;
+	
+	
+	public ClientCallbackExecutor() {
+		this.executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS,
+				60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+				createThreadFactory("RServi-ClientCallback") );
+		this.executor.allowCoreThreadTimeOut(true);
+		this.timeoutExecutor = new ScheduledThreadPoolExecutor(1,
+				createThreadFactory("RServi-ClientCallbackTimeout") );
+		this.timeoutExecutor.setRemoveOnCancelPolicy(true);
+		this.notifyExecutor = new ThreadPoolExecutor(MAX_NOTIFY_THREADS, MAX_NOTIFY_THREADS,
+				60L, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(MAX_NOTIFY_QUEUE),
+				createThreadFactory("RServi-ClientNotify") );
+		this.notifyExecutor.allowCoreThreadTimeOut(true);
+	}
+	
+	
+	/**
+	 * Delivers the RServi instance to the client.
+	 * 
+	 * @param callback the callback of the client
+	 * @param rservi the RServi instance
+	 * @param returnAction returns the node to the pool if the delivery failed
+	 */
+	public void deliver(final RServiPoolAsync.Callback callback, final RServi rservi,
+			final Runnable returnAction) {
+		final DeliveryTask task = new DeliveryTask(callback, rservi, returnAction);
+		try {
+			task.timeoutFuture = this.timeoutExecutor.schedule(new Runnable() {
+				@Override
+				public void run() {
+					task.timeout();
+				}
+			}, DELIVERY_TIMEOUT, TimeUnit.MILLISECONDS);
+			task.future = this.executor.submit(task);
+		}
+		catch (final RejectedExecutionException e) {
+			if (task.timeoutFuture != null) {
+				task.timeoutFuture.cancel(false);
+			}
+			if (task.state.compareAndSet(PENDING, ABANDONED)) {
+				Utils.logWarning("Failed to deliver the RServi instance to the client, the pool is closed.");
+				returnAction.run();
+			}
+		}
+	}
+	
+	/**
+	 * Notifies the client about the failure of its request.
+	 * 
+	 * @param callback the callback of the client
+	 * @param e the exception to report
+	 */
+	public void fail(final RServiPoolAsync.Callback callback, final Exception e) {
+		try {
+			this.notifyExecutor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						callback.failed(e);
+					}
+					catch (final Exception ignore) {}
+				}
+			});
+		}
+		catch (final RejectedExecutionException ignore) {}
+	}
+	
+	public void dispose() {
+		this.executor.shutdown();
+		this.timeoutExecutor.shutdown();
+		this.notifyExecutor.shutdown();
+	}
+	
+}
@@ -102,6 +102,76 @@ public class MXNode implements NodeMXBean {
 		}
 	}
 	
+	@Override
+	public long getRHeapSize() {
+		return this.handler.getRHeapSize();
+	}
+	
+	@Override
+	public long getProcessMemory() {
+		return this.handler.getProcessMemory();
+	}
+	
+	@Override
+	public long getCpuTime() {
+		return this.handler.getCpuTime();
+	}
+	
+	@Override
+	public long getCgroupMemory() {
+		return this.handler.getCgroupMemory();
+	}
+	
+	@Override
+	public boolean isHibernated() {
+		return this.handler.isHibernated();
+	}
+	
+	@Override
+	public long getBusyTime() {
+		return this.handler.getBusyTime();
+	}
+	
+	@Override
+	public long getNumCommands() {
+		return this.handler.getNumCommands();
+	}
+	
+	@Override
+	public long getBytesIn() {
+		return this.handler.getBytesIn();
+	}
+	
+	@Override
+	public long getBytesOut() {
+		return this.handler.getBytesOut();
+	}
+	
+	@Override
+	public String getShutdownReason() {
+		return Stats.getShutdownReasonLabel(this.handler.stats.shutdownReason);
+	}
+	
+	@Override
+	public long getStartupTime() {
+		return this.handler.getStartupTime();
+	}
+	
+	@Override
+	public long getStartupSnippetTime() {
+		return this.handler.getStartupSnippetTime();
+	}
+	
+	@Override
+	public long getPreloadSize() {
+		return this.handler.getPreloadSize();
+	}
+	
+	@Override
+	public String getProcessOutput() {
+		return this.handler.getProcessOutput();
+	}
+	
 	@Override
 	public void stop() throws OperationsException {
 		final PoolConfig config = new PoolConfig();
@@ -0,0 +1,140 @@
+/*=============================================================================#
+ # Copyright (c) 2009-2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.rj.servi.internal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.Charset;
+
+import de.walware.rj.servi.pool.PoolMetrics;
+
+
+/**
+ * Minimal HTTP listener serving the {@link PoolMetrics} at <code>/metrics</code>.
+ * 
+ * The requests are handled one by one by a single daemon thread; the connection is
+ * closed after each response.
+ */
+public class MetricsHttpListener implements Runnable {
+	
+	
+	private static final Charset ASCII = Charset.forName("US-ASCII");
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	
+	private static final int SO_TIMEOUT = 5000;
+	
+	
+	private final PoolMetrics metrics;
+	
+	private final ServerSocket serverSocket;
+	
+	private final Thread thread;
+	
+	
+	/**
+	 * Creates the listener and starts listening at the given port.
+	 * 
+	 * @param metrics the metrics to serve
+	 * @param host the address to bind to or <code>null</code> for all addresses
+	 * @param port the port
+	 * @throws IOException if the port could not be bound
+	 */
+	public MetricsHttpListener(final PoolMetrics metrics, final String host, final int port)
+			throws IOException {
+		this.metrics = metrics;
+		this.serverSocket = new ServerSocket();
+		this.serverSocket.setReuseAddress(true);
+		this.serverSocket.bind((host != null) ?
+				new InetSocketAddress(host, port) : new InetSocketAddress(port) );
+		
+		this.thread = new Thread(this, "RServi-MetricsListener");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+	
+	
+	public void dispose() {
+		try {
+			this.serverSocket.close();
+		}
+		catch (final IOException e) {}
+	}
+	
+	@Override
+	public void run() {
+		while (!this.serverSocket.isClosed()) {
+			try (final Socket socket = this.serverSocket.accept()) {
+				socket.setSoTimeout(SO_TIMEOUT);
+				handle(socket);
+			}
+			catch (final SocketException e) {
+				if (this.serverSocket.isClosed()) {
+					return;
+				}
+			}
+			catch (final IOException e) {
+				// next request
+			}
+		}
+	}
+	
+	private void handle(final Socket socket) throws IOException {
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(
+				socket.getInputStream(), ASCII ));
+		final String requestLine = reader.readLine();
+		if (requestLine == null) {
+			return;
+		}
+		String line;
+		while ((line = reader.readLine()) != null && !line.isEmpty()) {
+			// skip headers
+		}
+		
+		final String[] parts = requestLine.split(" ");
+		final String method = parts[0];
+		final String path = (parts.length > 1) ? parts[1] : "";
+		final OutputStream out = socket.getOutputStream();
+		if (!method.equals("GET") && !method.equals("HEAD")) {
+			writeResponse(out, "405 Method Not Allowed", "text/plain", new byte[0], false);
+		}
+		else if (path.equals("/metrics") || path.startsWith("/metrics?")) {
+			writeResponse(out, "200 OK", PoolMetrics.CONTENT_TYPE,
+					this.metrics.getText().getBytes(UTF8), method.equals("GET") );
+		}
+		else {
+			writeResponse(out, "404 Not Found", "text/plain", new byte[0], false);
+		}
+	}
+	
+	private void writeResponse(final OutputStream out, final String status,
+			final String contentType, final byte[] content, final boolean body)
+			throws IOException {
+		final StringBuilder sb = new StringBuilder(128);
+		sb.append("HTTP/1.1 ").append(status).append("\r\n");
+		sb.append("Content-Type: ").append(contentType).append("\r\n");
+		sb.append("Content-Length: ").append(content.length).append("\r\n");
+		sb.append("Connection: close\r\n");
+		sb.append("\r\n");
+		out.write(sb.toString().getBytes(ASCII));
+		if (body) {
+			out.write(content);
+		}
+		out.flush();
+	}
+	
+}
@@ -0,0 +1,193 @@
+/*=============================================================================#
+ # Copyright (c) 2009-2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.rj.servi.internal;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+import de.walware.ecommons.net.RMIAddress;
+
+import de.walware.rj.servi.acommons.pool.ObjectPoolItem;
+import de.walware.rj.servi.acommons.pool.impl.ExtGenericObjectPool;
+
+
+/**
+ * Recording of the recent events of the pool and its nodes (timeline).
+ * 
+ * The events are kept in a ring buffer of fixed size, so the recording can run
+ * continuously.  The time of an event is the wall-clock time of its end, so they can be
+ * correlated with e.g. the GC log of the pool server; the evictor runs additionally
+ * record the accumulated count and time of garbage collections.
+ */
+public class PoolEventLog implements ExtGenericObjectPool.EventListener {
+	
+	
+	public static final int DEFAULT_CAPACITY = 4096;
+	
+	public static final String BORROW = "Borrow";
+	public static final String RETURN = "Return";
+	public static final String RESET = "Reset";
+	public static final String VALIDATE = "Validate";
+	public static final String NODE_CREATE = "NodeCreate";
+	public static final String NODE_DESTROY = "NodeDestroy";
+	public static final String EVICTOR_RUN = "EvictorRun";
+	public static final String FAILURE = "Failure";
+	
+	private static final String[] BORROW_OUTCOMES = new String[] {
+			"lent", "exhausted", "timeout", "closed", "failed" };
+	
+	
+	private static final class Event {
+		
+		final long time;
+		final long duration;
+		final String type;
+		final String thread;
+		final String node;
+		final String details;
+		
+		Event(final long duration, final String type, final String node, final String details) {
+			this.time = System.currentTimeMillis();
+			this.duration = duration;
+			this.type = type;
+			this.thread = Thread.currentThread().getName();
+			this.node = node;
+			this.details = details;
+		}
+		
+	}
+	
+	
+	private static String getNodeId(final ObjectPoolItem item) {
+		if (item != null) {
+			final Object obj = item.getObject();
+			if (obj instanceof PoolObject) {
+				final RMIAddress address = ((PoolObject) obj).getAddress();
+				if (address != null) {
+					return address.getName();
+				}
+			}
+		}
+		return null;
+	}
+	
+	
+	private final Event[] events;
+	private int next;
+	private boolean full;
+	
+	
+	public PoolEventLog(final int capacity) {
+		this.events = new Event[capacity];
+	}
+	
+	
+	private void add(final Event event) {
+		synchronized (this.events) {
+			this.events[this.next++] = event;
+			if (this.next == this.events.length) {
+				this.next = 0;
+				this.full = true;
+			}
+		}
+	}
+	
+	/**
+	 * Records an event.
+	 * 
+	 * @param type the type of the event
+	 * @param item the pool item of the node or <code>null</code>
+	 * @param nanos the duration of the event in nanoseconds
+	 * @param details additional information (<code>key=value</code> pairs) or <code>null</code>
+	 */
+	public void log(final String type, final ObjectPoolItem item, final long nanos,
+			final String details) {
+		add(new Event(nanos, type, getNodeId(item), details));
+	}
+	
+	@Override
+	public void borrowed(final ObjectPoolItem item, final long waitNanos, final int outcome) {
+		add(new Event(waitNanos, BORROW, getNodeId(item), "outcome=" + BORROW_OUTCOMES[outcome]));
+	}
+	
+	@Override
+	public void returned(final ObjectPoolItem item, final long resetNanos, final boolean idle) {
+		add(new Event(resetNanos, RETURN, getNodeId(item), (idle) ? "idle=true" : "idle=false"));
+	}
+	
+	@Override
+	public void destroyed(final ObjectPoolItem item, final long nanos) {
+		add(new Event(nanos, NODE_DESTROY, getNodeId(item), null));
+	}
+	
+	@Override
+	public void evictorRun(final long nanos, final int numDestroyed, final int numIdle) {
+		long gcCount = 0;
+		long gcTime = 0;
+		final List<GarbageCollectorMXBean> gcBeans = ManagementFactory.getGarbageCollectorMXBeans();
+		for (final GarbageCollectorMXBean gcBean : gcBeans) {
+			gcCount += Math.max(gcBean.getCollectionCount(), 0);
+			gcTime += Math.max(gcBean.getCollectionTime(), 0);
+		}
+		add(new Event(nanos, EVICTOR_RUN, null, "destroyed=" + numDestroyed + " idle=" + numIdle
+				+ " gc.count=" + gcCount + " gc.time=" + gcTime + "ms" ));
+	}
+	
+	@Override
+	public void failed(final ObjectPoolItem item, final String message, final Throwable e) {
+		add(new Event(0, FAILURE, getNodeId(item), "message=\"" + message + "\" error=" + e));
+		Utils.logError(message, e);
+	}
+	
+	/**
+	 * Returns the recorded events, oldest first, as lines of text.
+	 * 
+	 * @return the events
+	 */
+	public String[] dump() {
+		final Event[] events;
+		synchronized (this.events) {
+			if (this.full) {
+				events = new Event[this.events.length];
+				System.arraycopy(this.events, this.next, events, 0, this.events.length - this.next);
+				System.arraycopy(this.events, 0, events, this.events.length - this.next, this.next);
+			}
+			else {
+				events = new Event[this.next];
+				System.arraycopy(this.events, 0, events, 0, this.next);
+			}
+		}
+		final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+		final String[] lines = new String[events.length];
+		final StringBuilder sb = new StringBuilder(128);
+		for (int i = 0; i < events.length; i++) {
+			final Event event = events[i];
+			sb.setLength(0);
+			sb.append(format.format(new Date(event.time)));
+			sb.append(" [").append(event.thread).append("] ");
+			sb.append(event.type);
+			sb.append(" duration=").append(event.duration / 1000L / 1000.0).append("ms");
+			if (event.node != null) {
+				sb.append(" node=").append(event.node);
+			}
+			if (event.details != null) {
+				sb.append(' ').append(event.details);
+			}
+			lines[i] = sb.toString();
+		}
+		return lines;
+	}
+	
+}
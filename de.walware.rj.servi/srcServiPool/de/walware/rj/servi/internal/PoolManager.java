@@ -32,11 +32,15 @@ import de.walware.rj.servi.acommons.pool.impl.ExtGenericObjectPool;
 import de.walware.rj.servi.acommons.pool.impl.ExtGenericObjectPool.Config;
 import de.walware.rj.servi.pool.PoolConfig;
 import de.walware.rj.servi.pool.RServiNodeFactory;
-import de.walware.rj.servi.pool.RServiPool;
+import de.walware.rj.servi.pool.RServiPoolAsync;
 import de.walware.rj.servi.pool.RServiPoolManager;
 
 
-public class PoolManager implements RServiPool, RServiPoolManager {
+public class PoolManager implements RServiPoolAsync, RServiPoolManager {
+	
+	
+	/** Time in millis to wait for the shutdown of the nodes in addition to the eviction timeout */
+	private static final long CLOSE_TIMEOUT = 10000L;
 	
 	
 	private final String id;
@@ -51,9 +55,14 @@ public class PoolManager implements RServiPool, RServiPoolManager {
 	
 	
 	private NodeFactory nodeFactory;
+	private int nodeThreads = -1;
+	private boolean nodeCpuPinning;
 	
 	private final FastList<PoolListener> poolListeners = new FastList<>(PoolListener.class, FastList.IDENTITY);
 	private final Stats stats;
+	private final PoolEventLog eventLog;
+	
+	private ClientCallbackExecutor clientCallbacks;
 	
 	
 	public PoolManager(final String id, final RMIRegistry registry) {
@@ -64,6 +73,7 @@ public class PoolManager implements RServiPool, RServiPoolManager {
 		this.registry = registry;
 		this.stats = new Stats();
 		this.poolListeners.add(this.stats);
+		this.eventLog = new PoolEventLog(PoolEventLog.DEFAULT_CAPACITY);
 		this.poolConfig = new PoolConfig();
 		
 		Utils.preLoad();
@@ -90,8 +100,34 @@ public class PoolManager implements RServiPool, RServiPoolManager {
 		if (this.pool != null) {
 			this.pool.setConfig(createConfig(config));
 			this.poolFactory.setMaxUsageCount(config.getMaxUsageCount());
+			this.poolFactory.setMaxAge(config.getMaxAge());
+			this.poolFactory.setMaxRHeap(config.getMaxRHeap());
+			this.poolFactory.setMaxProcessMemory(config.getMaxProcessMemory());
 		}
 		this.poolConfig = config;
+		if (this.nodeFactory != null) {
+			this.nodeFactory.setMaxTotalNodes(config.getMaxTotalCount());
+		}
+		setCpuBudget(config);
+	}
+	
+	private void setCpuBudget(final PoolConfig config) {
+		int threads = config.getNodeThreads();
+		if (threads == 0) {
+			threads = Math.max(1, Runtime.getRuntime().availableProcessors()
+					/ Math.max(1, config.getMaxTotalCount()) );
+		}
+		final boolean pinning = config.getNodeCpuPinningEnabled();
+		if (threads == this.nodeThreads && pinning == this.nodeCpuPinning) {
+			return;
+		}
+		this.nodeThreads = threads;
+		this.nodeCpuPinning = pinning;
+		if (this.nodeFactory != null) {
+			this.nodeFactory.setCpuBudget(threads, pinning);
+		}
+		// replace the nodes with the previous budget, if rolling update is enabled
+		nodeConfigChanged();
 	}
 	
 	@Override
@@ -99,6 +135,17 @@ public class PoolManager implements RServiPool, RServiPoolManager {
 		return this.poolConfig;
 	}
 	
+	/**
+	 * Notifies the manager that the configuration of the node factory changed.
+	 * 
+	 * Nodes created before are replaced by a rolling update, if enabled.
+	 */
+	public synchronized void nodeConfigChanged() {
+		if (this.pool != null) {
+			this.pool.startNewGeneration();
+		}
+	}
+	
 	public void addPoolListener(final PoolListener listener) {
 		this.poolListeners.add(listener);
 	}
@@ -109,9 +156,20 @@ public class PoolManager implements RServiPool, RServiPoolManager {
 	
 	@Override
 	public synchronized void init() throws RjException {
-		this.poolFactory = new PoolObjectFactory(this.nodeFactory, this.poolListeners);
+		if (this.nodeFactory != null) {
+			this.nodeFactory.setMaxTotalNodes(this.poolConfig.getMaxTotalCount());
+			this.nodeFactory.setCpuBudget(this.nodeThreads, this.nodeCpuPinning);
+		}
+		this.poolFactory = new PoolObjectFactory(this.nodeFactory, this.poolListeners, this.stats,
+				this.eventLog );
 		this.poolFactory.setMaxUsageCount(this.poolConfig.getMaxUsageCount());
+		this.poolFactory.setMaxAge(this.poolConfig.getMaxAge());
+		this.poolFactory.setMaxRHeap(this.poolConfig.getMaxRHeap());
+		this.poolFactory.setMaxProcessMemory(this.poolConfig.getMaxProcessMemory());
+		this.clientCallbacks = new ClientCallbackExecutor();
 		this.pool = new ExtGenericObjectPool(this.poolFactory, createConfig(this.poolConfig));
+		this.pool.setEventListener(this.eventLog);
+		this.pool.preparePool();
 		
 		Utils.logInfo("Publishing pool in registry...");
 		if (this.registry != null) {
@@ -137,6 +195,25 @@ public class PoolManager implements RServiPool, RServiPoolManager {
 		}
 	}
 	
+	/**
+	 * Returns the recent events of the pool and its nodes, oldest first.
+	 * 
+	 * @return the events as lines of text
+	 */
+	public String[] getRecentEvents() {
+		return this.eventLog.dump();
+	}
+	
+	@Override
+	public RServiPoolManager.ExprStat[] getExprStats(final int max) {
+		return this.stats.getExprStats(max);
+	}
+	
+	@Override
+	public void resetExprStats() {
+		this.stats.resetExprStats();
+	}
+	
 	@Override
 	public ObjectPoolItem[] getPoolItemsData() {
 		return this.pool.getItems();
@@ -179,7 +256,12 @@ public class PoolManager implements RServiPool, RServiPoolManager {
 		if (PoolManager.this.pool != null) {
 			Utils.logInfo("Closing R nodes...");
 			try {
-				PoolManager.this.pool.close(this.poolConfig.getEvictionTimeout());
+				final long evictionTimeout = this.poolConfig.getEvictionTimeout();
+				PoolManager.this.pool.close(evictionTimeout);
+				// the nodes are stopped by the evictor, wait until all are handed to the factory
+				if (!PoolManager.this.pool.waitForClosed(Math.max(evictionTimeout, 0) + CLOSE_TIMEOUT)) {
+					Utils.logWarning("Closing the pool did not finish in time, some R nodes may still be running.");
+				}
 			}
 			catch (final Exception e) {
 				Utils.logError("An error occurred when closing the pool.", e);
@@ -188,6 +270,13 @@ public class PoolManager implements RServiPool, RServiPoolManager {
 				Runtime.getRuntime().gc();
 			}
 		}
+		if (this.nodeFactory != null) {
+			this.nodeFactory.stopPrestartedNodes();
+			this.nodeFactory.waitForStoppedNodes();
+		}
+		if (this.clientCallbacks != null) {
+			this.clientCallbacks.dispose();
+		}
 	}
 	
 	private Config createConfig(final PoolConfig config) {
@@ -205,6 +294,18 @@ public class PoolManager implements RServiPool, RServiPoolManager {
 		poolConfig.softMinEvictableIdleTimeMillis = config.getMinIdleTime();
 		poolConfig.timeBetweenEvictionRunsMillis = 7500L;
 		poolConfig.numTestsPerEvictionRun = -3;
+		poolConfig.maxCreating = config.getMaxStartingCount();
+		poolConfig.maxAdaptiveMinIdle = config.getMinIdleAdaptiveMaxCount();
+		poolConfig.resetInBackground = config.getResetBackgroundEnabled();
+		poolConfig.affinity = config.getAffinityEnabled();
+		poolConfig.affinityKeepState = config.getAffinityKeepWorkspace();
+		if (poolConfig.affinity && poolConfig.affinityKeepState) {
+			Utils.logWarning("Nodes keep the workspace for the next request of the same client; "
+					+ "clients are identified by name and host only, not authenticated.");
+		}
+		poolConfig.replaceRetiring = config.getReplaceRetiringEnabled();
+		poolConfig.rollingUpdateRate = config.getRollingUpdateRate();
+		poolConfig.maxAwakeIdle = config.getMaxAwakeIdleCount();
 		return poolConfig;
 	}
 	
@@ -215,17 +316,71 @@ public class PoolManager implements RServiPool, RServiPoolManager {
 	}
 	
 	public PoolObject getPoolObject(final String client) throws NoSuchElementException, RjException {
+		final long t = System.nanoTime();
 		try {
-			final ObjectPoolItem item = this.pool.borrowObject(client);
+			final ObjectPoolItem item = this.pool.borrowObject(PoolObjectFactory.ClientKey.create(client));
 			final PoolObject poolObj = (PoolObject)item.getObject();
+			this.stats.logServRequest((System.nanoTime() - t) / 1000000L);
 			return poolObj;
 		}
 		catch (final NoSuchElementException e) {
-			this.stats.logServRequestFailed(3);
+			this.stats.logServRequestFailed(Stats.EXHAUSTED_FAILED);
 			throw new NoSuchElementException(Messages.GetRServi_NoInstance_pub_Pool_message);
 		}
 		catch (final Exception e) {
-			this.stats.logServRequestFailed(4);
+			this.stats.logServRequestFailed(Stats.UNEXPECTED_FAILED);
+			Utils.logError(Messages.BindClient_error_message, e);
+			throw new RjException(Messages.GetRServi_pub_error_message);
+		}
+	}
+	
+	@Override
+	public void requestRServi(final String name, final ServerLogin login,
+			final RServiPoolAsync.Callback callback) throws RjException {
+		if (callback == null) {
+			throw new NullPointerException("callback");
+		}
+		final long t = System.nanoTime();
+		final ClientCallbackExecutor clientCallbacks = this.clientCallbacks;
+		try {
+			// the callbacks are called by a pool thread; the RMI calls to the client
+			// are delegated to clientCallbacks
+			this.pool.borrowObject(PoolObjectFactory.ClientKey.create(name), new ExtGenericObjectPool.BorrowCallback() {
+				@Override
+				public void borrowed(final ObjectPoolItem item) {
+					final PoolObject poolObject = (PoolObject) item.getObject();
+					final long accessId = poolObject.getAccessId();
+					PoolManager.this.stats.logServRequest((System.nanoTime() - t) / 1000000L);
+					clientCallbacks.deliver(callback,
+							new RServiImpl(accessId, poolObject, poolObject.clientHandler),
+							new Runnable() {
+								@Override
+								public void run() {
+									try {
+										poolObject.returnObject(accessId);
+									}
+									catch (final RjException ignore) {} // already logged
+								}
+							});
+				}
+				@Override
+				public void failed(final Exception e) {
+					final Exception reported;
+					if (e instanceof NoSuchElementException) {
+						PoolManager.this.stats.logServRequestFailed(Stats.EXHAUSTED_FAILED);
+						reported = new NoSuchElementException(Messages.GetRServi_NoInstance_pub_Pool_message);
+					}
+					else {
+						PoolManager.this.stats.logServRequestFailed(Stats.UNEXPECTED_FAILED);
+						Utils.logError(Messages.BindClient_error_message, e);
+						reported = new RjException(Messages.GetRServi_pub_error_message);
+					}
+					clientCallbacks.fail(callback, reported);
+				}
+			});
+		}
+		catch (final Exception e) {
+			this.stats.logServRequestFailed(Stats.UNEXPECTED_FAILED);
 			Utils.logError(Messages.BindClient_error_message, e);
 			throw new RjException(Messages.GetRServi_pub_error_message);
 		}
@@ -240,8 +395,29 @@ public class PoolManager implements RServiPool, RServiPoolManager {
 			counter.maxIdling = this.pool.getStatMaxIdle();
 			counter.maxInUse = this.pool.getStatMaxActive();
 			counter.maxTotal = this.pool.getStatMaxTotal();
+			counter.numWaiting = this.pool.getNumWaiting();
+			counter.maxWaiting = this.pool.getStatMaxWaiting();
+			counter.avgWaitTime = this.pool.getStatAvgWaitTime();
+			counter.maxWaitTime = this.pool.getStatMaxWaitTime();
+			counter.minIdlingTarget = this.pool.getEffectiveMinIdle();
+			counter.requestRate = this.pool.getStatBorrowRate();
+			counter.avgUsageDuration = this.pool.getStatAvgLeaseDuration();
+			counter.avgStartupDuration = this.pool.getStatAvgCreateDuration();
+			counter.numResetting = this.pool.getNumResetting();
+			counter.avgResetDuration = this.pool.getStatAvgResetDuration();
+			counter.maxResetDuration = this.pool.getStatMaxResetDuration();
+			counter.affinityHits = this.pool.getStatAffinityHits();
+			counter.affinityMisses = this.pool.getStatAffinityMisses();
+			counter.nodeGeneration = this.pool.getGeneration();
+			counter.numOutdated = this.pool.getNumOutdated();
+			counter.numHibernated = this.pool.getNumSuspended();
 		}
 		counter.numTotal = counter.numIdling + counter.numTotal;
+		counter.nodeThreads = this.nodeThreads;
+		counter.numThreads = (this.nodeThreads > 0) ?
+				this.nodeThreads * (counter.numIdling + counter.numInUse) : -1;
+		counter.numPinned = (this.nodeFactory != null) ? this.nodeFactory.getNumPinnedNodes() : 0;
+		this.stats.getCounter(counter);
 		return counter;
 	}
 	
@@ -25,6 +25,9 @@ public class PoolObject extends NodeHandler implements RServiImpl.PoolRef, Unref
 	final ObjectPoolItem poolItemData;
 	final Stats.NodeEntry stats = new Stats.NodeEntry();
 	
+	/** random factor (0-1) to spread the retirement of nodes by max age */
+	final double ageJitter = Math.random();
+	
 	Remote thisRemote;
 	
 	
@@ -31,17 +31,94 @@ public class PoolObjectFactory implements PoolableObjectFactory {
 	
 	private final NodeFactory nodeFactory;
 	
+	/** max part of the max age nodes retire earlier */
+	private static final double AGE_JITTER = 0.1;
+	
+	
+	/**
+	 * Identifies the client of a request, used as key for the client affinity.
+	 * 
+	 * The name is specified by the client and not authenticated; the host is
+	 * the one of the RMI connection of the request.
+	 */
+	static final class ClientKey {
+		
+		/**
+		 * Creates the key for a request of the current RMI call.
+		 * 
+		 * @param name the name specified by the client
+		 * @return the key or <code>null</code> if the client has no name
+		 */
+		static ClientKey create(final String name) {
+			if (name == null) {
+				return null;
+			}
+			String host;
+			try {
+				host = RemoteServer.getClientHost();
+			}
+			catch (final ServerNotActiveException e) {
+				host = null; // local client
+			}
+			return new ClientKey(name, host);
+		}
+		
+		
+		final String name;
+		final String host;
+		
+		
+		private ClientKey(final String name, final String host) {
+			this.name = name;
+			this.host = host;
+		}
+		
+		
+		@Override
+		public int hashCode() {
+			return this.name.hashCode() ^ ((this.host != null) ? this.host.hashCode() : 0);
+		}
+		
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof ClientKey)) {
+				return false;
+			}
+			final ClientKey other = (ClientKey) obj;
+			return (this.name.equals(other.name)
+					&& ((this.host != null) ? this.host.equals(other.host) : other.host == null) );
+		}
+		
+		@Override
+		public String toString() {
+			return (this.host != null) ? (this.name + '@' + this.host) : this.name;
+		}
+		
+	}
+	
+	
 	private int maxUsageCount;
+	private long maxAge = -1;
+	private long maxRHeap = -1;
+	private long maxProcessMemory = -1;
 	
 	private final FastList<PoolListener> poolListeners;
+	private final Stats stats;
+	private final PoolEventLog eventLog;
 	
 	private RMIClientSocketFactory sslClientSocketFactory;
 	private RMIServerSocketFactory sslServerSocketFactory;
 	
 	
-	public PoolObjectFactory(final NodeFactory factory, final FastList<PoolListener> poolListeners) {
+	public PoolObjectFactory(final NodeFactory factory, final FastList<PoolListener> poolListeners,
+			final Stats stats, final PoolEventLog eventLog) {
 		this.nodeFactory = factory;
 		this.poolListeners = poolListeners;
+		this.stats = stats;
+		this.eventLog = eventLog;
 	}
 	
 	
@@ -49,6 +126,18 @@ public class PoolObjectFactory implements PoolableObjectFactory {
 		this.maxUsageCount = count;
 	}
 	
+	public void setMaxAge(final long millis) {
+		this.maxAge = millis;
+	}
+	
+	public void setMaxRHeap(final long mb) {
+		this.maxRHeap = mb;
+	}
+	
+	public void setMaxProcessMemory(final long mb) {
+		this.maxProcessMemory = mb;
+	}
+	
 	
 	@Override
 	public void makeObject(final ObjectPoolItem item) throws Exception {
@@ -65,7 +154,16 @@ public class PoolObjectFactory implements PoolableObjectFactory {
 		
 		// start
 		final PoolObject poolObj = new PoolObject(item);
-		this.nodeFactory.createNode(poolObj);
+		final long t = System.nanoTime();
+		try {
+			this.nodeFactory.createNode(poolObj);
+		}
+		catch (final Exception e) {
+			this.eventLog.log(PoolEventLog.NODE_CREATE, item, System.nanoTime() - t, "failed=true");
+			throw e;
+		}
+		this.eventLog.log(PoolEventLog.NODE_CREATE, item, System.nanoTime() - t,
+				poolObj.getStartupPhases() );
 		
 		{	RMIClientSocketFactory clientSocketFactory = null;
 			RMIServerSocketFactory serverSocketFactory = null;
@@ -100,20 +198,111 @@ public class PoolObjectFactory implements PoolableObjectFactory {
 	@Override
 	public String activateObject(final ObjectPoolItem item, final Object arg) throws Exception {
 		final PoolObject poolObj = (PoolObject) item.getObject();
-		String clientHost;
+		final ClientKey key = (ClientKey) arg;
+		String clientHost = (key != null) ? key.host : null;
+		if (clientHost == null) {
+			try {
+				clientHost = RemoteServer.getClientHost();
+			}
+			catch (final ServerNotActiveException e) {
+				clientHost = poolObj.node.getPoolHost();
+			}
+		}
+		final String client = poolObj.bindClient((key != null) ? key.name : null, clientHost);
+		poolObj.stats.activateStamp = System.nanoTime();
+		return client;
+	}
+	
+	@Override
+	public void passivateObject(final ObjectPoolItem item) throws Exception {
+		final PoolObject poolObj = (PoolObject) item.getObject();
+		final long t = System.nanoTime();
+		final int lease = getLeaseTime(poolObj, t);
+		NodeUsage usage = null;
 		try {
-			clientHost = RemoteServer.getClientHost();
+			usage = poolObj.unbindClient();
+		}
+		catch (final Exception e) {
+			// the reset failed or found the workspace tampered, the node is destroyed
+			poolObj.stats.shutdownReason = Stats.VALIDATION_FAILED;
+			throw e;
 		}
-		catch (final ServerNotActiveException e) {
-			clientHost = poolObj.node.getPoolHost();
+		finally {
+			logUsage(lease, usage);
 		}
-		return poolObj.bindClient((String) arg, clientHost);
+		logReset(item, false, lease, usage, System.nanoTime() - t);
 	}
 	
 	@Override
-	public void passivateObject(final ObjectPoolItem item) throws Exception {
+	public void detachObject(final ObjectPoolItem item) throws Exception {
+		final PoolObject poolObj = (PoolObject) item.getObject();
+		final long t = System.nanoTime();
+		final int lease = getLeaseTime(poolObj, t);
+		NodeUsage usage = null;
+		try {
+			usage = poolObj.detachClient();
+		}
+		finally {
+			logUsage(lease, usage);
+		}
+		logReset(item, true, lease, usage, System.nanoTime() - t);
+	}
+	
+	/**
+	 * Returns the duration the node was lent to the last client, if not yet logged.
+	 * 
+	 * @return the duration in milliseconds or <code>-1</code> if already logged
+	 */
+	private int getLeaseTime(final PoolObject poolObj, final long stamp) {
+		final long activateStamp = poolObj.stats.activateStamp;
+		if (activateStamp != 0) {
+			poolObj.stats.activateStamp = 0;
+			return (int) Math.min((stamp - activateStamp) / 1000000L, Integer.MAX_VALUE);
+		}
+		return -1;
+	}
+	
+	private void logReset(final ObjectPoolItem item, final boolean detach, final int lease,
+			final NodeUsage usage, final long nanos) {
+		this.stats.logNodeReset(nanos);
+		final StringBuilder sb = new StringBuilder(64);
+		sb.append((detach) ? "mode=detach" : "mode=reset");
+		if (lease >= 0) {
+			sb.append(" lease=").append(lease).append("ms");
+		}
+		if (usage != null) {
+			sb.append(" busy=").append(usage.getBusyTime()).append("ms");
+			sb.append(" commands=").append(usage.getNumCommands());
+		}
+		this.eventLog.log(PoolEventLog.RESET, item, nanos, sb.toString());
+	}
+	
+	private void logUsage(final int lease, final NodeUsage usage) {
+		if (lease >= 0) {
+			this.stats.logServUsage(lease, (usage != null) ?
+					(int) Math.min(usage.getBusyTime(), Integer.MAX_VALUE) : -1 );
+		}
+		if (usage != null && usage.getExprStats() != null) {
+			this.stats.logExprStats(usage.getExprStats());
+		}
+	}
+	
+	@Override
+	public void suspendObject(final ObjectPoolItem item) throws Exception {
 		final PoolObject poolObj = (PoolObject) item.getObject();
-		poolObj.unbindClient();
+		poolObj.hibernate();
+	}
+	
+	@Override
+	public void resumeObject(final ObjectPoolItem item) throws Exception {
+		final PoolObject poolObj = (PoolObject) item.getObject();
+		try {
+			poolObj.resume();
+		}
+		catch (final Exception e) {
+			Utils.logWarning("Failed to resume the hibernated node " + poolObj.getAddress() + ".", e);
+			throw e;
+		}
 	}
 	
 	@Override
@@ -140,7 +329,12 @@ public class PoolObjectFactory implements PoolableObjectFactory {
 				Utils.logWarning(Messages.RmiUnexportNode_error_message, e);
 			}
 		}
-		this.nodeFactory.stopNode(poolObj);
+		this.nodeFactory.stopNode(poolObj, new Runnable() {
+			@Override
+			public void run() {
+				PoolObjectFactory.this.stats.logNodeShutdown(poolObj);
+			}
+		});
 		
 		{	final PoolListener[] listeners = this.poolListeners.toArray();
 			for (int i = 0; i < listeners.length; i++) {
@@ -156,11 +350,48 @@ public class PoolObjectFactory implements PoolableObjectFactory {
 	
 	@Override
 	public boolean validateObject(final ObjectPoolItem item) {
+		final long t = System.nanoTime();
+		final boolean valid = checkObject(item);
+		this.eventLog.log(PoolEventLog.VALIDATE, item, System.nanoTime() - t,
+				(valid) ? "valid=true" : "valid=false" );
+		return valid;
+	}
+	
+	@Override
+	public boolean isReplaceable(final ObjectPoolItem item) {
+		// the memory limits are hard limits
+		final PoolObject poolObj = (PoolObject) item.getObject();
+		switch (poolObj.stats.shutdownReason) {
+		case Stats.MAX_R_HEAP:
+		case Stats.MAX_PROCESS_MEMORY:
+			return false;
+		default:
+			return true;
+		}
+	}
+	
+	private boolean checkObject(final ObjectPoolItem item) {
 		final PoolObject poolObj = (PoolObject) item.getObject();
 		if (this.maxUsageCount > 0 && item.getLentCount() > this.maxUsageCount) {
 			poolObj.stats.shutdownReason = Stats.MAX_USAGE;
 			return false;
 		}
+		final long maxAge = this.maxAge;
+		if (maxAge > 0 && System.currentTimeMillis() - item.getCreationTime()
+				> maxAge - (long) (maxAge * AGE_JITTER * poolObj.ageJitter) ) {
+			poolObj.stats.shutdownReason = Stats.MAX_AGE;
+			return false;
+		}
+		final long maxRHeap = this.maxRHeap;
+		if (maxRHeap > 0 && poolObj.getRHeapSize() > maxRHeap) {
+			poolObj.stats.shutdownReason = Stats.MAX_R_HEAP;
+			return false;
+		}
+		final long maxProcessMemory = this.maxProcessMemory;
+		if (maxProcessMemory > 0 && poolObj.getProcessMemory() > maxProcessMemory * 1024L) {
+			poolObj.stats.shutdownReason = Stats.MAX_PROCESS_MEMORY;
+			return false;
+		}
 		return true;
 	}
 	
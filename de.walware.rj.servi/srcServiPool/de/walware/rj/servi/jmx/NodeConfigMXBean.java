@@ -27,6 +27,10 @@ public interface NodeConfigMXBean {
 	String getJavaArgs();
 	void setJavaArgs(String args);
 	
+	@DisplayName("Use a class data sharing archive for the Java VM of nodes (Java 13 or later)")
+	boolean getEnableJavaCds();
+	void setEnableJavaCds(boolean enable);
+	
 	@DisplayName("R home / R_HOME (path)")
 	String getRHome();
 	void setRHome(String path);
@@ -48,6 +52,42 @@ public interface NodeConfigMXBean {
 	String getRStartupSnippet();
 	void setRStartupSnippet(String code);
 	
+	@DisplayName("R preload snippet (objects kept when resetting the workspace)")
+	String getRPreloadSnippet();
+	void setRPreloadSnippet(String code);
+	
+	@DisplayName("R reset snippet (run before clearing the workspace after use)")
+	String getRResetSnippet();
+	void setRResetSnippet(String code);
+	
+	@DisplayName("Full garbage collection when resetting the workspace every n uses (0 \u21d2 disabled)")
+	int getRResetGcInterval();
+	void setRResetGcInterval(int count);
+	
+	@DisplayName("Full garbage collection when resetting a workspace larger than (MB; -1 \u21d2 disabled)")
+	long getRResetGcThreshold();
+	void setRResetGcThreshold(long mb);
+	
+	@DisplayName("Number of prestarted nodes in reserve for fast node creation (0 \u21d2 disabled)")
+	int getPrestartCount();
+	void setPrestartCount(int count);
+	
+	@DisplayName("Parent cgroup of the nodes (path; empty \u21d2 disabled)")
+	String getCgroupPath();
+	void setCgroupPath(String path);
+	
+	@DisplayName("CPU weight of the cgroup of a node (1-10000; -1 \u21d2 default)")
+	int getCgroupCpuWeight();
+	void setCgroupCpuWeight(int weight);
+	
+	@DisplayName("CPU quota of the cgroup of a node (% of one CPU; -1 \u21d2 unlimited)")
+	int getCgroupCpuMax();
+	void setCgroupCpuMax(int percent);
+	
+	@DisplayName("Memory limit of the cgroup of a node (MB; -1 \u21d2 unlimited)")
+	long getCgroupMemoryMax();
+	void setCgroupMemoryMax(long mb);
+	
 	@DisplayName("Timeout when starting/stopping node (millis)")
 	long getStartStopTimeout();
 	void setStartStopTimeout(long milliseconds);
@@ -27,6 +27,77 @@ public interface NodeMXBean {
 	boolean isConsoleEnabled();
 	void setConsoleEnabled(boolean enable) throws OperationsException;
 	
+	/**
+	 * @since 2.1
+	 */
+	@DisplayName("R heap size at the last reset (MB)")
+	long getRHeapSize();
+	/**
+	 * @since 2.1
+	 */
+	@DisplayName("Resident memory of the node process (kB)")
+	long getProcessMemory();
+	/**
+	 * @since 2.1
+	 */
+	@DisplayName("CPU time of the node process (ms; cgroup)")
+	long getCpuTime();
+	/**
+	 * @since 2.1
+	 */
+	@DisplayName("Memory of the node process (kB; cgroup)")
+	long getCgroupMemory();
+	/**
+	 * @since 2.1
+	 */
+	@DisplayName("Node process hibernated (SIGSTOP)")
+	boolean isHibernated();
+	/**
+	 * @since 2.1
+	 */
+	@DisplayName("Time busy running calls of clients (ms)")
+	long getBusyTime();
+	/**
+	 * @since 2.1
+	 */
+	@DisplayName("Number of commands of clients")
+	long getNumCommands();
+	/**
+	 * @since 2.1
+	 */
+	@DisplayName("Bytes received from clients")
+	long getBytesIn();
+	/**
+	 * @since 2.1
+	 */
+	@DisplayName("Bytes sent to clients")
+	long getBytesOut();
+	/**
+	 * @since 2.1
+	 */
+	@DisplayName("Reason why the node is recycled")
+	String getShutdownReason();
+	/**
+	 * @since 2.1
+	 */
+	@DisplayName("Duration of the node start (ms)")
+	long getStartupTime();
+	/**
+	 * @since 2.1
+	 */
+	@DisplayName("Duration of the R startup snippet at the node start (ms)")
+	long getStartupSnippetTime();
+	/**
+	 * @since 2.1
+	 */
+	@DisplayName("Size of the preloaded objects (kB)")
+	long getPreloadSize();
+	/**
+	 * @since 2.1
+	 */
+	@DisplayName("Recent output of the node process")
+	String getProcessOutput();
+	
 	
 	@DisplayName("Stop using the default timeout")
 	void stop() throws OperationsException;
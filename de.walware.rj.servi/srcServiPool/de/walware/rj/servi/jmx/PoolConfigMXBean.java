@@ -21,6 +21,42 @@ public interface PoolConfigMXBean {
 	int getMaxUsageCount();
 	void setMaxUsageCount(int count);
 	
+	@DisplayName("Max node age (millisec, -1 = disabled)")
+	long getMaxAge();
+	void setMaxAge(long milliseconds);
+	
+	@DisplayName("Max R heap size of a node (MB, -1 = disabled)")
+	long getMaxRHeap();
+	void setMaxRHeap(long mb);
+	
+	@DisplayName("Max memory of a node process (MB, -1 = disabled)")
+	long getMaxProcessMemory();
+	void setMaxProcessMemory(long mb);
+	
+	@DisplayName("Replace retiring nodes before stopping them")
+	boolean getReplaceRetiringEnabled();
+	void setReplaceRetiringEnabled(boolean enabled);
+	
+	@DisplayName("Rolling update after node config changes (idle nodes per minute, -1 = disabled)")
+	int getRollingUpdateRate();
+	void setRollingUpdateRate(int rate);
+	
+	@DisplayName("BLAS/OpenMP threads per node (count, 0 = auto, -1 = disabled)")
+	int getNodeThreads();
+	void setNodeThreads(int count);
+	
+	@DisplayName("Pin nodes to separate sets of CPUs")
+	boolean getNodeCpuPinningEnabled();
+	void setNodeCpuPinningEnabled(boolean enabled);
+	
+	@DisplayName("Max idle nodes kept awake; surplus idle nodes are hibernated (count, -1 = disabled)")
+	int getMaxAwakeIdleCount();
+	void setMaxAwakeIdleCount(int count);
+	
+	@DisplayName("Reset returned nodes in the background")
+	boolean getResetBackgroundEnabled();
+	void setResetBackgroundEnabled(boolean enabled);
+	
 	@DisplayName("Min idle nodes (count)")
 	long getMaxWaitTime();
 	void setMaxWaitTime(long milliseconds);
@@ -45,6 +81,22 @@ public interface PoolConfigMXBean {
 	long getEvictionTimeout();
 	void setEvictionTimeout(long milliseconds);
 	
+	@DisplayName("Max nodes starting concurrently (count)")
+	int getMaxStartingCount();
+	void setMaxStartingCount(int count);
+	
+	@DisplayName("Upper bound of adaptive min idle nodes (count, -1 = disabled)")
+	int getMinIdleAdaptiveMaxCount();
+	void setMinIdleAdaptiveMaxCount(int count);
+	
+	@DisplayName("Prefer the node last used by the same client")
+	boolean getAffinityEnabled();
+	void setAffinityEnabled(boolean enabled);
+	
+	@DisplayName("Keep the workspace for the next request of the same client")
+	boolean getAffinityKeepWorkspace();
+	void setAffinityKeepWorkspace(boolean enabled);
+	
 	
 	@DisplayName("Apply the current configuration")
 	void apply() throws OperationsException;
@@ -13,6 +13,8 @@ package de.walware.rj.servi.jmx;
 
 import javax.management.OperationsException;
 
+import de.walware.rj.servi.pool.RServiPoolManager;
+
 
 public interface PoolServerMXBean {
 	
@@ -31,4 +33,29 @@ public interface PoolServerMXBean {
 	void stop() throws OperationsException;
 	void restart() throws OperationsException;
 	
+	/**
+	 * Returns the recent events (timeline) of the pool and its nodes.
+	 * 
+	 * @return the events as lines of text, oldest first
+	 * @since 2.1
+	 */
+	String[] dumpEvents();
+	
+	/**
+	 * Returns the statistics of the R expressions and function calls of the clients
+	 * with the highest total time.
+	 * 
+	 * @param max the max number of expressions
+	 * @return the statistics, ordered by total time
+	 * @since 2.1
+	 */
+	RServiPoolManager.ExprStat[] listExprStats(int max);
+	
+	/**
+	 * Clears the statistics of the R expressions and function calls.
+	 * 
+	 * @since 2.1
+	 */
+	void resetExprStats();
+	
 }
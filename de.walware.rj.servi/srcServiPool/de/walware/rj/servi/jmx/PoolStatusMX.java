@@ -13,6 +13,9 @@ package de.walware.rj.servi.jmx;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+
+import de.walware.rj.servi.pool.RServiPoolManager;
 
 
 public interface PoolStatusMX {
@@ -28,6 +31,41 @@ public interface PoolStatusMX {
 	int getMaxIdling();
 	int getMaxTotal();
 	
+	int getNumWaiting();
+	int getMaxWaiting();
+	long getAvgWaitTime();
+	long getMaxWaitTime();
+	
+	int getMinIdlingTarget();
+	double getRequestRate();
+	long getAvgUsageDuration();
+	long getAvgStartupDuration();
+	
+	int getNumResetting();
+	long getAvgResetDuration();
+	long getMaxResetDuration();
+	
+	long getAffinityHits();
+	long getAffinityMisses();
+	
+	int getNodeGeneration();
+	int getNumOutdated();
+	
+	int getNodeThreads();
+	int getNumThreads();
+	int getNumPinned();
+	
+	int getNumHibernated();
+	
+	RServiPoolManager.Histogram getBorrowWaitTimes();
+	RServiPoolManager.Histogram getUsageDurations();
+	RServiPoolManager.Histogram getStartupDurations();
+	RServiPoolManager.Histogram getResetDurations();
+	RServiPoolManager.Histogram getShutdownDurations();
+	double getBusyRatio();
+	Map<String, Long> getFailureCounts();
+	Map<String, Long> getRecycleCounts();
+	
 	List<NodeStateMX> getNodeStates();
 	
 }
@@ -19,6 +19,7 @@ import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
 import java.rmi.server.RMIClientSocketFactory;
 import java.util.HashSet;
+import java.util.Properties;
 import java.util.Set;
 
 import javax.management.ObjectName;
@@ -205,14 +206,32 @@ public class JMPoolServer implements PoolServer, PoolServerMXBean {
 			throw new IllegalArgumentException();
 		}
 		synchronized (this.jmPoolConfig) {
+			final boolean changed = isChanged(this.currentNodeConfig, config);
 			this.nodeFactory.setConfig(config);
 			
+			final PoolManager manager = this.poolManager;
+			if (changed && manager != null) {
+				manager.nodeConfigChanged();
+			}
+			
 			this.currentNodeConfig = config;
 			this.jmNodeConfig.load(config);
 		}
 	}
 	
 	
+	private static boolean isChanged(final RServiNodeConfig oldConfig, final RServiNodeConfig newConfig) {
+		if (oldConfig == null) {
+			return true;
+		}
+		final Properties oldMap = new Properties();
+		oldConfig.save(oldMap);
+		final Properties newMap = new Properties();
+		newConfig.save(newMap);
+		return !oldMap.equals(newMap);
+	}
+	
+	
 	private void initRMI() throws RjException, OperationsException {
 		final String hostAddress;
 		final int registryPort;
@@ -410,6 +429,32 @@ public class JMPoolServer implements PoolServer, PoolServerMXBean {
 		start();
 	}
 	
+	@Override
+	public String[] dumpEvents() {
+		final PoolManager manager = this.poolManager;
+		if (manager == null) {
+			return new String[0];
+		}
+		return manager.getRecentEvents();
+	}
+	
+	@Override
+	public RServiPoolManager.ExprStat[] listExprStats(final int max) {
+		final PoolManager manager = this.poolManager;
+		if (manager == null) {
+			return new RServiPoolManager.ExprStat[0];
+		}
+		return manager.getExprStats(max);
+	}
+	
+	@Override
+	public void resetExprStats() {
+		final PoolManager manager = this.poolManager;
+		if (manager != null) {
+			manager.resetExprStats();
+		}
+	}
+	
 	public synchronized void shutdown() {
 		stopManager();
 		try {
@@ -51,6 +51,123 @@ public class PoolConfig implements PropertiesBean {
 	
 	private static final long EVICT_TIMEOUT_DEFAULT = 30*MINUTES;
 	
+	/**
+	 * Id of the max number of nodes started concurrently
+	 * 
+	 * @since 2.1
+	 */
+	public static final String MAX_STARTING_COUNT_ID = "max_starting.count";
+	
+	private static final int MAX_STARTING_COUNT_DEFAULT = 2;
+	
+	/**
+	 * Id of the upper bound of the adaptive min number of idle nodes
+	 * 
+	 * @since 2.1
+	 */
+	public static final String MIN_IDLE_ADAPTIVE_MAX_COUNT_ID = "min_idle.adaptive_max.count";
+	
+	private static final int MIN_IDLE_ADAPTIVE_MAX_COUNT_DEFAULT = -1;
+	
+	/**
+	 * Id of the setting if clients prefer the node they used last (client affinity)
+	 * 
+	 * @since 2.1
+	 */
+	public static final String AFFINITY_ENABLED_ID = "affinity.enabled";
+	
+	private static final boolean AFFINITY_ENABLED_DEFAULT = false;
+	
+	/**
+	 * Id of the setting if nodes keep the workspace for the next request of the same client
+	 * 
+	 * @since 2.1
+	 */
+	public static final String AFFINITY_KEEP_WORKSPACE_ID = "affinity_keep_workspace.enabled";
+	
+	private static final boolean AFFINITY_KEEP_WORKSPACE_DEFAULT = false;
+	
+	/**
+	 * Id of the max age of nodes
+	 * 
+	 * @since 2.1
+	 */
+	public static final String MAX_AGE_MILLIS_ID = "max_age.millis";
+	
+	private static final long MAX_AGE_MILLIS_DEFAULT = -1;
+	
+	/**
+	 * Id of the max size of the R heap of nodes
+	 * 
+	 * @since 2.1
+	 */
+	public static final String MAX_R_HEAP_ID = "max_r_heap.mb";
+	
+	private static final long MAX_R_HEAP_DEFAULT = -1;
+	
+	/**
+	 * Id of the max memory (resident set size) of node processes
+	 * 
+	 * @since 2.1
+	 */
+	public static final String MAX_PROCESS_MEMORY_ID = "max_process_memory.mb";
+	
+	private static final long MAX_PROCESS_MEMORY_DEFAULT = -1;
+	
+	/**
+	 * Id of the setting if retiring nodes are replaced before they are stopped
+	 * 
+	 * @since 2.1
+	 */
+	public static final String REPLACE_RETIRING_ENABLED_ID = "replace_retiring.enabled";
+	
+	private static final boolean REPLACE_RETIRING_ENABLED_DEFAULT = false;
+	
+	/**
+	 * Id of the number of idle nodes per minute replaced after a change of the node configuration
+	 * 
+	 * @since 2.1
+	 */
+	public static final String ROLLING_UPDATE_RATE_ID = "rolling_update.rate";
+	
+	private static final int ROLLING_UPDATE_RATE_DEFAULT = -1;
+	
+	/**
+	 * Id of the number of BLAS/OpenMP threads per node
+	 * 
+	 * @since 2.1
+	 */
+	public static final String NODE_THREADS_ID = "node_threads.count";
+	
+	private static final int NODE_THREADS_DEFAULT = -1;
+	
+	/**
+	 * Id of the setting if nodes are pinned to separate sets of CPUs
+	 * 
+	 * @since 2.1
+	 */
+	public static final String NODE_CPU_PINNING_ENABLED_ID = "node_cpu_pinning.enabled";
+	
+	private static final boolean NODE_CPU_PINNING_ENABLED_DEFAULT = false;
+	
+	/**
+	 * Id of the max number of idle nodes kept awake; surplus idle nodes are hibernated
+	 * 
+	 * @since 2.1
+	 */
+	public static final String MAX_AWAKE_IDLE_COUNT_ID = "max_awake_idle.count";
+	
+	private static final int MAX_AWAKE_IDLE_COUNT_DEFAULT = -1;
+	
+	/**
+	 * Id of the setting if returned nodes are reset in the background
+	 * 
+	 * @since 2.1
+	 */
+	public static final String RESET_BACKGROUND_ENABLED_ID = "reset_background.enabled";
+	
+	private static final boolean RESET_BACKGROUND_ENABLED_DEFAULT = true;
+	
 	
 	private int maxTotalCount;
 	private int minIdleCount;
@@ -61,6 +178,28 @@ public class PoolConfig implements PropertiesBean {
 	
 	private long evictTimeout;
 	
+	private int maxStartingCount;
+	
+	private int minIdleAdaptiveMaxCount;
+	
+	private boolean affinityEnabled;
+	private boolean affinityKeepWorkspace;
+	
+	private long maxAge;
+	private long maxRHeap;
+	private long maxProcessMemory;
+	
+	private boolean replaceRetiringEnabled;
+	
+	private int rollingUpdateRate;
+	
+	private int nodeThreads;
+	private boolean nodeCpuPinningEnabled;
+	
+	private int maxAwakeIdleCount;
+	
+	private boolean resetBackgroundEnabled;
+	
 	
 	public PoolConfig() {
 		this.maxTotalCount = 20;
@@ -71,6 +210,19 @@ public class PoolConfig implements PropertiesBean {
 		this.maxUsageCount = 1000;
 		
 		this.evictTimeout = EVICT_TIMEOUT_DEFAULT;
+		this.maxStartingCount = MAX_STARTING_COUNT_DEFAULT;
+		this.minIdleAdaptiveMaxCount = MIN_IDLE_ADAPTIVE_MAX_COUNT_DEFAULT;
+		this.affinityEnabled = AFFINITY_ENABLED_DEFAULT;
+		this.affinityKeepWorkspace = AFFINITY_KEEP_WORKSPACE_DEFAULT;
+		this.maxAge = MAX_AGE_MILLIS_DEFAULT;
+		this.maxRHeap = MAX_R_HEAP_DEFAULT;
+		this.maxProcessMemory = MAX_PROCESS_MEMORY_DEFAULT;
+		this.replaceRetiringEnabled = REPLACE_RETIRING_ENABLED_DEFAULT;
+		this.rollingUpdateRate = ROLLING_UPDATE_RATE_DEFAULT;
+		this.nodeThreads = NODE_THREADS_DEFAULT;
+		this.nodeCpuPinningEnabled = NODE_CPU_PINNING_ENABLED_DEFAULT;
+		this.maxAwakeIdleCount = MAX_AWAKE_IDLE_COUNT_DEFAULT;
+		this.resetBackgroundEnabled = RESET_BACKGROUND_ENABLED_DEFAULT;
 	}
 	
 	public PoolConfig(final PoolConfig config) {
@@ -94,6 +246,19 @@ public class PoolConfig implements PropertiesBean {
 		this.maxWaitTime = templ.maxWaitTime;
 		this.maxUsageCount = templ.maxUsageCount;
 		this.evictTimeout = templ.evictTimeout;
+		this.maxStartingCount = templ.maxStartingCount;
+		this.minIdleAdaptiveMaxCount = templ.minIdleAdaptiveMaxCount;
+		this.affinityEnabled = templ.affinityEnabled;
+		this.affinityKeepWorkspace = templ.affinityKeepWorkspace;
+		this.maxAge = templ.maxAge;
+		this.maxRHeap = templ.maxRHeap;
+		this.maxProcessMemory = templ.maxProcessMemory;
+		this.replaceRetiringEnabled = templ.replaceRetiringEnabled;
+		this.rollingUpdateRate = templ.rollingUpdateRate;
+		this.nodeThreads = templ.nodeThreads;
+		this.nodeCpuPinningEnabled = templ.nodeCpuPinningEnabled;
+		this.maxAwakeIdleCount = templ.maxAwakeIdleCount;
+		this.resetBackgroundEnabled = templ.resetBackgroundEnabled;
 	}
 	
 	@Override
@@ -107,6 +272,45 @@ public class PoolConfig implements PropertiesBean {
 		{	final String s = map.getProperty(EVICT_TIMEOUT_ID);
 			this.evictTimeout = (s != null) ? Long.parseLong(s) : EVICT_TIMEOUT_DEFAULT;
 		}
+		{	final String s = map.getProperty(MAX_STARTING_COUNT_ID);
+			this.maxStartingCount = (s != null) ? Integer.parseInt(s) : MAX_STARTING_COUNT_DEFAULT;
+		}
+		{	final String s = map.getProperty(MIN_IDLE_ADAPTIVE_MAX_COUNT_ID);
+			this.minIdleAdaptiveMaxCount = (s != null) ? Integer.parseInt(s) : MIN_IDLE_ADAPTIVE_MAX_COUNT_DEFAULT;
+		}
+		{	final String s = map.getProperty(AFFINITY_ENABLED_ID);
+			this.affinityEnabled = (s != null) ? Boolean.parseBoolean(s) : AFFINITY_ENABLED_DEFAULT;
+		}
+		{	final String s = map.getProperty(AFFINITY_KEEP_WORKSPACE_ID);
+			this.affinityKeepWorkspace = (s != null) ? Boolean.parseBoolean(s) : AFFINITY_KEEP_WORKSPACE_DEFAULT;
+		}
+		{	final String s = map.getProperty(MAX_AGE_MILLIS_ID);
+			this.maxAge = (s != null) ? Long.parseLong(s) : MAX_AGE_MILLIS_DEFAULT;
+		}
+		{	final String s = map.getProperty(MAX_R_HEAP_ID);
+			this.maxRHeap = (s != null) ? Long.parseLong(s) : MAX_R_HEAP_DEFAULT;
+		}
+		{	final String s = map.getProperty(MAX_PROCESS_MEMORY_ID);
+			this.maxProcessMemory = (s != null) ? Long.parseLong(s) : MAX_PROCESS_MEMORY_DEFAULT;
+		}
+		{	final String s = map.getProperty(REPLACE_RETIRING_ENABLED_ID);
+			this.replaceRetiringEnabled = (s != null) ? Boolean.parseBoolean(s) : REPLACE_RETIRING_ENABLED_DEFAULT;
+		}
+		{	final String s = map.getProperty(ROLLING_UPDATE_RATE_ID);
+			this.rollingUpdateRate = (s != null) ? Integer.parseInt(s) : ROLLING_UPDATE_RATE_DEFAULT;
+		}
+		{	final String s = map.getProperty(NODE_THREADS_ID);
+			this.nodeThreads = (s != null) ? Integer.parseInt(s) : NODE_THREADS_DEFAULT;
+		}
+		{	final String s = map.getProperty(NODE_CPU_PINNING_ENABLED_ID);
+			this.nodeCpuPinningEnabled = (s != null) ? Boolean.parseBoolean(s) : NODE_CPU_PINNING_ENABLED_DEFAULT;
+		}
+		{	final String s = map.getProperty(MAX_AWAKE_IDLE_COUNT_ID);
+			this.maxAwakeIdleCount = (s != null) ? Integer.parseInt(s) : MAX_AWAKE_IDLE_COUNT_DEFAULT;
+		}
+		{	final String s = map.getProperty(RESET_BACKGROUND_ENABLED_ID);
+			this.resetBackgroundEnabled = (s != null) ? Boolean.parseBoolean(s) : RESET_BACKGROUND_ENABLED_DEFAULT;
+		}
 	}
 	
 	@Override
@@ -118,6 +322,19 @@ public class PoolConfig implements PropertiesBean {
 		map.setProperty(MAX_WAIT_MILLIS_ID, Long.toString(this.maxWaitTime));
 		map.setProperty(MAX_USAGE_COUNT_ID, Integer.toString(this.maxUsageCount));
 		map.setProperty(EVICT_TIMEOUT_ID, Long.toString(this.evictTimeout));
+		map.setProperty(MAX_STARTING_COUNT_ID, Integer.toString(this.maxStartingCount));
+		map.setProperty(MIN_IDLE_ADAPTIVE_MAX_COUNT_ID, Integer.toString(this.minIdleAdaptiveMaxCount));
+		map.setProperty(AFFINITY_ENABLED_ID, Boolean.toString(this.affinityEnabled));
+		map.setProperty(AFFINITY_KEEP_WORKSPACE_ID, Boolean.toString(this.affinityKeepWorkspace));
+		map.setProperty(MAX_AGE_MILLIS_ID, Long.toString(this.maxAge));
+		map.setProperty(MAX_R_HEAP_ID, Long.toString(this.maxRHeap));
+		map.setProperty(MAX_PROCESS_MEMORY_ID, Long.toString(this.maxProcessMemory));
+		map.setProperty(REPLACE_RETIRING_ENABLED_ID, Boolean.toString(this.replaceRetiringEnabled));
+		map.setProperty(ROLLING_UPDATE_RATE_ID, Integer.toString(this.rollingUpdateRate));
+		map.setProperty(NODE_THREADS_ID, Integer.toString(this.nodeThreads));
+		map.setProperty(NODE_CPU_PINNING_ENABLED_ID, Boolean.toString(this.nodeCpuPinningEnabled));
+		map.setProperty(MAX_AWAKE_IDLE_COUNT_ID, Integer.toString(this.maxAwakeIdleCount));
+		map.setProperty(RESET_BACKGROUND_ENABLED_ID, Boolean.toString(this.resetBackgroundEnabled));
 	}
 	
 	public synchronized int getMaxTotalCount() {
@@ -168,6 +385,252 @@ public class PoolConfig implements PropertiesBean {
 		return this.maxUsageCount;
 	}
 	
+	/**
+	 * Returns the max age of nodes.
+	 * 
+	 * A node older than this is recycled when it is returned. The effective
+	 * age of each node is reduced by a random amount of up to 10 percent so
+	 * that nodes started at the same time do not retire at the same time.
+	 * 
+	 * @return the age in milliseconds or <code>-1</code> if disabled
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized long getMaxAge() {
+		return this.maxAge;
+	}
+	
+	/**
+	 * Sets the max age of nodes.
+	 * 
+	 * @param milliseconds the age in milliseconds or <code>-1</code> to disable
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized void setMaxAge(final long milliseconds) {
+		this.maxAge = milliseconds;
+	}
+	
+	/**
+	 * Returns the max size of the R heap of nodes.
+	 * 
+	 * The size is measured when the workspace of a node is reset with garbage
+	 * collection; a node exceeding it is recycled when it is returned the next time.
+	 * 
+	 * @return the size in MB or <code>-1</code> if disabled
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized long getMaxRHeap() {
+		return this.maxRHeap;
+	}
+	
+	/**
+	 * Sets the max size of the R heap of nodes.
+	 * 
+	 * @param mb the size in MB or <code>-1</code> to disable
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized void setMaxRHeap(final long mb) {
+		this.maxRHeap = mb;
+	}
+	
+	/**
+	 * Returns the max memory (resident set size) of node processes.
+	 * 
+	 * A node exceeding it is recycled when it is returned. The value is read
+	 * from the proc filesystem of the operating system; it is ignored on other
+	 * systems.
+	 * 
+	 * @return the size in MB or <code>-1</code> if disabled
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized long getMaxProcessMemory() {
+		return this.maxProcessMemory;
+	}
+	
+	/**
+	 * Sets the max memory (resident set size) of node processes.
+	 * 
+	 * @param mb the size in MB or <code>-1</code> to disable
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized void setMaxProcessMemory(final long mb) {
+		this.maxProcessMemory = mb;
+	}
+	
+	/**
+	 * Returns if retiring nodes are replaced before they are stopped.
+	 * 
+	 * If enabled, the start of a successor is initiated as soon as a node reaches
+	 * one of the recycling limits usage count or age; the node remains in use until
+	 * the successor is ready to take its place.  Nodes exceeding a memory limit are
+	 * always stopped at once, as are retiring nodes if the max total count of nodes
+	 * is reached.
+	 * 
+	 * @return <code>true</code> if enabled
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized boolean getReplaceRetiringEnabled() {
+		return this.replaceRetiringEnabled;
+	}
+	
+	/**
+	 * Sets if retiring nodes are replaced before they are stopped.
+	 * 
+	 * @param enabled <code>true</code> to enable
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized void setReplaceRetiringEnabled(final boolean enabled) {
+		this.replaceRetiringEnabled = enabled;
+	}
+	
+	/**
+	 * Returns the number of idle nodes per minute replaced after a change of
+	 * the node configuration (rolling update).
+	 * 
+	 * If enabled, nodes started with a previous node configuration are replaced
+	 * by new nodes: idle nodes at the given rate, nodes in use when they are
+	 * returned.  A node is in use until its successor is ready, so the number
+	 * of idle nodes does not drop during the update.  With a rate of <code>0</code>,
+	 * nodes are replaced only when they are returned.
+	 * 
+	 * @return the rate or <code>-1</code> if disabled
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized int getRollingUpdateRate() {
+		return this.rollingUpdateRate;
+	}
+	
+	/**
+	 * Sets the number of idle nodes per minute replaced after a change of
+	 * the node configuration (rolling update).
+	 * 
+	 * @param rate the rate or <code>-1</code> to disable
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized void setRollingUpdateRate(final int rate) {
+		this.rollingUpdateRate = rate;
+	}
+	
+	/**
+	 * Returns the number of threads of BLAS/OpenMP libraries per node.
+	 * 
+	 * The number is passed to the nodes by the environment variables like
+	 * <code>OMP_NUM_THREADS</code> and <code>OPENBLAS_NUM_THREADS</code>, unless they are
+	 * specified explicitly in the node configuration.  With <code>0</code>, the number
+	 * is computed from the available CPUs and the max total number of nodes, so that
+	 * the nodes together do not use more threads than CPUs are available (at least one
+	 * thread per node).
+	 * 
+	 * @return the number of threads, <code>0</code> for automatic or <code>-1</code>
+	 *     if disabled (defaults of the libraries)
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized int getNodeThreads() {
+		return this.nodeThreads;
+	}
+	
+	/**
+	 * Sets the number of threads of BLAS/OpenMP libraries per node.
+	 * 
+	 * @param count the number of threads, <code>0</code> for automatic or <code>-1</code>
+	 *     to disable
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized void setNodeThreads(final int count) {
+		this.nodeThreads = count;
+	}
+	
+	/**
+	 * Returns if the nodes are pinned to separate sets of CPUs.
+	 * 
+	 * If enabled (and the number of threads per node is specified), each node is pinned
+	 * to its own set of CPUs with the size of the number of threads per node, as long as
+	 * free CPUs are available (Linux only, requires <code>taskset</code>).
+	 * 
+	 * @return <code>true</code> if enabled, otherwise <code>false</code>
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized boolean getNodeCpuPinningEnabled() {
+		return this.nodeCpuPinningEnabled;
+	}
+	
+	/**
+	 * Sets if the nodes are pinned to separate sets of CPUs.
+	 * 
+	 * @param enabled <code>true</code> to enable, otherwise <code>false</code>
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized void setNodeCpuPinningEnabled(final boolean enabled) {
+		this.nodeCpuPinningEnabled = enabled;
+	}
+	
+	/**
+	 * Returns the max number of idle nodes kept awake.
+	 * 
+	 * The idle nodes exceeding the number are hibernated: their processes are stopped
+	 * (SIGSTOP) until they are needed again (SIGCONT, Linux/Unix only).  Hibernated nodes
+	 * don't use CPU time, but their memory stays allocated; they are stopped according to
+	 * the min idle time as usual.  The nodes are hibernated and woken up by the regular
+	 * eviction run; a hibernated node is woken up directly if it is borrowed.
+	 * 
+	 * @return the number of nodes or <code>-1</code> if hibernation is disabled
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized int getMaxAwakeIdleCount() {
+		return this.maxAwakeIdleCount;
+	}
+	
+	/**
+	 * Sets the max number of idle nodes kept awake.
+	 * 
+	 * @param count the number of nodes or <code>-1</code> to disable hibernation
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized void setMaxAwakeIdleCount(final int count) {
+		this.maxAwakeIdleCount = count;
+	}
+	
+	/**
+	 * Returns if returned nodes are reset in the background.
+	 * 
+	 * If enabled, the client returning a node does not wait for the reset of the
+	 * workspace; the node is available again when the reset is completed.  If
+	 * disabled, the reset is done synchronously when the node is returned.
+	 * 
+	 * @return <code>true</code> if enabled
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized boolean getResetBackgroundEnabled() {
+		return this.resetBackgroundEnabled;
+	}
+	
+	/**
+	 * Sets if returned nodes are reset in the background.
+	 * 
+	 * @param enabled <code>true</code> to enable
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized void setResetBackgroundEnabled(final boolean enabled) {
+		this.resetBackgroundEnabled = enabled;
+	}
+	
 	
 	/**
 	 * Returns the timeout when evicing lent pool items
@@ -192,6 +655,109 @@ public class PoolConfig implements PropertiesBean {
 		this.evictTimeout = milliseconds;
 	}
 	
+	/**
+	 * Returns the max number of nodes started concurrently, e.g. to ensure
+	 * the min number of idle nodes
+	 * 
+	 * @return the count
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized int getMaxStartingCount() {
+		return this.maxStartingCount;
+	}
+	
+	/**
+	 * Sets the max number of nodes started concurrently
+	 * 
+	 * @param count the count
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized void setMaxStartingCount(final int count) {
+		this.maxStartingCount = count;
+	}
+	
+	/**
+	 * Returns the upper bound of the adaptive min number of idle nodes.
+	 * 
+	 * If the value is greater than the {@link #getMinIdleCount() min idle count},
+	 * the pool adapts the min number of idle nodes between both values based on
+	 * the observed request rate, usage duration and node startup duration.
+	 * 
+	 * @return the count or <code>-1</code> if disabled
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized int getMinIdleAdaptiveMaxCount() {
+		return this.minIdleAdaptiveMaxCount;
+	}
+	
+	/**
+	 * Sets the upper bound of the adaptive min number of idle nodes.
+	 * 
+	 * @param count the count or <code>-1</code> to disable
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized void setMinIdleAdaptiveMaxCount(final int count) {
+		this.minIdleAdaptiveMaxCount = count;
+	}
+	
+	/**
+	 * Returns if clients prefer the node they used last.
+	 * 
+	 * If enabled, a request is served by the idle node last used by a client
+	 * with the same name from the same host, if available.
+	 * 
+	 * @return <code>true</code> if enabled
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized boolean getAffinityEnabled() {
+		return this.affinityEnabled;
+	}
+	
+	/**
+	 * Sets if clients prefer the node they used last.
+	 * 
+	 * @param enabled <code>true</code> to enable
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized void setAffinityEnabled(final boolean enabled) {
+		this.affinityEnabled = enabled;
+	}
+	
+	/**
+	 * Returns if nodes keep the workspace for the next request of the same client.
+	 * 
+	 * If enabled (and the client affinity is enabled), the workspace of a returned
+	 * node is not reset until the node is requested by another client.
+	 * 
+	 * The name of the client is not authenticated: all clients connecting from the
+	 * same host with the same name share the workspace, including its data.  Enable
+	 * the option only if all clients of the pool are trusted.
+	 * 
+	 * @return <code>true</code> if enabled
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized boolean getAffinityKeepWorkspace() {
+		return this.affinityKeepWorkspace;
+	}
+	
+	/**
+	 * Sets if nodes keep the workspace for the next request of the same client.
+	 * 
+	 * @param enabled <code>true</code> to enable
+	 * 
+	 * @since 2.1
+	 */
+	public synchronized void setAffinityKeepWorkspace(final boolean enabled) {
+		this.affinityKeepWorkspace = enabled;
+	}
+	
 	
 	@Override
 	public synchronized boolean validate(final Collection<ValidationMessage> messages) {
@@ -239,6 +805,42 @@ public class PoolConfig implements PropertiesBean {
 			}
 			valid = false;
 		}
+		if (this.rollingUpdateRate < -1) {
+			if (messages != null) {
+				messages.add(new ValidationMessage(ROLLING_UPDATE_RATE_ID, "Value must be >= 0 or == -1 (disable)"));
+			}
+			valid = false;
+		}
+		if (this.nodeThreads < -1) {
+			if (messages != null) {
+				messages.add(new ValidationMessage(NODE_THREADS_ID, "Value must be > 0, == 0 (auto) or == -1 (disable)"));
+			}
+			valid = false;
+		}
+		if (this.maxAwakeIdleCount < -1) {
+			if (messages != null) {
+				messages.add(new ValidationMessage(MAX_AWAKE_IDLE_COUNT_ID, "Value must be >= 0 or == -1 (disable)"));
+			}
+			valid = false;
+		}
+		if (this.maxAge < 1 && this.maxAge != -1) {
+			if (messages != null) {
+				messages.add(new ValidationMessage(MAX_AGE_MILLIS_ID, "Value must be > 0 or == -1 (disable)"));
+			}
+			valid = false;
+		}
+		if (this.maxRHeap < 1 && this.maxRHeap != -1) {
+			if (messages != null) {
+				messages.add(new ValidationMessage(MAX_R_HEAP_ID, "Value must be > 0 or == -1 (disable)"));
+			}
+			valid = false;
+		}
+		if (this.maxProcessMemory < 1 && this.maxProcessMemory != -1) {
+			if (messages != null) {
+				messages.add(new ValidationMessage(MAX_PROCESS_MEMORY_ID, "Value must be > 0 or == -1 (disable)"));
+			}
+			valid = false;
+		}
 		
 		if (this.evictTimeout < 0) {
 			if (messages != null) {
@@ -246,6 +848,20 @@ public class PoolConfig implements PropertiesBean {
 			}
 			valid = false;
 		}
+		if (this.maxStartingCount < 1) {
+			if (messages != null) {
+				messages.add(new ValidationMessage(MAX_STARTING_COUNT_ID, "Value must be > 0."));
+			}
+			valid = false;
+		}
+		if (this.minIdleAdaptiveMaxCount != -1
+				&& (this.minIdleAdaptiveMaxCount < this.minIdleCount
+						|| (this.maxIdleCount >= 0 && this.minIdleAdaptiveMaxCount > this.maxIdleCount) )) {
+			if (messages != null) {
+				messages.add(new ValidationMessage(MIN_IDLE_ADAPTIVE_MAX_COUNT_ID, "Value must be >= {" + MIN_IDLE_COUNT_ID + "} and <= {" + MAX_IDLE_COUNT_ID + "}, or == -1 (disable)."));
+			}
+			valid = false;
+		}
 		return valid;
 	}
 	
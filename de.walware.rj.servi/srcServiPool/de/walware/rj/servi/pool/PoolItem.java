@@ -27,6 +27,8 @@ public class PoolItem {
 		INITIALIZING,
 		IDLING,
 		LENT,
+		/** @since 2.1 */
+		RESETTING,
 		EVICTING,
 		
 	}
@@ -39,6 +41,7 @@ public class PoolItem {
 	
 	private long usageCount;
 	private long usageDuration;
+	private long completedUsageDuration;
 	
 	private final PoolObject object;
 	
@@ -59,6 +62,9 @@ public class PoolItem {
 			case LENT:
 				this.state = State.LENT;
 				break;
+			case RESETTING:
+				this.state = State.RESETTING;
+				break;
 			case EVICTING:
 			case EVICTED:
 				this.state = State.EVICTING;
@@ -67,8 +73,9 @@ public class PoolItem {
 			this.stateTime = item.getStateTime();
 			this.usageCount = item.getLentCount();
 			this.usageDuration = item.getLentDuration();
+			this.completedUsageDuration = this.usageDuration;
 			if (this.state == State.LENT) {
-				this.usageDuration += Math.min(stamp - item.getStateTime(), 0L);
+				this.usageDuration += Math.max(stamp - item.getStateTime(), 0L);
 			}
 			this.client = item.getClientLabel();
 		}
@@ -116,6 +123,92 @@ public class PoolItem {
 		}
 	}
 	
+	/**
+	 * Returns the recent output (stdout and stderr) of the node process.
+	 * 
+	 * @return the text if available, otherwise <code>null</code>
+	 * 
+	 * @since 2.1
+	 */
+	public String getProcessOutput() {
+		if (this.object != null) {
+			return this.object.getProcessOutput();
+		}
+		return null;
+	}
+	
+	/**
+	 * Returns the CPU time used by the node process, if the node runs in a cgroup.
+	 * 
+	 * @return the time in milliseconds if available, otherwise <code>-1</code>
+	 * 
+	 * @since 2.1
+	 */
+	public long getCpuTime() {
+		if (this.object != null) {
+			return this.object.getCpuTime();
+		}
+		return -1;
+	}
+	
+	/**
+	 * Returns the memory used by the node process, if the node runs in a cgroup.
+	 * 
+	 * @return the size in kB if available, otherwise <code>-1</code>
+	 * 
+	 * @since 2.1
+	 */
+	public long getCgroupMemory() {
+		if (this.object != null) {
+			return this.object.getCgroupMemory();
+		}
+		return -1;
+	}
+	
+	/**
+	 * Returns if the node process is hibernated because the node is a surplus idle node.
+	 * 
+	 * @return <code>true</code> if hibernated, otherwise <code>false</code>
+	 * 
+	 * @since 2.1
+	 */
+	public boolean isHibernated() {
+		if (this.object != null) {
+			return this.object.isHibernated();
+		}
+		return false;
+	}
+	
+	/**
+	 * Returns the time the node was busy running calls of its clients, summed up over
+	 * all completed uses.
+	 * 
+	 * @return the time in milliseconds if available, otherwise <code>-1</code>
+	 * 
+	 * @since 2.1
+	 */
+	public long getBusyTime() {
+		if (this.object != null) {
+			return this.object.getBusyTime();
+		}
+		return -1;
+	}
+	
+	/**
+	 * Returns the ratio of the time the node was busy running calls of its clients to the
+	 * time the node was in use, for all completed uses.
+	 * 
+	 * @return the ratio (0-1) if available, otherwise <code>-1</code>
+	 * 
+	 * @since 2.1
+	 */
+	public double getBusyRatio() {
+		if (this.object != null && this.completedUsageDuration > 0) {
+			return Math.min((double) this.object.getBusyTime() / this.completedUsageDuration, 1.0);
+		}
+		return -1;
+	}
+	
 	/**
 	 * Returns the RMI address of the node.
 	 * 
@@ -0,0 +1,294 @@
+/*=============================================================================#
+ # Copyright (c) 2009-2016 Stephan Wahlbrink (WalWare.de) and others.
+ # All rights reserved. This program and the accompanying materials
+ # are made available under the terms of the Eclipse Public License v1.0
+ # which accompanies this distribution, and is available at
+ # http://www.eclipse.org/legal/epl-v10.html
+ # 
+ # Contributors:
+ #     Stephan Wahlbrink - initial API and implementation
+ #=============================================================================*/
+
+package de.walware.rj.servi.pool;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+
+import de.walware.ecommons.ECommons;
+import de.walware.ecommons.net.RMIAddress;
+
+import de.walware.rj.servi.RServiUtil;
+
+
+/**
+ * Pool status in the OpenMetrics text format (Prometheus).
+ * 
+ * <p>The status is refreshed periodically by a timer thread; {@link #getText()} only
+ * returns the last snapshot, so requests of the metrics never access the pool.</p>
+ * 
+ * @since 2.1
+ */
+public class PoolMetrics extends PoolStatus<PoolItem> {
+	
+	
+	public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+	
+	public static final long DEFAULT_INTERVAL = 5000;
+	
+	
+	private final Timer timer;
+	
+	private volatile String text = "# EOF\n";
+	
+	private boolean failed;
+	
+	
+	/**
+	 * Creates the metrics and starts the periodical refresh.
+	 * 
+	 * @param server the pool server
+	 * @param interval the interval of the refresh in milliseconds
+	 */
+	public PoolMetrics(final PoolServer server, final long interval) {
+		super(server);
+		
+		this.timer = new Timer("RServi-PoolMetrics", true);
+		this.timer.schedule(new TimerTask() {
+			@Override
+			public void run() {
+				update();
+			}
+		}, 0, interval);
+	}
+	
+	
+	/**
+	 * Stops the refresh of the metrics.
+	 */
+	public void dispose() {
+		this.timer.cancel();
+	}
+	
+	/**
+	 * Returns the last snapshot of the metrics.
+	 * 
+	 * @return the metrics in the OpenMetrics text format
+	 */
+	public String getText() {
+		return this.text;
+	}
+	
+	
+	@Override
+	protected PoolItem createNodeState(final PoolItem item) {
+		return item;
+	}
+	
+	private synchronized void update() {
+		try {
+			final RServiPoolManager manager = this.server.getManager();
+			refresh(manager, System.currentTimeMillis());
+			this.text = createText(manager != null);
+			this.failed = false;
+		}
+		catch (final RuntimeException e) {
+			if (!this.failed) {
+				this.failed = true;
+				ECommons.getEnv().log(new Status(IStatus.ERROR, RServiUtil.RJ_SERVI_ID,
+						"An error occurred when refreshing the pool metrics.", e ));
+			}
+		}
+	}
+	
+	private String createText(final boolean up) {
+		final StringBuilder sb = new StringBuilder(8192);
+		
+		appendType(sb, "rservi_pool_up", "gauge", null, "Pool is running");
+		appendSample(sb, "rservi_pool_up", null, null, (up) ? 1 : 0);
+		
+		appendType(sb, "rservi_pool_nodes", "gauge", null, "Number of nodes by state");
+		appendSample(sb, "rservi_pool_nodes", "state", "idling", getNumIdling());
+		appendSample(sb, "rservi_pool_nodes", "state", "in_use", getNumInUse());
+		appendSample(sb, "rservi_pool_nodes", "state", "resetting", getNumResetting());
+		appendType(sb, "rservi_pool_nodes_max", "gauge", null, "Max number of nodes");
+		appendSample(sb, "rservi_pool_nodes_max", null, null, getMaxTotal());
+		appendType(sb, "rservi_pool_nodes_hibernated", "gauge", null, "Number of hibernated idle nodes");
+		appendSample(sb, "rservi_pool_nodes_hibernated", null, null, getNumHibernated());
+		appendType(sb, "rservi_pool_nodes_outdated", "gauge", null, "Number of nodes of older configurations");
+		appendSample(sb, "rservi_pool_nodes_outdated", null, null, getNumOutdated());
+		appendType(sb, "rservi_pool_nodes_pinned", "gauge", null, "Number of nodes pinned to CPUs");
+		appendSample(sb, "rservi_pool_nodes_pinned", null, null, getNumPinned());
+		appendType(sb, "rservi_pool_min_idle_target", "gauge", null, "Current target of idle nodes");
+		appendSample(sb, "rservi_pool_min_idle_target", null, null, getMinIdlingTarget());
+		appendType(sb, "rservi_pool_node_threads", "gauge", null, "Number of BLAS/OpenMP threads of all nodes");
+		appendSample(sb, "rservi_pool_node_threads", null, null, getNumThreads());
+		
+		appendType(sb, "rservi_pool_waiting", "gauge", null, "Number of clients waiting for a node");
+		appendSample(sb, "rservi_pool_waiting", null, null, getNumWaiting());
+		appendType(sb, "rservi_pool_request_rate", "gauge", null, "Requests per minute (average)");
+		appendSample(sb, "rservi_pool_request_rate", null, null, getRequestRate());
+		final double busyRatio = getBusyRatio();
+		if (busyRatio >= 0) {
+			appendType(sb, "rservi_pool_busy_ratio", "gauge", null, "Ratio of busy time of nodes in use");
+			appendSample(sb, "rservi_pool_busy_ratio", null, null, busyRatio);
+		}
+		
+		appendType(sb, "rservi_pool_affinity", "counter", null, "Requests served by the node last used by the client");
+		appendSample(sb, "rservi_pool_affinity_total", "result", "hit", getAffinityHits());
+		appendSample(sb, "rservi_pool_affinity_total", "result", "miss", getAffinityMisses());
+		appendType(sb, "rservi_pool_failures", "counter", null, "Failed requests by reason");
+		for (final Map.Entry<String, Long> entry : getFailureCounts().entrySet()) {
+			appendSample(sb, "rservi_pool_failures_total", "reason", entry.getKey(), entry.getValue());
+		}
+		appendType(sb, "rservi_pool_node_recycles", "counter", null, "Nodes recycled by reason");
+		for (final Map.Entry<String, Long> entry : getRecycleCounts().entrySet()) {
+			appendSample(sb, "rservi_pool_node_recycles_total", "reason", entry.getKey(), entry.getValue());
+		}
+		
+		appendHistogram(sb, "rservi_pool_borrow_wait_seconds", "Time clients waited for a node",
+				getBorrowWaitTimes() );
+		appendHistogram(sb, "rservi_pool_usage_seconds", "Time nodes were in use by a client",
+				getUsageDurations() );
+		appendHistogram(sb, "rservi_pool_node_startup_seconds", "Time to start a node",
+				getStartupDurations() );
+		appendHistogram(sb, "rservi_pool_node_reset_seconds", "Time to reset a node after use",
+				getResetDurations() );
+		appendHistogram(sb, "rservi_pool_node_shutdown_seconds", "Time to stop a node",
+				getShutdownDurations() );
+		
+		final List<PoolItem> items = getNodeStates();
+		appendType(sb, "rservi_node_state", "stateset", null, "State of the node");
+		for (final PoolItem item : items) {
+			final String node = getNodeLabel(item);
+			for (final PoolItem.State state : PoolItem.State.values()) {
+				appendNodeSample(sb, "rservi_node_state", node, "rservi_node_state", state.name(),
+						(item.getState() == state) ? 1 : 0 );
+			}
+		}
+		appendType(sb, "rservi_node_hibernated", "gauge", null, "Node process is hibernated");
+		for (final PoolItem item : items) {
+			appendNodeSample(sb, "rservi_node_hibernated", getNodeLabel(item), null, null,
+					(item.isHibernated()) ? 1 : 0 );
+		}
+		appendType(sb, "rservi_node_usages", "counter", null, "Number of uses of the node");
+		for (final PoolItem item : items) {
+			appendNodeSample(sb, "rservi_node_usages_total", getNodeLabel(item), null, null,
+					item.getUsageCount() );
+		}
+		appendType(sb, "rservi_node_busy_seconds", "counter", "seconds", "Time the node was busy running calls of clients");
+		for (final PoolItem item : items) {
+			final long busyTime = item.getBusyTime();
+			if (busyTime >= 0) {
+				appendNodeSample(sb, "rservi_node_busy_seconds_total", getNodeLabel(item), null, null,
+						toSeconds(busyTime) );
+			}
+		}
+		appendType(sb, "rservi_node_cpu_seconds", "counter", "seconds", "CPU time of the node process (cgroup)");
+		for (final PoolItem item : items) {
+			final long cpuTime = item.getCpuTime();
+			if (cpuTime >= 0) {
+				appendNodeSample(sb, "rservi_node_cpu_seconds_total", getNodeLabel(item), null, null,
+						toSeconds(cpuTime) );
+			}
+		}
+		appendType(sb, "rservi_node_memory_bytes", "gauge", "bytes", "Memory of the node process (cgroup)");
+		for (final PoolItem item : items) {
+			final long memory = item.getCgroupMemory();
+			if (memory >= 0) {
+				appendNodeSample(sb, "rservi_node_memory_bytes", getNodeLabel(item), null, null,
+						memory * 1024L );
+			}
+		}
+		
+		sb.append("# EOF\n");
+		return sb.toString();
+	}
+	
+	private static String getNodeLabel(final PoolItem item) {
+		final RMIAddress address = item.getAddress();
+		return (address != null) ? address.getName() : "";
+	}
+	
+	private static void appendType(final StringBuilder sb, final String family, final String type,
+			final String unit, final String help) {
+		sb.append("# TYPE ").append(family).append(' ').append(type).append('\n');
+		if (unit != null) {
+			sb.append("# UNIT ").append(family).append(' ').append(unit).append('\n');
+		}
+		sb.append("# HELP ").append(family).append(' ').append(help).append('\n');
+	}
+	
+	private static void appendSample(final StringBuilder sb, final String name,
+			final String label, final String labelValue, final Object value) {
+		sb.append(name);
+		if (label != null) {
+			sb.append('{');
+			appendLabel(sb, label, labelValue);
+			sb.append('}');
+		}
+		sb.append(' ').append(value).append('\n');
+	}
+	
+	private static void appendNodeSample(final StringBuilder sb, final String name, final String node,
+			final String label, final String labelValue, final Object value) {
+		sb.append(name).append('{');
+		appendLabel(sb, "node", node);
+		if (label != null) {
+			sb.append(',');
+			appendLabel(sb, label, labelValue);
+		}
+		sb.append('}');
+		sb.append(' ').append(value).append('\n');
+	}
+	
+	private static void appendLabel(final StringBuilder sb, final String label, final String value) {
+		sb.append(label).append("=\"");
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			switch (c) {
+			case '\\':
+				sb.append("\\\\");
+				break;
+			case '\"':
+				sb.append("\\\"");
+				break;
+			case '\n':
+				sb.append("\\n");
+				break;
+			default:
+				sb.append(c);
+				break;
+			}
+		}
+		sb.append('\"');
+	}
+	
+	private static void appendHistogram(final StringBuilder sb, final String family, final String help,
+			final RServiPoolManager.Histogram histogram) {
+		appendType(sb, family, "histogram", "seconds", help);
+		final long[] bounds = histogram.getBounds();
+		final long[] counts = histogram.getCounts();
+		long cumulative = 0;
+		for (int i = 0; i < bounds.length; i++) {
+			cumulative += counts[i];
+			appendSample(sb, family + "_bucket", "le", toSeconds(bounds[i]), cumulative);
+		}
+		// counts of the buckets instead of the total count to keep the snapshot consistent
+		cumulative += counts[bounds.length];
+		appendSample(sb, family + "_bucket", "le", "+Inf", cumulative);
+		appendSample(sb, family + "_count", null, null, cumulative);
+		appendSample(sb, family + "_sum", null, null, toSeconds(histogram.getSum()));
+	}
+	
+	private static String toSeconds(final long millis) {
+		final BigDecimal seconds = BigDecimal.valueOf(millis, 3);
+		return (millis == 0) ? "0" : seconds.stripTrailingZeros().toPlainString();
+	}
+	
+}
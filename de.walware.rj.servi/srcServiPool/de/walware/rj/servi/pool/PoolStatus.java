@@ -14,6 +14,7 @@ package de.walware.rj.servi.pool;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -79,6 +80,165 @@ public abstract class PoolStatus<N> {
 		return this.counter.maxTotal;
 	}
 	
+	public synchronized int getNumWaiting() {
+		check();
+		return this.counter.numWaiting;
+	}
+	
+	public synchronized int getMaxWaiting() {
+		check();
+		return this.counter.maxWaiting;
+	}
+	
+	public synchronized long getAvgWaitTime() {
+		check();
+		return this.counter.avgWaitTime;
+	}
+	
+	public synchronized long getMaxWaitTime() {
+		check();
+		return this.counter.maxWaitTime;
+	}
+	
+	public synchronized int getMinIdlingTarget() {
+		check();
+		return this.counter.minIdlingTarget;
+	}
+	
+	public synchronized double getRequestRate() {
+		check();
+		return this.counter.requestRate;
+	}
+	
+	public synchronized long getAvgUsageDuration() {
+		check();
+		return this.counter.avgUsageDuration;
+	}
+	
+	public synchronized long getAvgStartupDuration() {
+		check();
+		return this.counter.avgStartupDuration;
+	}
+	
+	public synchronized int getNumResetting() {
+		check();
+		return this.counter.numResetting;
+	}
+	
+	public synchronized long getAvgResetDuration() {
+		check();
+		return this.counter.avgResetDuration;
+	}
+	
+	public synchronized long getMaxResetDuration() {
+		check();
+		return this.counter.maxResetDuration;
+	}
+	
+	public synchronized long getAffinityHits() {
+		check();
+		return this.counter.affinityHits;
+	}
+	
+	public synchronized long getAffinityMisses() {
+		check();
+		return this.counter.affinityMisses;
+	}
+	
+	public synchronized int getNodeGeneration() {
+		check();
+		return this.counter.nodeGeneration;
+	}
+	
+	public synchronized int getNumOutdated() {
+		check();
+		return this.counter.numOutdated;
+	}
+	
+	public synchronized int getNodeThreads() {
+		check();
+		return this.counter.nodeThreads;
+	}
+	
+	public synchronized int getNumThreads() {
+		check();
+		return this.counter.numThreads;
+	}
+	
+	public synchronized int getNumPinned() {
+		check();
+		return this.counter.numPinned;
+	}
+	
+	public synchronized int getNumHibernated() {
+		check();
+		return this.counter.numHibernated;
+	}
+	
+	/**
+	 * @since 2.1
+	 */
+	public synchronized RServiPoolManager.Histogram getBorrowWaitTimes() {
+		check();
+		return this.counter.borrowWaitTimes;
+	}
+	
+	/**
+	 * @since 2.1
+	 */
+	public synchronized RServiPoolManager.Histogram getUsageDurations() {
+		check();
+		return this.counter.usageDurations;
+	}
+	
+	/**
+	 * @since 2.1
+	 */
+	public synchronized RServiPoolManager.Histogram getStartupDurations() {
+		check();
+		return this.counter.startupDurations;
+	}
+	
+	/**
+	 * @since 2.1
+	 */
+	public synchronized RServiPoolManager.Histogram getResetDurations() {
+		check();
+		return this.counter.resetDurations;
+	}
+	
+	/**
+	 * @since 2.1
+	 */
+	public synchronized RServiPoolManager.Histogram getShutdownDurations() {
+		check();
+		return this.counter.shutdownDurations;
+	}
+	
+	/**
+	 * @since 2.1
+	 */
+	public synchronized double getBusyRatio() {
+		check();
+		return this.counter.busyRatio;
+	}
+	
+	/**
+	 * @since 2.1
+	 */
+	public synchronized Map<String, Long> getFailureCounts() {
+		check();
+		return this.counter.failureCounts;
+	}
+	
+	/**
+	 * @since 2.1
+	 */
+	public synchronized Map<String, Long> getRecycleCounts() {
+		check();
+		return this.counter.recycleCounts;
+	}
+	
 	
 	public synchronized List<N> getNodeStates() {
 		check();
@@ -104,6 +264,7 @@ public abstract class PoolStatus<N> {
 			list = new ArrayList<>();
 			counter.numIdling = 0;
 			counter.numInUse = 0;
+			counter.numResetting = 0;
 			counter.numTotal = 0;
 			for (final Object itemData : itemDatas) {
 				final PoolItem item = createPoolItem(itemData, stamp);
@@ -115,6 +276,9 @@ public abstract class PoolStatus<N> {
 				case IDLING:
 					counter.numIdling++;
 					break;
+				case RESETTING:
+					counter.numResetting++;
+					break;
 				default:
 					break;
 				}
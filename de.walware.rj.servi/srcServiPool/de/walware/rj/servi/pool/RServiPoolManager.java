@@ -11,12 +11,210 @@
 
 package de.walware.rj.servi.pool;
 
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+
 import de.walware.rj.RjException;
 
 
 public interface RServiPoolManager {
 	
 	
+	/**
+	 * Snapshot of a histogram of durations.
+	 * 
+	 * @since 2.1
+	 */
+	class Histogram {
+		
+		/** Upper bounds (inclusive) of the buckets in millis; the last bucket is unbounded */
+		private static final long[] BOUNDS = new long[] {
+				1, 2, 5, 10, 20, 50, 100, 200, 500,
+				1000, 2000, 5000, 10000, 20000, 50000,
+				100000, 200000, 500000, 1000000, 2000000, 5000000 };
+		
+		public static int numBuckets() {
+			return BOUNDS.length + 1;
+		}
+		
+		/**
+		 * Returns the index of the bucket for the duration.
+		 * 
+		 * @param millis the duration in millis
+		 * @return the index of the bucket
+		 */
+		public static int bucketIndex(final long millis) {
+			int i = 0;
+			while (i < BOUNDS.length && millis > BOUNDS[i]) {
+				i++;
+			}
+			return i;
+		}
+		
+		
+		private final long count;
+		private final long sum;
+		private final long max;
+		private final long[] counts;
+		
+		
+		public Histogram() {
+			this(0, 0, 0, new long[numBuckets()]);
+		}
+		
+		public Histogram(final long count, final long sum, final long max, final long[] counts) {
+			this.count = count;
+			this.sum = sum;
+			this.max = max;
+			this.counts = counts;
+		}
+		
+		
+		/** Number of recorded durations */
+		public long getCount() {
+			return this.count;
+		}
+		
+		/** Sum of the recorded durations in millis */
+		public long getSum() {
+			return this.sum;
+		}
+		
+		/** Average of the recorded durations in millis */
+		public long getAvg() {
+			return (this.count > 0) ? this.sum / this.count : 0;
+		}
+		
+		/** Max of the recorded durations in millis */
+		public long getMax() {
+			return this.max;
+		}
+		
+		/** Upper bounds of the buckets in millis, without the last (unbounded) bucket */
+		public long[] getBounds() {
+			return BOUNDS.clone();
+		}
+		
+		/** Number of recorded durations per bucket */
+		public long[] getCounts() {
+			return this.counts.clone();
+		}
+		
+		/**
+		 * Returns the estimated percentile, the upper bound of the bucket containing it.
+		 * 
+		 * @param p the percentile (0-1)
+		 * @return the duration in millis
+		 */
+		public long getPercentile(final double p) {
+			if (this.count == 0) {
+				return 0;
+			}
+			final long rank = Math.max(1, (long) Math.ceil(p * this.count));
+			long cumulated = 0;
+			for (int i = 0; i < BOUNDS.length; i++) {
+				cumulated += this.counts[i];
+				if (cumulated >= rank) {
+					return Math.min(BOUNDS[i], this.max);
+				}
+			}
+			return this.max;
+		}
+		
+		public long getP50() {
+			return getPercentile(0.50);
+		}
+		
+		public long getP90() {
+			return getPercentile(0.90);
+		}
+		
+		public long getP99() {
+			return getPercentile(0.99);
+		}
+		
+	}
+	
+	/**
+	 * Statistics of an R expression or function call evaluated by clients.
+	 * 
+	 * The expressions are normalized (literals replaced by <code>?</code>), so similar
+	 * calls are summarized.
+	 * 
+	 * @since 2.1
+	 */
+	class ExprStat implements Serializable {
+		
+		private static final long serialVersionUID = -2750468893123488651L;
+		
+		
+		private final String kind;
+		private final String expression;
+		private final long count;
+		private final long totalNanos;
+		private final long maxNanos;
+		private final long bytesOut;
+		
+		
+		public ExprStat(final String kind, final String expression, final long count,
+				final long totalNanos, final long maxNanos, final long bytesOut) {
+			this.kind = kind;
+			this.expression = expression;
+			this.count = count;
+			this.totalNanos = totalNanos;
+			this.maxNanos = maxNanos;
+			this.bytesOut = bytesOut;
+		}
+		
+		
+		/** Kind of the call (<code>evalVoid</code>, <code>evalData</code>, <code>callVoid</code>, <code>callData</code>) */
+		public String getKind() {
+			return this.kind;
+		}
+		
+		/** Normalized expression or name of the called function */
+		public String getExpression() {
+			return this.expression;
+		}
+		
+		/** Number of calls */
+		public long getCount() {
+			return this.count;
+		}
+		
+		/** Total time of the calls in millis */
+		public double getTotalTime() {
+			return this.totalNanos / 1000000.0;
+		}
+		
+		/** Mean time of the calls in millis */
+		public double getMeanTime() {
+			return (this.count > 0) ? this.totalNanos / 1000000.0 / this.count : 0;
+		}
+		
+		/** Max time of the calls in millis */
+		public double getMaxTime() {
+			return this.maxNanos / 1000000.0;
+		}
+		
+		/** Total time of the calls in nanos */
+		public long getTotalNanos() {
+			return this.totalNanos;
+		}
+		
+		/** Max time of the calls in nanos */
+		public long getMaxNanos() {
+			return this.maxNanos;
+		}
+		
+		/** Bytes sent to the clients as answer of the calls, -1 if not available */
+		public long getBytesOut() {
+			return this.bytesOut;
+		}
+		
+	}
+	
 	class Counter {
 		public int numIdling;
 		public int numInUse;
@@ -24,6 +222,50 @@ public interface RServiPoolManager {
 		public int maxIdling;
 		public int maxInUse;
 		public int maxTotal;
+		/** Number of clients waiting for a node */
+		public int numWaiting;
+		public int maxWaiting;
+		/** Time in millis clients waited for a node */
+		public long avgWaitTime;
+		public long maxWaitTime;
+		/** Min number of idle nodes currently ensured by the pool */
+		public int minIdlingTarget;
+		/** Average number of requests per minute */
+		public double requestRate;
+		/** Average time in millis a node is in use by a client */
+		public long avgUsageDuration;
+		/** Average time in millis to start a node */
+		public long avgStartupDuration;
+		/** Number of nodes resetting the workspace after use */
+		public int numResetting;
+		/** Time in millis to reset the workspace of a node */
+		public long avgResetDuration;
+		public long maxResetDuration;
+		/** Number of requests served (hit) or not (miss) by the node last used by the client */
+		public long affinityHits;
+		public long affinityMisses;
+		/** Generation of the node configuration and number of nodes of older generations */
+		public int nodeGeneration;
+		public int numOutdated;
+		/** Number of BLAS/OpenMP threads per node (-1 if not managed) and of all nodes */
+		public int nodeThreads;
+		public int numThreads;
+		/** Number of nodes pinned to a set of CPUs */
+		public int numPinned;
+		/** Number of idle nodes hibernated */
+		public int numHibernated;
+		/** Time in millis clients waited for a node, nodes were in use, started, reset and stopped */
+		public Histogram borrowWaitTimes = new Histogram();
+		public Histogram usageDurations = new Histogram();
+		public Histogram startupDurations = new Histogram();
+		public Histogram resetDurations = new Histogram();
+		public Histogram shutdownDurations = new Histogram();
+		/** Ratio of the time nodes were busy running calls to the time they were in use (-1 if not available) */
+		public double busyRatio = -1;
+		/** Number of failed requests by reason */
+		public Map<String, Long> failureCounts = Collections.emptyMap();
+		/** Number of nodes recycled by reason */
+		public Map<String, Long> recycleCounts = Collections.emptyMap();
 		
 		public Counter() {}
 	}
@@ -42,4 +284,21 @@ public interface RServiPoolManager {
 	RServiPoolManager.Counter getCounter();
 	Object[] getPoolItemsData();
 	
+	/**
+	 * Returns the statistics of the R expressions and function calls of the clients,
+	 * aggregated over all nodes.
+	 * 
+	 * @param max the max number of expressions, <code>-1</code> for all
+	 * @return the statistics, ordered by total time
+	 * @since 2.1
+	 */
+	RServiPoolManager.ExprStat[] getExprStats(int max);
+	
+	/**
+	 * Clears the statistics of the R expressions and function calls.
+	 * 
+	 * @since 2.1
+	 */
+	void resetExprStats();
+	
 }
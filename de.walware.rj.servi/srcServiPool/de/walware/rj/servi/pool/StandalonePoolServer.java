@@ -12,6 +12,7 @@
 package de.walware.rj.servi.pool;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -27,6 +28,8 @@ import de.walware.rj.RjInitFailedException;
 import de.walware.rj.RjInvalidConfigurationException;
 import de.walware.rj.server.srvext.RJContext;
 import de.walware.rj.servi.RServiUtil;
+import de.walware.rj.servi.internal.MetricsHttpListener;
+import de.walware.rj.servi.internal.Utils;
 import de.walware.rj.servi.jmx.StandalonePoolServerMXBean;
 
 
@@ -48,6 +51,10 @@ import de.walware.rj.servi.jmx.StandalonePoolServerMXBean;
  * <pre>
  * java -cp "/path/to/rjlibs/*" -Dde.walware.rj.path=/path/to/rjlibs/ de.walware.rj.servi.pool.StandalonePoolServer &lt;id&gt;
  * </pre></p>
+ * <p>If the java property <code>de.walware.rj.servi.metrics.port</code> is specified, the
+ * {@link PoolMetrics} are served by a minimal HTTP listener at <code>/metrics</code> of this
+ * port (e.g. for Prometheus). The listener binds to all addresses or to the address
+ * specified in the property <code>de.walware.rj.servi.metrics.host</code>.</p>
  * </p>
  */
 public class StandalonePoolServer extends JMPoolServer implements StandalonePoolServerMXBean {
@@ -89,8 +96,15 @@ public class StandalonePoolServer extends JMPoolServer implements StandalonePool
 	}
 	
 	
+	public static final String METRICS_PORT_PROPERTY = "de.walware.rj.servi.metrics.port";
+	public static final String METRICS_HOST_PROPERTY = "de.walware.rj.servi.metrics.host";
+	
+	
 	private final AtomicBoolean running = new AtomicBoolean(true);
 	
+	private PoolMetrics metrics;
+	private MetricsHttpListener metricsListener;
+	
 	
 	protected StandalonePoolServer(final String id, final RJContext context) throws RjInitFailedException {
 		super(id, context);
@@ -113,6 +127,38 @@ public class StandalonePoolServer extends JMPoolServer implements StandalonePool
 				}
 			}
 		}.start();
+		
+		startMetrics();
+	}
+	
+	
+	private void startMetrics() {
+		final String port = System.getProperty(METRICS_PORT_PROPERTY);
+		if (port == null || port.isEmpty()) {
+			return;
+		}
+		try {
+			this.metrics = new PoolMetrics(this, PoolMetrics.DEFAULT_INTERVAL);
+			this.metricsListener = new MetricsHttpListener(this.metrics,
+					System.getProperty(METRICS_HOST_PROPERTY), Integer.parseInt(port) );
+			Utils.logInfo("Metrics listener at port " + port + " started.");
+		}
+		catch (final IOException | IllegalArgumentException e) {
+			ECommons.getEnv().log(new Status(IStatus.WARNING, RServiUtil.RJ_SERVI_ID,
+					"The metrics listener could not be started.", e ));
+			stopMetrics();
+		}
+	}
+	
+	private void stopMetrics() {
+		if (this.metricsListener != null) {
+			this.metricsListener.dispose();
+			this.metricsListener = null;
+		}
+		if (this.metrics != null) {
+			this.metrics.dispose();
+			this.metrics = null;
+		}
 	}
 	
 	
@@ -122,6 +168,7 @@ public class StandalonePoolServer extends JMPoolServer implements StandalonePool
 			super.shutdown();
 		}
 		finally {
+			stopMetrics();
 			this.running.set(false);
 			synchronized (this.running) {
 				this.running.notifyAll();